@@ -0,0 +1,337 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.CompactGraph;
+import com.transporte.bogota.util.GeoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Preproceso de landmarks para ALT (A*, Landmarks, desigualdad Triangular).
+ *
+ * Para cada landmark L se guardan d(L, v) y d(v, L) para todas las estaciones.
+ * Por desigualdad triangular, d(v, t) ≥ d(L, t) - d(L, v) y d(v, t) ≥ d(v, L) - d(t, L);
+ * el máximo sobre todos los landmarks es una cota inferior consistente para A*.
+ *
+ * Los landmarks se eligen en la periferia: primero los portales y luego, hasta
+ * completar, la estación geográficamente más alejada de los ya elegidos. Las
+ * búsquedas de cada landmark son independientes y se reparten con fork-join.
+ * El resultado se persiste en un archivo binario con una huella del grafo para
+ * no recalcularlo al reiniciar si la red no cambió.
+ */
+public final class AltLandmarks {
+
+    private static final Logger logger = LoggerFactory.getLogger(AltLandmarks.class);
+    private static final int INFINITO = Integer.MAX_VALUE;
+
+    public static final int NUM_LANDMARKS_DEFECTO = 16;
+
+    private static final int MAGIC = 0x414C5431; // "ALT1"
+    private static final char INFINITO_16 = Character.MAX_VALUE;
+
+    private final int[] landmarks;      // ordinales de los landmarks
+    private final int[][] desde;        // desde[i][v] = d(L_i, v)
+    private final int[][] hacia;        // hacia[i][v] = d(v, L_i)
+    private final long huella;
+
+    private AltLandmarks(int[] landmarks, int[][] desde, int[][] hacia, long huella) {
+        this.landmarks = landmarks;
+        this.desde = desde;
+        this.hacia = hacia;
+        this.huella = huella;
+    }
+
+    // ================== Construcción ==================
+
+    /**
+     * Elige los landmarks y calcula sus distancias en paralelo.
+     */
+    public static AltLandmarks construir(CompactGraph grafo, int numLandmarks) {
+        long startTime = System.currentTimeMillis();
+        if (grafo.getTiempoMinimo() < 0) {
+            throw new IllegalArgumentException("ALT requiere tiempos no negativos");
+        }
+
+        int[] elegidos = elegirLandmarks(grafo, numLandmarks);
+        int k = elegidos.length;
+        int[][] desde = new int[k][];
+        int[][] hacia = new int[k][];
+
+        // Dos búsquedas completas por landmark (hacia adelante y sobre el índice inverso)
+        List<RecursiveAction> tareas = new ArrayList<>(2 * k);
+        for (int i = 0; i < k; i++) {
+            final int indice = i;
+            tareas.add(accion(() -> desde[indice] = Dijkstra.calcularDistancias(grafo, elegidos[indice], false)));
+            tareas.add(accion(() -> hacia[indice] = Dijkstra.calcularDistancias(grafo, elegidos[indice], true)));
+        }
+        ForkJoinTask.invokeAll(tareas);
+
+        logger.info("ALT: {} landmarks calculados en {} ms", k, System.currentTimeMillis() - startTime);
+        return new AltLandmarks(elegidos, desde, hacia, huella(grafo));
+    }
+
+    private static RecursiveAction accion(Runnable cuerpo) {
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                cuerpo.run();
+            }
+        };
+    }
+
+    /**
+     * Portales primero (periferia de la red troncal) y después selección del punto
+     * más lejano: cada nuevo landmark maximiza la distancia geográfica mínima a los ya elegidos.
+     */
+    static int[] elegirLandmarks(CompactGraph grafo, int numLandmarks) {
+        int n = grafo.getNumNodos();
+        int k = Math.min(numLandmarks, n);
+        int[] elegidos = new int[k];
+        int total = 0;
+
+        double[] distanciaMinima = new double[n];
+        Arrays.fill(distanciaMinima, Double.POSITIVE_INFINITY);
+
+        for (int v = 0; v < n && total < k; v++) {
+            if ("portal".equals(grafo.getEstacion(v).getTipo())) {
+                elegidos[total++] = v;
+                actualizarDistanciaMinima(grafo, v, distanciaMinima);
+            }
+        }
+
+        // Sin portales, partir de la estación más alejada del centroide
+        if (total == 0 && k > 0) {
+            double latMedia = 0, lonMedia = 0;
+            for (int v = 0; v < n; v++) {
+                latMedia += grafo.latitud(v);
+                lonMedia += grafo.longitud(v);
+            }
+            latMedia /= n;
+            lonMedia /= n;
+            for (int v = 0; v < n; v++) {
+                distanciaMinima[v] = GeoUtils.distanciaKm(grafo.latitud(v), grafo.longitud(v), latMedia, lonMedia);
+            }
+        }
+
+        while (total < k) {
+            int masLejano = -1;
+            for (int v = 0; v < n; v++) {
+                if (masLejano < 0 || distanciaMinima[v] > distanciaMinima[masLejano]) masLejano = v;
+            }
+            elegidos[total++] = masLejano;
+            actualizarDistanciaMinima(grafo, masLejano, distanciaMinima);
+        }
+        return elegidos;
+    }
+
+    private static void actualizarDistanciaMinima(CompactGraph grafo, int landmark, double[] distanciaMinima) {
+        double lat = grafo.latitud(landmark), lon = grafo.longitud(landmark);
+        for (int v = 0; v < distanciaMinima.length; v++) {
+            double km = GeoUtils.distanciaKm(grafo.latitud(v), grafo.longitud(v), lat, lon);
+            if (km < distanciaMinima[v]) distanciaMinima[v] = km;
+        }
+        distanciaMinima[landmark] = -1; // Nunca se vuelve a elegir
+    }
+
+    // ================== Consulta ==================
+
+    /**
+     * Cota inferior del tiempo restante hasta el destino fijo t.
+     * Los pares con algún lado inalcanzable no aportan información y se omiten.
+     */
+    public Dijkstra.Heuristica heuristica(int destino) {
+        int k = landmarks.length;
+        int[] desdeADestino = new int[k];
+        int[] destinoAHacia = new int[k];
+        for (int i = 0; i < k; i++) {
+            desdeADestino[i] = desde[i][destino];
+            destinoAHacia[i] = hacia[i][destino];
+        }
+
+        return nodo -> {
+            int cota = 0;
+            for (int i = 0; i < k; i++) {
+                int dLt = desdeADestino[i], dLv = desde[i][nodo];
+                if (dLt != INFINITO && dLv != INFINITO && dLt - dLv > cota) {
+                    cota = dLt - dLv;
+                }
+                int dvL = hacia[i][nodo], dtL = destinoAHacia[i];
+                if (dvL != INFINITO && dtL != INFINITO && dvL - dtL > cota) {
+                    cota = dvL - dtL;
+                }
+            }
+            return cota;
+        };
+    }
+
+    public int getNumLandmarks() { return landmarks.length; }
+
+    public List<Estacion> getLandmarks(CompactGraph grafo) {
+        List<Estacion> estaciones = new ArrayList<>(landmarks.length);
+        for (int l : landmarks) {
+            estaciones.add(grafo.getEstacion(l));
+        }
+        return estaciones;
+    }
+
+    // ================== Persistencia ==================
+
+    /**
+     * Carga los landmarks del archivo si corresponde al mismo grafo; si no existe,
+     * está corrupto o la huella no coincide, los recalcula y reescribe el archivo.
+     */
+    public static AltLandmarks cargarOConstruir(CompactGraph grafo, Path archivo, int numLandmarks) {
+        if (archivo != null && Files.isRegularFile(archivo)) {
+            try {
+                AltLandmarks cargado = cargar(archivo, grafo);
+                if (cargado != null && cargado.getNumLandmarks() == Math.min(numLandmarks, grafo.getNumNodos())) {
+                    logger.info("ALT: {} landmarks cargados de {}", cargado.getNumLandmarks(), archivo);
+                    return cargado;
+                }
+                logger.info("ALT: {} corresponde a otra versión de la red, se recalcula", archivo);
+            } catch (IOException e) {
+                logger.warn("ALT: no se pudo leer {} ({}), se recalcula", archivo, e.getMessage());
+            }
+        }
+
+        AltLandmarks calculado = construir(grafo, numLandmarks);
+        if (archivo != null) {
+            try {
+                calculado.guardar(archivo);
+                logger.info("ALT: landmarks guardados en {}", archivo);
+            } catch (IOException e) {
+                logger.warn("ALT: no se pudo guardar {} ({})", archivo, e.getMessage());
+            }
+        }
+        return calculado;
+    }
+
+    /**
+     * Formato: magic, huella, n, k, ancho (2 o 4 bytes por distancia), landmarks
+     * y luego los arreglos desde/hacia de cada landmark. Con ancho 2 el infinito es 0xFFFF.
+     * Se escribe en un temporal y se renombra para no dejar archivos a medias.
+     */
+    public void guardar(Path archivo) throws IOException {
+        int n = desde.length == 0 ? 0 : desde[0].length;
+        int maximo = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            for (int v = 0; v < n; v++) {
+                if (desde[i][v] != INFINITO) maximo = Math.max(maximo, desde[i][v]);
+                if (hacia[i][v] != INFINITO) maximo = Math.max(maximo, hacia[i][v]);
+            }
+        }
+        int ancho = maximo < INFINITO_16 ? 2 : 4;
+
+        Path padre = archivo.toAbsolutePath().getParent();
+        if (padre != null) Files.createDirectories(padre);
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(huella);
+            out.writeInt(n);
+            out.writeInt(landmarks.length);
+            out.writeByte(ancho);
+            for (int l : landmarks) {
+                out.writeInt(l);
+            }
+            for (int i = 0; i < landmarks.length; i++) {
+                escribirDistancias(out, desde[i], ancho);
+                escribirDistancias(out, hacia[i], ancho);
+            }
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Lee el archivo; devuelve null si fue generado para otro grafo.
+     */
+    public static AltLandmarks cargar(Path archivo, CompactGraph grafo) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Formato de archivo ALT desconocido");
+            }
+            long huellaArchivo = in.readLong();
+            int n = in.readInt();
+            int k = in.readInt();
+            int ancho = in.readByte();
+            if (huellaArchivo != huella(grafo) || n != grafo.getNumNodos()) {
+                return null;
+            }
+            if (k < 0 || k > n || (ancho != 2 && ancho != 4)) {
+                throw new IOException("Encabezado ALT inválido");
+            }
+
+            int[] landmarks = new int[k];
+            for (int i = 0; i < k; i++) {
+                landmarks[i] = in.readInt();
+            }
+            int[][] desde = new int[k][];
+            int[][] hacia = new int[k][];
+            for (int i = 0; i < k; i++) {
+                desde[i] = leerDistancias(in, n, ancho);
+                hacia[i] = leerDistancias(in, n, ancho);
+            }
+            return new AltLandmarks(landmarks, desde, hacia, huellaArchivo);
+        }
+    }
+
+    private static void escribirDistancias(DataOutputStream out, int[] distancias, int ancho) throws IOException {
+        for (int d : distancias) {
+            if (ancho == 2) {
+                out.writeChar(d == INFINITO ? INFINITO_16 : d);
+            } else {
+                out.writeInt(d);
+            }
+        }
+    }
+
+    private static int[] leerDistancias(DataInputStream in, int n, int ancho) throws IOException {
+        int[] distancias = new int[n];
+        for (int v = 0; v < n; v++) {
+            if (ancho == 2) {
+                char d = in.readChar();
+                distancias[v] = d == INFINITO_16 ? INFINITO : d;
+            } else {
+                distancias[v] = in.readInt();
+            }
+        }
+        return distancias;
+    }
+
+    /**
+     * Huella FNV-1a de 64 bits sobre los IDs de las estaciones y las aristas (destino y tiempo).
+     */
+    static long huella(CompactGraph grafo) {
+        long h = 0xcbf29ce484222325L;
+        for (int u = 0; u < grafo.getNumNodos(); u++) {
+            h = mezclar(h, grafo.getEstacion(u).getId().hashCode());
+            h = mezclar(h, grafo.grado(u));
+            for (int e = grafo.inicioAristas(u), fin = grafo.finAristas(u); e < fin; e++) {
+                h = mezclar(h, grafo.destino(e));
+                h = mezclar(h, grafo.tiempo(e));
+            }
+        }
+        return h;
+    }
+
+    private static long mezclar(long h, int valor) {
+        for (int b = 0; b < 4; b++) {
+            h ^= (valor >>> (8 * b)) & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "AltLandmarks{landmarks=" + landmarks.length + ", huella=" + Long.toHexString(huella) + "}";
+    }
+}
@@ -1,10 +1,13 @@
 package com.transporte.bogota.algorithm;
 
 import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.CompactGraph;
 import com.transporte.bogota.util.Graph;
-import com.transporte.bogota.util.GraphEdge;
+import com.transporte.bogota.util.SearchWorkspace;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Implementación del algoritmo de Bellman-Ford para encontrar caminos más cortos
@@ -17,6 +20,12 @@ import java.util.*;
  */
 public class BellmanFord {
 
+    /**
+     * Motor de relajación: SPFA secuencial (admite pesos negativos y detecta ciclos)
+     * o delta-stepping paralelo (solo pesos no negativos, usa todos los núcleos).
+     */
+    public enum Motor { SPFA, DELTA_STEPPING }
+
     /**
      * Resultado del algoritmo Bellman-Ford
      */
@@ -36,23 +45,28 @@ public class BellmanFord {
     }
 
     /**
-     * Ejecuta Bellman-Ford desde una estación origen.
-     * OPTIMIZADO: Solo procesa nodos alcanzables desde origen.
+     * Ejecuta Bellman-Ford desde una estación origen sobre toda la red.
      *
-     * Complejidad: O(V * E) donde V = nodos alcanzables, E = aristas relevantes
+     * Usa la variante con cola (SPFA) con la heurística small-label-first: un nodo
+     * cuya distancia mejora por debajo de la del frente de la cola se atiende primero.
+     * Cada n relajaciones se recorre el grafo de predecesores; un ciclo en él es un
+     * ciclo negativo, que se reporta en {@link Resultado#cicloNegativo}.
+     *
+     * Complejidad: O(V * E) en el peor caso; en la red de transporte, casi lineal
      *
      * @param grafo El grafo de transporte
      * @param origen Estación de inicio
      * @return Resultado con distancias, predecesores y detección de ciclo negativo
      */
     public static Resultado ejecutar(Graph grafo, Estacion origen) {
-        // CRÍTICO: Limitar a 800 nodos para evitar OOM
-        return ejecutarOptimizado(grafo, origen, null, 800);
+        return ejecutar(grafo.compactar(), origen);
     }
 
     /**
      * Ejecuta Bellman-Ford con destino específico.
-     * Usa BFS bidireccional para optimizar la búsqueda.
+     * Con pesos negativos no se puede detener la búsqueda al alcanzar el destino,
+     * así que equivale a la búsqueda completa desde el origen; el camino se obtiene
+     * con {@link #reconstruirCamino}.
      *
      * @param grafo El grafo de transporte
      * @param origen Estación de inicio
@@ -60,295 +74,140 @@ public class BellmanFord {
      * @return Resultado con distancias, predecesores
      */
     public static Resultado ejecutar(Graph grafo, Estacion origen, Estacion destino) {
-        // Usar BFS bidireccional cuando hay destino
-        return ejecutarConBFSBidireccional(grafo, origen, destino);
+        return ejecutar(grafo.compactar(), origen);
     }
 
     /**
-     * Versión optimizada que limita el número de nodos a procesar.
-     * CRÍTICO para grafos grandes.
-     *
-     * @param grafo El grafo de transporte
-     * @param origen Estación de inicio
-     * @param destino Estación destino (opcional, para limitar búsqueda)
-     * @param maxNodos Máximo de nodos a procesar (para evitar OOM)
-     * @return Resultado con distancias, predecesores y detección de ciclo negativo
+     * Bellman-Ford (SPFA) sobre la vista CSR; los pesos pueden ser negativos.
      */
-    private static Resultado ejecutarOptimizado(Graph grafo, Estacion origen, Estacion destino, int maxNodos) {
-        Map<Estacion, Double> distancias = new HashMap<>();
-        Map<Estacion, Estacion> predecesores = new HashMap<>();
-
-        // Si maxNodos >= tamaño del grafo, usar todos los nodos (evitar BFS redundante)
-        Set<Estacion> nodosAlcanzables;
-        if (maxNodos >= grafo.getNodos().size()) {
-            System.out.println("      Usando TODOS los nodos del grafo (" + grafo.getNodos().size() + ")");
-            nodosAlcanzables = new HashSet<>(grafo.getNodos());
-        } else {
-            System.out.println("      Limitando a " + maxNodos + " nodos alcanzables desde origen");
-            nodosAlcanzables = obtenerNodosAlcanzables(grafo, origen, maxNodos);
-        }
-
-        System.out.println("      Nodos a procesar: " + nodosAlcanzables.size());
-        System.out.println("      ¿Destino en nodos alcanzables? " + nodosAlcanzables.contains(destino));
-
-        // Inicializar distancias solo para nodos alcanzables
-        for (Estacion nodo : nodosAlcanzables) {
-            distancias.put(nodo, Double.POSITIVE_INFINITY);
+    public static Resultado ejecutar(CompactGraph grafo, Estacion origen) {
+        int s = grafo.indice(origen);
+        if (s < 0) {
+            Map<Estacion, Double> distancias = new HashMap<>();
+            distancias.put(origen, 0.0);
+            return new Resultado(distancias, new HashMap<>(), false, Collections.emptyList());
         }
-        distancias.put(origen, 0.0);
-
-        int numNodos = nodosAlcanzables.size();
-
-        // Relajar todas las aristas |V| - 1 veces
-        for (int i = 0; i < numNodos - 1; i++) {
-            boolean cambio = false;
-
-            for (Estacion u : nodosAlcanzables) {
-                Double distU = distancias.get(u);
-                if (distU == null || distU == Double.POSITIVE_INFINITY) continue;
-
-                for (GraphEdge arista : grafo.getVecinos(u)) {
-                    Estacion v = arista.getDestino();
 
-                    // Solo procesar si el destino está en nodos alcanzables
-                    if (!nodosAlcanzables.contains(v)) continue;
+        int n = grafo.getNumNodos();
+        SearchWorkspace ws = SearchWorkspace.actual(n);
+        SearchWorkspace.Lado lado = ws.adelante();
+        int inicioCiclo = relajarConCola(grafo, s, lado, ws.atras().cola());
 
-                    double peso = arista.getTiempo();
-                    Double distV = distancias.get(v);
-                    if (distV == null) distV = Double.POSITIVE_INFINITY;
+        Map<Estacion, Double> distancias = new HashMap<>(n * 2);
+        Map<Estacion, Estacion> predecesores = new HashMap<>(n * 2);
+        llenarMapas(grafo, lado::distancia, lado::predecesor, distancias, predecesores);
 
-                    if (distU + peso < distV) {
-                        distancias.put(v, distU + peso);
-                        predecesores.put(v, u);
-                        cambio = true;
-                    }
-                }
-            }
-
-            // Optimización: si llegamos al destino y no hay cambios, terminar
-            if (!cambio) break;
-            if (destino != null && predecesores.containsKey(destino) && !cambio) break;
+        if (inicioCiclo < 0) {
+            return new Resultado(distancias, predecesores, false, Collections.emptyList());
         }
 
-        // NO detectar ciclos negativos en modo optimizado (muy costoso)
-        // Solo en modo completo
-        List<Estacion> cicloNegativo = Collections.emptyList();
-        boolean tieneCiclo = false;
-
-        return new Resultado(distancias, predecesores, tieneCiclo, cicloNegativo);
-    }
-
-    /**
-     * Obtiene nodos alcanzables desde origen usando BFS limitado.
-     * CRÍTICO: Limita el espacio de búsqueda para evitar OOM.
-     */
-    private static Set<Estacion> obtenerNodosAlcanzables(Graph grafo, Estacion origen, int maxNodos) {
-        Set<Estacion> alcanzables = new HashSet<>();
-        Queue<Estacion> cola = new LinkedList<>();
-
-        cola.offer(origen);
-        alcanzables.add(origen);
-
-        while (!cola.isEmpty() && alcanzables.size() < maxNodos) {
-            Estacion actual = cola.poll();
-
-            for (GraphEdge arista : grafo.getVecinos(actual)) {
-                Estacion vecino = arista.getDestino();
-                if (!alcanzables.contains(vecino)) {
-                    alcanzables.add(vecino);
-                    cola.offer(vecino);
-
-                    if (alcanzables.size() >= maxNodos) break;
-                }
-            }
+        // Con ciclo negativo las distancias no están definidas; se reporta el ciclo
+        List<Estacion> ciclo = new ArrayList<>();
+        ciclo.add(grafo.getEstacion(inicioCiclo));
+        for (int v = lado.predecesor(inicioCiclo); v != inicioCiclo; v = lado.predecesor(v)) {
+            ciclo.add(grafo.getEstacion(v));
         }
-
-        return alcanzables;
+        ciclo.add(grafo.getEstacion(inicioCiclo)); // Cerrar el ciclo
+        Collections.reverse(ciclo);
+        return new Resultado(distancias, predecesores, true, ciclo);
     }
 
     /**
-     * BFS Bidireccional: expande desde origen y destino simultáneamente.
-     * Mucho más eficiente que BFS unidireccional para grafos grandes.
-     * Garantiza conectividad entre origen y destino.
+     * Pasa distancias y predecesores por ordinal a los mapas del Resultado.
      */
-    private static Resultado ejecutarConBFSBidireccional(Graph grafo, Estacion origen, Estacion destino) {
-        // Expandir desde origen y destino simultáneamente
-        Set<Estacion> alcanzablesOrigen = new HashSet<>();
-        Set<Estacion> alcanzablesDestino = new HashSet<>();
-
-        Queue<Estacion> colaOrigen = new LinkedList<>();
-        Queue<Estacion> colaDestino = new LinkedList<>();
-
-        colaOrigen.offer(origen);
-        alcanzablesOrigen.add(origen);
-
-        colaDestino.offer(destino);
-        alcanzablesDestino.add(destino);
-
-        int maxPorLado = 500; // 500 nodos desde origen + 500 desde destino = 1000 total máximo
-
-        // Expandir alternadamente hasta que se conecten o se alcance el límite
-        while ((!colaOrigen.isEmpty() || !colaDestino.isEmpty()) &&
-               alcanzablesOrigen.size() < maxPorLado &&
-               alcanzablesDestino.size() < maxPorLado) {
-
-            // Expandir desde origen
-            if (!colaOrigen.isEmpty() && alcanzablesOrigen.size() < maxPorLado) {
-                Estacion actual = colaOrigen.poll();
-                for (GraphEdge arista : grafo.getVecinos(actual)) {
-                    Estacion vecino = arista.getDestino();
-                    if (!alcanzablesOrigen.contains(vecino)) {
-                        alcanzablesOrigen.add(vecino);
-                        colaOrigen.offer(vecino);
-
-                        // Si encontramos conexión con el otro lado, detener
-                        if (alcanzablesDestino.contains(vecino)) {
-                            break;
-                        }
-                    }
-                }
+    private static void llenarMapas(CompactGraph grafo, IntUnaryOperator distancia, IntUnaryOperator predecesor,
+                                    Map<Estacion, Double> distancias, Map<Estacion, Estacion> predecesores) {
+        for (int u = 0; u < grafo.getNumNodos(); u++) {
+            Estacion estacion = grafo.getEstacion(u);
+            int dist = distancia.applyAsInt(u);
+            distancias.put(estacion, dist == SearchWorkspace.INFINITO ? Double.POSITIVE_INFINITY : (double) dist);
+            int pred = predecesor.applyAsInt(u);
+            if (pred != -1) {
+                predecesores.put(estacion, grafo.getEstacion(pred));
             }
-
-            // Expandir desde destino
-            if (!colaDestino.isEmpty() && alcanzablesDestino.size() < maxPorLado) {
-                Estacion actual = colaDestino.poll();
-                // Buscar aristas entrantes (invertir la búsqueda)
-                for (Estacion nodo : grafo.getNodos()) {
-                    for (GraphEdge arista : grafo.getVecinos(nodo)) {
-                        if (arista.getDestino().equals(actual) && !alcanzablesDestino.contains(nodo)) {
-                            alcanzablesDestino.add(nodo);
-                            colaDestino.offer(nodo);
-
-                            // Si encontramos conexión con el otro lado, detener
-                            if (alcanzablesOrigen.contains(nodo)) {
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        // Combinar ambos conjuntos - solo nodos alcanzables desde ambos lados
-        Set<Estacion> nodosRelevantes = new HashSet<>(alcanzablesOrigen);
-        nodosRelevantes.retainAll(alcanzablesDestino); // Intersección
-
-        // Si la intersección es vacía, usar la unión (puede que no haya camino directo)
-        if (nodosRelevantes.isEmpty()) {
-            nodosRelevantes.addAll(alcanzablesOrigen);
-            nodosRelevantes.addAll(alcanzablesDestino);
         }
-
-        // Ejecutar Bellman-Ford solo en el subgrafo relevante
-        return ejecutarEnSubgrafo(grafo, origen, destino, nodosRelevantes);
     }
 
     /**
-     * Ejecuta Bellman-Ford en un subgrafo definido por un conjunto de nodos.
+     * Núcleo SPFA con small-label-first. Distancias y predecesores quedan en el lado
+     * del espacio de trabajo; la cola es un deque circular sobre su arreglo auxiliar
+     * (cada nodo está a lo sumo una vez en la cola) y la marca de asentado indica si
+     * el nodo está en ella. marcas es un arreglo auxiliar de al menos n enteros para
+     * la detección de ciclos, así que la consulta no asigna memoria.
+     *
+     * @return Un nodo de un ciclo negativo alcanzable desde s, o -1 si no hay
      */
-    private static Resultado ejecutarEnSubgrafo(Graph grafo, Estacion origen, Estacion destino,
-                                                 Set<Estacion> nodosRelevantes) {
-        Map<Estacion, Double> distancias = new HashMap<>();
-        Map<Estacion, Estacion> predecesores = new HashMap<>();
-
-        // Inicializar solo nodos relevantes
-        for (Estacion nodo : nodosRelevantes) {
-            distancias.put(nodo, Double.POSITIVE_INFINITY);
-        }
-        distancias.put(origen, 0.0);
-
-        int numNodos = nodosRelevantes.size();
-
-        // Relajar aristas |V| - 1 veces
-        for (int i = 0; i < numNodos - 1; i++) {
-            boolean cambio = false;
-
-            for (Estacion u : nodosRelevantes) {
-                Double distU = distancias.get(u);
-                if (distU == null || distU == Double.POSITIVE_INFINITY) continue;
-
-                for (GraphEdge arista : grafo.getVecinos(u)) {
-                    Estacion v = arista.getDestino();
-
-                    // Solo procesar nodos en el subgrafo
-                    if (!nodosRelevantes.contains(v)) continue;
-
-                    double peso = arista.getTiempo();
-                    Double distV = distancias.get(v);
-                    if (distV == null) distV = Double.POSITIVE_INFINITY;
+    private static int relajarConCola(CompactGraph grafo, int s, SearchWorkspace.Lado lado, int[] marcas) {
+        int n = grafo.getNumNodos();
+        int[] cola = lado.cola();
+
+        int cabeza = 0, tamano = 1;
+        cola[0] = s;
+        lado.asentar(s);
+        lado.actualizar(s, 0, -1);
+        int relajaciones = 0;
+
+        while (tamano > 0) {
+            int u = cola[cabeza];
+            if (++cabeza == n) cabeza = 0;
+            tamano--;
+            lado.desasentar(u);
+
+            int distU = lado.distancia(u);
+            for (int e = grafo.inicioAristas(u), fin = grafo.finAristas(u); e < fin; e++) {
+                int v = grafo.destino(e);
+                int candidata = distU + grafo.tiempo(e);
+                if (candidata >= lado.distancia(v)) continue;
+
+                lado.actualizar(v, candidata, u);
+                if (++relajaciones == n) {
+                    relajaciones = 0;
+                    int ciclo = buscarCicloPredecesores(lado, n, marcas);
+                    if (ciclo >= 0) return ciclo;
+                }
 
-                    if (distU + peso < distV) {
-                        distancias.put(v, distU + peso);
-                        predecesores.put(v, u);
-                        cambio = true;
+                if (!lado.asentado(v)) {
+                    lado.asentar(v);
+                    // Small-label-first: si mejora al frente de la cola, va al frente
+                    if (tamano > 0 && candidata < lado.distancia(cola[cabeza])) {
+                        if (--cabeza < 0) cabeza = n - 1;
+                        cola[cabeza] = v;
+                    } else {
+                        int posicion = cabeza + tamano;
+                        cola[posicion >= n ? posicion - n : posicion] = v;
                     }
+                    tamano++;
                 }
             }
-
-            // Si no hay cambios y ya llegamos al destino, terminar
-            if (!cambio) break;
-            if (destino != null && predecesores.containsKey(destino) && !cambio) break;
         }
 
-        return new Resultado(distancias, predecesores, false, Collections.emptyList());
+        // Al converger el grafo de predecesores es un árbol; se verifica por si el
+        // último ciclo se cerró entre dos revisiones
+        return buscarCicloPredecesores(lado, n, marcas);
     }
 
     /**
-     * Detecta si existe un ciclo negativo en el grafo.
-     * Si existe, lo reconstruye y lo retorna.
+     * Recorre el grafo de predecesores desde cada nodo no visitado, marcando con un
+     * identificador de paseo; volver a un nodo del mismo paseo cierra un ciclo, que
+     * en Bellman-Ford siempre tiene costo negativo. Cada nodo se visita una vez: O(n),
+     * lo mismo que limpiar las marcas, así que revisar cada n relajaciones cuesta O(1)
+     * amortizado por relajación.
+     *
+     * @return Un nodo del ciclo, o -1 si el grafo de predecesores es un bosque
      */
-    private static List<Estacion> detectarCicloNegativo(Graph grafo,
-                                                         Map<Estacion, Double> distancias,
-                                                         Map<Estacion, Estacion> predecesores) {
-        Estacion nodoEnCiclo = null;
-
-        // Intentar relajar una vez más - si hay mejora, hay ciclo negativo
-        for (Estacion u : grafo.getNodos()) {
-            if (distancias.get(u) == Double.POSITIVE_INFINITY) continue;
-
-            for (GraphEdge arista : grafo.getVecinos(u)) {
-                Estacion v = arista.getDestino();
-                double peso = arista.getTiempo();
-
-                if (distancias.get(u) + peso < distancias.get(v)) {
-                    nodoEnCiclo = v;
-                    predecesores.put(v, u);
-                    break;
-                }
+    private static int buscarCicloPredecesores(SearchWorkspace.Lado lado, int n, int[] marcas) {
+        Arrays.fill(marcas, 0, n, 0);
+        for (int inicio = 0; inicio < n; inicio++) {
+            if (marcas[inicio] != 0 || lado.predecesor(inicio) == -1) continue;
+            int id = inicio + 1;
+            int v = inicio;
+            while (v != -1 && marcas[v] == 0) {
+                marcas[v] = id;
+                v = lado.predecesor(v);
             }
-            if (nodoEnCiclo != null) break;
-        }
-
-        // Si no hay ciclo negativo, retornar lista vacía
-        if (nodoEnCiclo == null) {
-            return Collections.emptyList();
-        }
-
-        // Reconstruir el ciclo negativo
-        Set<Estacion> visitados = new HashSet<>();
-        Estacion actual = nodoEnCiclo;
-
-        // Retroceder hasta encontrar el ciclo
-        while (!visitados.contains(actual)) {
-            visitados.add(actual);
-            actual = predecesores.get(actual);
-            if (actual == null) return Collections.emptyList();
-        }
-
-        // Reconstruir el ciclo desde el nodo repetido
-        List<Estacion> ciclo = new ArrayList<>();
-        Estacion inicioCiclo = actual;
-        ciclo.add(actual);
-        actual = predecesores.get(actual);
-
-        while (!actual.equals(inicioCiclo)) {
-            ciclo.add(actual);
-            actual = predecesores.get(actual);
+            if (v != -1 && marcas[v] == id) return v;
         }
-        ciclo.add(inicioCiclo); // Cerrar el ciclo
-
-        Collections.reverse(ciclo);
-        return ciclo;
+        return -1;
     }
 
     /**
@@ -383,342 +242,70 @@ public class BellmanFord {
      * @return Resultado con rutas considerando congestión
      */
     public static Resultado ejecutarConCongestion(Graph grafo, Estacion origen, double factorCongestion) {
-        // Crear un grafo con pesos ajustados por congestión
-        Graph grafoAjustado = crearGrafoConPenalizaciones(grafo, factorCongestion);
-        return ejecutar(grafoAjustado, origen);
+        return ejecutarConCongestion(grafo, origen, factorCongestion, Motor.SPFA);
     }
 
     /**
-     * Crea un grafo donde los pesos son ajustados por la congestión.
-     * Rutas con baja capacidad reciben penalizaciones mayores.
+     * Igual que {@link #ejecutarConCongestion(Graph, Estacion, double)} con el motor indicado.
+     * Las penalizaciones solo alargan los tiempos, así que delta-stepping es aplicable.
      */
-    private static Graph crearGrafoConPenalizaciones(Graph grafo, double factorCongestion) {
-        Graph grafoAjustado = new Graph();
-
-        for (Estacion origen : grafo.getNodos()) {
-            for (GraphEdge arista : grafo.getVecinos(origen)) {
-                int tiempoBase = arista.getTiempo();
-                int capacidad = arista.getCapacidad();
-
-                // Calcular penalización: menor capacidad = mayor penalización
-                // Capacidad alta (>6000): penalización baja
-                // Capacidad baja (<3000): penalización alta
-                double penalizacion = 0.0;
-                if (capacidad < 3000) {
-                    penalizacion = tiempoBase * (factorCongestion * 1.5); // +150% en congestión alta
-                } else if (capacidad < 5000) {
-                    penalizacion = tiempoBase * factorCongestion; // +50% en congestión media
-                } else {
-                    penalizacion = tiempoBase * (factorCongestion * 0.3); // +30% en congestión baja
-                }
-
-                int tiempoAjustado = (int) (tiempoBase + penalizacion);
-
-                grafoAjustado.addArista(
-                    arista.getOrigen(),
-                    arista.getDestino(),
-                    tiempoAjustado,
-                    capacidad
-                );
-            }
+    public static Resultado ejecutarConCongestion(Graph grafo, Estacion origen, double factorCongestion,
+                                                  Motor motor) {
+        // Mismo grafo CSR con tiempos ajustados por congestión (comparte la estructura)
+        CompactGraph grafoAjustado = crearGrafoConPenalizaciones(grafo.compactar(), factorCongestion);
+        if (motor == Motor.DELTA_STEPPING) {
+            return ejecutarDeltaStepping(grafoAjustado, origen);
         }
-
-        return grafoAjustado;
-    }
-
-    /**
-     * Encuentra K rutas alternativas usando Bellman-Ford iterativo.
-     * OPTIMIZADO: Usa BFS bidireccional para limitar espacio de búsqueda.
-     * Cada iteración penaliza las aristas de la ruta anterior para forzar alternativas.
-     *
-     * @param grafo Grafo original
-     * @param origen Estación origen
-     * @param destino Estación destino
-     * @param k Número de rutas alternativas a encontrar (máximo 5)
-     * @return Lista de caminos alternativos ordenados por costo total
-     */
-    public static List<RutaAlternativa> encontrarRutasAlternativas(Graph grafo, Estacion origen,
-                                                                    Estacion destino, int k) {
-        System.out.println("🔍 Bellman-Ford: Buscando " + k + " rutas alternativas de " + origen.getId() + " a " + destino.getId());
-
-        // Limitar K para evitar sobrecarga
-        k = Math.min(k, 5);
-
-        List<RutaAlternativa> rutas = new ArrayList<>();
-
-        // Crear subgrafo usando BFS bidireccional
-        Graph subgrafo = crearSubgrafoBidireccional(grafo, origen, destino);
-        System.out.println("   Subgrafo creado: " + subgrafo.getNodos().size() + " nodos");
-
-        for (int i = 0; i < k; i++) {
-            // Ejecutar Bellman-Ford directamente en el subgrafo (ya optimizado)
-            // NO llamar a ejecutar() porque crearía otro subgrafo dentro del subgrafo
-            Resultado resultado = ejecutarOptimizado(subgrafo, origen, destino, subgrafo.getNodos().size());
-
-            Double distanciaDestino = resultado.distancias.get(destino);
-            System.out.println("   Iteración " + (i+1) + ": distancia = " + distanciaDestino);
-
-            if (distanciaDestino == null || distanciaDestino == Double.POSITIVE_INFINITY) {
-                System.out.println("   ❌ No se encontró ruta en iteración " + (i+1));
-                break; // No hay más rutas disponibles
-            }
-
-            List<Estacion> camino = reconstruirCamino(origen, destino, resultado.predecesores);
-            if (camino.isEmpty() || camino.size() < 2) {
-                System.out.println("   ❌ Camino vacío o muy corto");
-                break;
-            }
-
-            System.out.println("   ✅ Ruta " + (i+1) + " encontrada: " + camino.size() + " estaciones, tiempo " + distanciaDestino);
-            rutas.add(new RutaAlternativa(camino, distanciaDestino, i + 1));
-
-            // Penalizar aristas del camino encontrado para la próxima iteración
-            penalizarCamino(subgrafo, camino, 1.5);
-        }
-
-        System.out.println("✅ Total de rutas encontradas: " + rutas.size());
-        return rutas;
-    }
-
-    /**
-     * Crea un subgrafo usando BFS bidireccional desde origen y destino.
-     * Mucho más eficiente que expandir solo desde origen.
-     */
-    private static Graph crearSubgrafoBidireccional(Graph grafoOriginal, Estacion origen, Estacion destino) {
-        System.out.println("   🔧 Creando subgrafo bidireccional...");
-
-        // Intentaremos construir un subgrafo bidireccional creciente.
-        // Empezamos con límites conservadores y los aumentamos si origen->destino
-        // no es alcanzable dentro del subgrafo.
-        int[] limites = new int[]{500, 1000, 2000, 5000};
-
-        for (int limite : limites) {
-            Set<Estacion> alcanzablesOrigen = obtenerNodosAlcanzables(grafoOriginal, origen, limite);
-            Set<Estacion> alcanzablesDestino = obtenerNodosAlcanzablesInverso(grafoOriginal, destino, limite);
-
-            System.out.println("      Límite " + limite + ": origen alcanza " + alcanzablesOrigen.size() +
-                             " nodos, destino alcanza " + alcanzablesDestino.size() + " nodos (inverso)");
-
-            // Combinar ambos conjuntos
-            Set<Estacion> nodosRelevantes = new HashSet<>(alcanzablesOrigen);
-            nodosRelevantes.addAll(alcanzablesDestino);
-
-            // Asegurar que origen y destino estén presentes
-            nodosRelevantes.add(origen);
-            nodosRelevantes.add(destino);
-
-            System.out.println("      Total nodos combinados: " + nodosRelevantes.size());
-
-            // Crear subgrafo con solo estos nodos
-            Graph subgrafo = new Graph();
-            for (Estacion nodo : nodosRelevantes) {
-                for (GraphEdge arista : grafoOriginal.getVecinos(nodo)) {
-                    if (nodosRelevantes.contains(arista.getDestino())) {
-                        subgrafo.addArista(
-                            arista.getOrigen(),
-                            arista.getDestino(),
-                            arista.getTiempo(),
-                            arista.getCapacidad()
-                        );
-                    }
-                }
-            }
-
-            // Comprobar alcanzabilidad directa en el subgrafo
-            boolean alcanzable = esAlcanzable(subgrafo, origen, destino);
-            System.out.println("      ¿Es alcanzable? " + alcanzable);
-
-            if (alcanzable) {
-                System.out.println("   ✅ Subgrafo con conectividad encontrado (límite=" + limite + ")");
-                return subgrafo;
-            }
-            // Si no es alcanzable, intentamos con un límite mayor
-        }
-
-        // Último recurso: devolver un subgrafo amplio construido con el mayor límite
-        Set<Estacion> alcanzablesOrigen = obtenerNodosAlcanzables(grafoOriginal, origen, 10000);
-        Set<Estacion> alcanzablesDestino = obtenerNodosAlcanzablesInverso(grafoOriginal, destino, 10000);
-        Set<Estacion> nodosRelevantes = new HashSet<>(alcanzablesOrigen);
-        nodosRelevantes.addAll(alcanzablesDestino);
-        nodosRelevantes.add(origen);
-        nodosRelevantes.add(destino);
-
-        Graph subgrafo = new Graph();
-        for (Estacion nodo : nodosRelevantes) {
-            for (GraphEdge arista : grafoOriginal.getVecinos(nodo)) {
-                if (nodosRelevantes.contains(arista.getDestino())) {
-                    subgrafo.addArista(arista.getOrigen(), arista.getDestino(), arista.getTiempo(), arista.getCapacidad());
-                }
-            }
-        }
-
-        return subgrafo;
-    }
-
-    /**
-     * BFS inverso: encuentra nodos desde los cuales se puede llegar al destino.
-     */
-    private static Set<Estacion> obtenerNodosAlcanzablesInverso(Graph grafo, Estacion destino, int maxNodos) {
-        Set<Estacion> alcanzables = new HashSet<>();
-        Queue<Estacion> cola = new LinkedList<>();
-
-        cola.offer(destino);
-        alcanzables.add(destino);
-
-        // Para acelerar la búsqueda inversa, pre-calcular aristas entrantes por nodo
-        Map<Estacion, List<Estacion>> incoming = new HashMap<>();
-        for (Estacion nodo : grafo.getNodos()) {
-            for (GraphEdge arista : grafo.getVecinos(nodo)) {
-                incoming.computeIfAbsent(arista.getDestino(), k -> new ArrayList<>()).add(nodo);
-            }
-        }
-
-        while (!cola.isEmpty() && alcanzables.size() < maxNodos) {
-            Estacion actual = cola.poll();
-
-            List<Estacion> padres = incoming.getOrDefault(actual, Collections.emptyList());
-            for (Estacion nodo : padres) {
-                if (!alcanzables.contains(nodo)) {
-                    alcanzables.add(nodo);
-                    cola.offer(nodo);
-                    if (alcanzables.size() >= maxNodos) return alcanzables;
-                }
-            }
-        }
-
-        return alcanzables;
-    }
-
-    /**
-     * Comprueba si existe un camino desde origen a destino en el grafo (BFS).
-     */
-    private static boolean esAlcanzable(Graph grafo, Estacion origen, Estacion destino) {
-        if (origen == null || destino == null) return false;
-        if (!grafo.contiene(origen) || !grafo.contiene(destino)) return false;
-
-        Set<Estacion> visitados = new HashSet<>();
-        Queue<Estacion> q = new LinkedList<>();
-        q.offer(origen);
-        visitados.add(origen);
-
-        while (!q.isEmpty()) {
-            Estacion u = q.poll();
-            if (u.equals(destino)) return true;
-            for (GraphEdge e : grafo.getVecinos(u)) {
-                Estacion v = e.getDestino();
-                if (!visitados.contains(v)) {
-                    visitados.add(v);
-                    q.offer(v);
-                }
-            }
-        }
-
-        return false;
+        return ejecutar(grafoAjustado, origen);
     }
 
     /**
-     * Crea un subgrafo con solo nodos alcanzables desde origen.
-     * CRÍTICO para rendimiento en grafos grandes.
+     * Distancias desde origen con delta-stepping paralelo en el pool común (solo pesos no negativos).
      */
-    private static Graph crearSubgrafoAlcanzable(Graph grafoOriginal, Estacion origen, int maxNodos) {
-        Set<Estacion> nodosAlcanzables = obtenerNodosAlcanzables(grafoOriginal, origen, maxNodos);
-
-        Graph subgrafo = new Graph();
-        for (Estacion nodo : nodosAlcanzables) {
-            for (GraphEdge arista : grafoOriginal.getVecinos(nodo)) {
-                if (nodosAlcanzables.contains(arista.getDestino())) {
-                    subgrafo.addArista(
-                        arista.getOrigen(),
-                        arista.getDestino(),
-                        arista.getTiempo(),
-                        arista.getCapacidad()
-                    );
-                }
-            }
+    public static Resultado ejecutarDeltaStepping(CompactGraph grafo, Estacion origen) {
+        int s = grafo.indice(origen);
+        if (s < 0) {
+            Map<Estacion, Double> distancias = new HashMap<>();
+            distancias.put(origen, 0.0);
+            return new Resultado(distancias, new HashMap<>(), false, Collections.emptyList());
         }
 
-        return subgrafo;
-    }
+        DeltaStepping.ArbolCaminos arbol = DeltaStepping.calcular(
+                grafo, s, DeltaStepping.deltaSugerido(grafo), ForkJoinPool.commonPool());
 
-    /**
-     * Copia un grafo (estructura simple, no copia profunda de estaciones)
-     */
-    private static Graph copiarGrafo(Graph original) {
-        Graph copia = new Graph();
-        for (Estacion origen : original.getNodos()) {
-            for (GraphEdge arista : original.getVecinos(origen)) {
-                copia.addArista(
-                    arista.getOrigen(),
-                    arista.getDestino(),
-                    arista.getTiempo(),
-                    arista.getCapacidad()
-                );
-            }
-        }
-        return copia;
+        int n = grafo.getNumNodos();
+        Map<Estacion, Double> distancias = new HashMap<>(n * 2);
+        Map<Estacion, Estacion> predecesores = new HashMap<>(n * 2);
+        llenarMapas(grafo, v -> arbol.distancias[v], v -> arbol.predecesores[v], distancias, predecesores);
+        return new Resultado(distancias, predecesores, false, Collections.emptyList());
     }
 
     /**
-     * Penaliza las aristas de un camino para desfavorecerlo en futuras búsquedas.
+     * Crea un grafo donde los pesos son ajustados por la congestión.
+     * Rutas con baja capacidad reciben penalizaciones mayores.
      */
-    private static void penalizarCamino(Graph grafo, List<Estacion> camino, double factor) {
-        System.out.println("   🔧 Penalizando camino con factor " + factor + "...");
-
-        for (int i = 0; i < camino.size() - 1; i++) {
-            Estacion origen = camino.get(i);
-            Estacion destino = camino.get(i + 1);
-
-            // Buscar la arista que necesitamos penalizar
-            GraphEdge aristaAModificar = null;
-            for (GraphEdge arista : grafo.getVecinos(origen)) {
-                if (arista.getDestino().equals(destino)) {
-                    aristaAModificar = arista;
-                    break;
-                }
+    private static CompactGraph crearGrafoConPenalizaciones(CompactGraph grafo, double factorCongestion) {
+        int[] tiemposAjustados = new int[grafo.getNumAristas()];
+
+        for (int e = 0; e < tiemposAjustados.length; e++) {
+            int tiempoBase = grafo.tiempo(e);
+            int capacidad = grafo.capacidad(e);
+
+            // Calcular penalización: menor capacidad = mayor penalización
+            // Capacidad alta (>6000): penalización baja
+            // Capacidad baja (<3000): penalización alta
+            double penalizacion;
+            if (capacidad < 3000) {
+                penalizacion = tiempoBase * (factorCongestion * 1.5); // +150% en congestión alta
+            } else if (capacidad < 5000) {
+                penalizacion = tiempoBase * factorCongestion; // +50% en congestión media
+            } else {
+                penalizacion = tiempoBase * (factorCongestion * 0.3); // +30% en congestión baja
             }
 
-            if (aristaAModificar != null) {
-                int tiempoViejo = aristaAModificar.getTiempo();
-
-                // Estrategia de penalización: multiplicar Y sumar un valor fijo
-                // Esto asegura que incluso aristas con tiempo=1 sean penalizadas efectivamente
-                int nuevoTiempo = (int) (tiempoViejo * factor) + 10;
-
-                // Remover arista vieja (evitar ConcurrentModificationException)
-                List<GraphEdge> vecinos = grafo.getVecinos(origen);
-                vecinos.remove(aristaAModificar);
-
-                // Agregar nueva arista con peso penalizado
-                grafo.addArista(origen, destino, nuevoTiempo, aristaAModificar.getCapacidad());
-
-                System.out.println("      Arista " + origen.getId() + " -> " + destino.getId() +
-                                 ": tiempo " + tiempoViejo + " -> " + nuevoTiempo);
-            }
+            tiemposAjustados[e] = (int) (tiempoBase + penalizacion);
         }
-    }
 
-    /**
-     * Clase para representar una ruta alternativa con su costo.
-     */
-    public static class RutaAlternativa {
-        public final List<Estacion> camino;
-        public final double costoTotal;
-        public final int numeroRuta;
-
-        public RutaAlternativa(List<Estacion> camino, double costoTotal, int numeroRuta) {
-            this.camino = camino;
-            this.costoTotal = costoTotal;
-            this.numeroRuta = numeroRuta;
-        }
-
-        public int getNumeroEstaciones() {
-            return camino.size();
-        }
-
-        @Override
-        public String toString() {
-            return String.format("Ruta #%d: %.1f min, %d estaciones",
-                               numeroRuta, costoTotal, camino.size());
-        }
+        return grafo.conTiempos(tiemposAjustados);
     }
 }
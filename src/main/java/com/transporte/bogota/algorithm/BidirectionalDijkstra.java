@@ -0,0 +1,145 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.CompactGraph;
+import com.transporte.bogota.util.IntMinQueue;
+import com.transporte.bogota.util.SearchWorkspace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Dijkstra bidireccional para consultas punto a punto.
+ *
+ * Una búsqueda avanza desde el origen por las aristas salientes y otra retrocede
+ * desde el destino por el índice inverso del grafo CSR. Cada vez que una arista
+ * conecta ambos lados se actualiza la mejor distancia conocida (mu). La búsqueda
+ * termina cuando la suma de los mínimos de ambas colas ya no puede mejorar mu:
+ * cualquier camino más corto tendría que pasar por un nodo con distancia menor
+ * a esos mínimos en alguno de los dos lados.
+ */
+public class BidirectionalDijkstra {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidirectionalDijkstra.class);
+    private static final int INFINITO = Integer.MAX_VALUE;
+
+    /**
+     * Calcula el camino más corto (mínimo tiempo) desde origen hasta destino.
+     *
+     * @param grafo   Grafo CSR de la red (con índice inverso)
+     * @param origen  Estación de partida
+     * @param destino Estación de llegada
+     * @return Resultado con distancia, camino óptimo y nodos asentados en ambos lados
+     */
+    public static Dijkstra.ResultadoDijkstra calcularCaminoMinimo(CompactGraph grafo, Estacion origen, Estacion destino) {
+        if (origen == null || destino == null || grafo == null) {
+            throw new IllegalArgumentException("Grafo, origen y destino no pueden ser null");
+        }
+
+        long startTime = System.currentTimeMillis();
+        int s = grafo.indice(origen);
+        int t = grafo.indice(destino);
+        if (s < 0 || t < 0) {
+            logger.warn("Origen o destino no pertenecen al grafo");
+            return new Dijkstra.ResultadoDijkstra(Double.POSITIVE_INFINITY, Collections.emptyList());
+        }
+
+        // Lado origen guarda el nodo anterior; lado destino, el nodo siguiente hacia t
+        SearchWorkspace ws = SearchWorkspace.actual(grafo.getNumNodos());
+        SearchWorkspace.Lado adelante = ws.adelante();
+        SearchWorkspace.Lado atras = ws.atras();
+
+        IntMinQueue colaAdelante = Dijkstra.crearCola(adelante, grafo, false);
+        IntMinQueue colaAtras = Dijkstra.crearCola(atras, grafo, false);
+        adelante.actualizar(s, 0, -1);
+        atras.actualizar(t, 0, -1);
+        colaAdelante.offer(s, 0);
+        colaAtras.offer(t, 0);
+
+        long mejor = s == t ? 0 : Long.MAX_VALUE; // mu: mejor distancia s-t encontrada
+        int encuentro = s == t ? s : -1;
+        int nodosExplorados = 0;
+
+        while (true) {
+            descartarAsentados(colaAdelante, adelante);
+            descartarAsentados(colaAtras, atras);
+            if (colaAdelante.isEmpty() || colaAtras.isEmpty()) break;
+
+            // Criterio de parada: ningún camino restante puede ser más corto que mu
+            long cotaInferior = (long) colaAdelante.peekPrioridad() + colaAtras.peekPrioridad();
+            if (cotaInferior >= mejor) break;
+
+            // Expandir el lado con el menor mínimo
+            if (colaAdelante.peekPrioridad() <= colaAtras.peekPrioridad()) {
+                int u = colaAdelante.poll();
+                adelante.asentar(u);
+                nodosExplorados++;
+                int du = adelante.distancia(u);
+
+                for (int e = grafo.inicioAristas(u), fin = grafo.finAristas(u); e < fin; e++) {
+                    int v = grafo.destino(e);
+                    int candidata = du + grafo.tiempo(e);
+                    if (candidata < adelante.distancia(v)) {
+                        adelante.actualizar(v, candidata, u);
+                        colaAdelante.offer(v, candidata);
+                    }
+                    int dvAtras = atras.distancia(v);
+                    if (dvAtras != INFINITO && (long) candidata + dvAtras < mejor) {
+                        mejor = (long) candidata + dvAtras;
+                        encuentro = v;
+                    }
+                }
+            } else {
+                int u = colaAtras.poll();
+                atras.asentar(u);
+                nodosExplorados++;
+                int du = atras.distancia(u);
+
+                for (int k = grafo.inicioEntrantes(u), fin = grafo.finEntrantes(u); k < fin; k++) {
+                    int w = grafo.origenEntrante(k);
+                    int candidata = du + grafo.tiempo(grafo.aristaEntrante(k));
+                    if (candidata < atras.distancia(w)) {
+                        atras.actualizar(w, candidata, u);
+                        colaAtras.offer(w, candidata);
+                    }
+                    int dwAdelante = adelante.distancia(w);
+                    if (dwAdelante != INFINITO && (long) candidata + dwAdelante < mejor) {
+                        mejor = (long) candidata + dwAdelante;
+                        encuentro = w;
+                    }
+                }
+            }
+        }
+
+        long tiempoEjecucion = System.currentTimeMillis() - startTime;
+        if (encuentro < 0) {
+            logger.warn("No existe camino de {} a {} | Tiempo búsqueda: {} ms", origen, destino, tiempoEjecucion);
+            return new Dijkstra.ResultadoDijkstra(Double.POSITIVE_INFINITY, Collections.emptyList(), nodosExplorados);
+        }
+
+        List<Estacion> camino = reconstruirCamino(grafo, adelante, atras, s, encuentro);
+        logger.info("Dijkstra bidireccional completado en {} ms | Distancia: {} min | {} estaciones | {} nodos explorados",
+                tiempoEjecucion, mejor, camino.size(), nodosExplorados);
+        return new Dijkstra.ResultadoDijkstra(mejor, camino, nodosExplorados);
+    }
+
+    /**
+     * Une el tramo origen→encuentro (predecesores) con el tramo encuentro→destino (sucesores).
+     */
+    private static List<Estacion> reconstruirCamino(CompactGraph grafo, SearchWorkspace.Lado adelante,
+                                                    SearchWorkspace.Lado atras, int origen, int encuentro) {
+        List<Estacion> camino = new ArrayList<>(adelante.reconstruirCamino(grafo, origen, encuentro));
+        for (int v = atras.predecesor(encuentro); v != -1; v = atras.predecesor(v)) {
+            camino.add(grafo.getEstacion(v));
+        }
+        return camino;
+    }
+
+    /** Quita de la cima las entradas obsoletas (nodos ya asentados). */
+    private static void descartarAsentados(IntMinQueue cola, SearchWorkspace.Lado lado) {
+        while (!cola.isEmpty() && lado.asentado(cola.peekNodo())) {
+            cola.poll();
+        }
+    }
+}
@@ -0,0 +1,549 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.CompactGraph;
+import com.transporte.bogota.util.IntPriorityQueue;
+import com.transporte.bogota.util.SearchWorkspace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * Contraction Hierarchies para consultas estación a estación sobre la red completa.
+ *
+ * Preproceso: los nodos se contraen uno a uno en orden de importancia (diferencia
+ * de aristas + vecinos ya contraídos, con actualización perezosa). Al contraer x,
+ * cada par u→x→w sin un camino testigo igual o más corto que evite x recibe un
+ * atajo u→w. El orden de contracción es el rango del nodo.
+ *
+ * Consulta: Dijkstra bidireccional que solo sube de rango (hacia adelante por
+ * aristas u→v con rango(v) > rango(u), hacia atrás por aristas v→u con
+ * rango(v) > rango(u)), con stall-on-demand. El camino resultante se desempaqueta
+ * recursivamente hasta las aristas originales.
+ *
+ * La estructura es inmutable tras construirse y puede compartirse entre hilos.
+ */
+public final class ContractionHierarchy {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractionHierarchy.class);
+    private static final int INFINITO = Integer.MAX_VALUE;
+
+    /** Nodos asentados como máximo en cada búsqueda de testigos durante el preproceso. */
+    private static final int LIMITE_TESTIGO = 500;
+
+    private final CompactGraph grafo;
+    private final int[] rango;
+
+    // Aristas originales (0..m-1) y atajos (m..): extremos, peso e hijos (-1 en las originales)
+    private final int[] aristaOrigen;
+    private final int[] aristaDestino;
+    private final int[] aristaPeso;
+    private final int[] aristaHijoA;
+    private final int[] aristaHijoB;
+    private final int numAtajos;
+
+    // Grafo ascendente hacia adelante: arcos u→v con rango(v) > rango(u)
+    private final int[] inicioSubida;
+    private final int[] subidaNodo;
+    private final int[] subidaArista;
+    // Grafo ascendente hacia atrás: para v, arcos hacia u con arista u→v y rango(u) > rango(v)
+    private final int[] inicioBajada;
+    private final int[] bajadaNodo;
+    private final int[] bajadaArista;
+
+    private final long tiempoPreprocesoMs;
+
+    private ContractionHierarchy(CompactGraph grafo, int[] rango, Aristas aristas, long tiempoPreprocesoMs) {
+        this.grafo = grafo;
+        this.rango = rango;
+        this.aristaOrigen = Arrays.copyOf(aristas.origen, aristas.total);
+        this.aristaDestino = Arrays.copyOf(aristas.destino, aristas.total);
+        this.aristaPeso = Arrays.copyOf(aristas.peso, aristas.total);
+        this.aristaHijoA = Arrays.copyOf(aristas.hijoA, aristas.total);
+        this.aristaHijoB = Arrays.copyOf(aristas.hijoB, aristas.total);
+        this.numAtajos = aristas.total - grafo.getNumAristas();
+        this.tiempoPreprocesoMs = tiempoPreprocesoMs;
+
+        int n = grafo.getNumNodos();
+        int total = aristas.total;
+        this.inicioSubida = new int[n + 1];
+        this.inicioBajada = new int[n + 1];
+        for (int e = 0; e < total; e++) {
+            if (!aristas.vigente[e]) continue;
+            if (rango[aristaOrigen[e]] < rango[aristaDestino[e]]) {
+                inicioSubida[aristaOrigen[e] + 1]++;
+            } else {
+                inicioBajada[aristaDestino[e] + 1]++;
+            }
+        }
+        for (int u = 0; u < n; u++) {
+            inicioSubida[u + 1] += inicioSubida[u];
+            inicioBajada[u + 1] += inicioBajada[u];
+        }
+        this.subidaNodo = new int[inicioSubida[n]];
+        this.subidaArista = new int[inicioSubida[n]];
+        this.bajadaNodo = new int[inicioBajada[n]];
+        this.bajadaArista = new int[inicioBajada[n]];
+        int[] cursorSubida = Arrays.copyOf(inicioSubida, n);
+        int[] cursorBajada = Arrays.copyOf(inicioBajada, n);
+        for (int e = 0; e < total; e++) {
+            if (!aristas.vigente[e]) continue;
+            int u = aristaOrigen[e], v = aristaDestino[e];
+            if (rango[u] < rango[v]) {
+                int pos = cursorSubida[u]++;
+                subidaNodo[pos] = v;
+                subidaArista[pos] = e;
+            } else {
+                int pos = cursorBajada[v]++;
+                bajadaNodo[pos] = u;
+                bajadaArista[pos] = e;
+            }
+        }
+    }
+
+    // ================== Preproceso ==================
+
+    /**
+     * Contrae todos los nodos del grafo. Las aristas de tiempo negativo no están
+     * soportadas (igual que en Dijkstra).
+     */
+    public static ContractionHierarchy construir(CompactGraph grafo) {
+        long startTime = System.currentTimeMillis();
+        if (grafo.getTiempoMinimo() < 0) {
+            throw new IllegalArgumentException("Contraction Hierarchies requiere tiempos no negativos");
+        }
+
+        int n = grafo.getNumNodos();
+        Aristas aristas = new Aristas(grafo.getNumAristas() * 2);
+        ListasAdyacencia salientes = new ListasAdyacencia(n);
+        ListasAdyacencia entrantes = new ListasAdyacencia(n);
+        for (int u = 0; u < n; u++) {
+            for (int e = grafo.inicioAristas(u), fin = grafo.finAristas(u); e < fin; e++) {
+                int v = grafo.destino(e);
+                int id = aristas.agregar(u, v, grafo.tiempo(e), -1, -1);
+                if (u == v) {
+                    aristas.vigente[id] = false; // Los lazos nunca forman parte de un camino mínimo
+                    continue;
+                }
+                salientes.agregar(u, id);
+                entrantes.agregar(v, id);
+            }
+        }
+
+        Contraccion contraccion = new Contraccion(n, aristas, salientes, entrantes);
+        int[] rango = contraccion.ejecutar();
+
+        long tiempo = System.currentTimeMillis() - startTime;
+        ContractionHierarchy ch = new ContractionHierarchy(grafo, rango, aristas, tiempo);
+        logger.info("Contraction Hierarchies construido en {} ms - {} nodos, {} aristas, {} atajos",
+                tiempo, n, grafo.getNumAristas(), ch.numAtajos);
+        return ch;
+    }
+
+    /** Estado mutable del preproceso; se descarta al terminar. */
+    private static final class Contraccion {
+        private final int n;
+        private final Aristas aristas;
+        private final ListasAdyacencia salientes;
+        private final ListasAdyacencia entrantes;
+        private final boolean[] contraido;
+        private final int[] vecinosContraidos;
+
+        // Espacio de trabajo de la búsqueda de testigos (se reinicia solo lo tocado)
+        private final int[] distTestigo;
+        private final int[] tocados;
+        private int numTocados;
+        private final IntPriorityQueue colaTestigo = new IntPriorityQueue();
+
+        Contraccion(int n, Aristas aristas, ListasAdyacencia salientes, ListasAdyacencia entrantes) {
+            this.n = n;
+            this.aristas = aristas;
+            this.salientes = salientes;
+            this.entrantes = entrantes;
+            this.contraido = new boolean[n];
+            this.vecinosContraidos = new int[n];
+            this.distTestigo = new int[n];
+            this.tocados = new int[n];
+            Arrays.fill(distTestigo, INFINITO);
+        }
+
+        int[] ejecutar() {
+            int[] rango = new int[n];
+            IntPriorityQueue orden = new IntPriorityQueue(n);
+            for (int x = 0; x < n; x++) {
+                orden.offer(x, prioridad(x));
+            }
+
+            int siguienteRango = 0;
+            while (!orden.isEmpty()) {
+                int x = orden.poll();
+
+                // Actualización perezosa: si la prioridad empeoró, vuelve a la cola
+                int actualizada = prioridad(x);
+                if (!orden.isEmpty() && actualizada > orden.peekPrioridad()) {
+                    orden.offer(x, actualizada);
+                    continue;
+                }
+
+                contraer(x, true);
+                contraido[x] = true;
+                rango[x] = siguienteRango++;
+            }
+            return rango;
+        }
+
+        /** Diferencia de aristas más vecinos contraídos (mantiene el orden uniforme). */
+        private int prioridad(int x) {
+            int atajos = contraer(x, false);
+            int eliminadas = 0;
+            for (int i = 0; i < salientes.tam[x]; i++) {
+                if (!contraido[aristas.destino[salientes.lista[x][i]]]) eliminadas++;
+            }
+            for (int i = 0; i < entrantes.tam[x]; i++) {
+                if (!contraido[aristas.origen[entrantes.lista[x][i]]]) eliminadas++;
+            }
+            return atajos - eliminadas + vecinosContraidos[x];
+        }
+
+        /**
+         * Calcula (y si agregar es true, inserta) los atajos necesarios para contraer x.
+         * @return número de atajos requeridos
+         */
+        private int contraer(int x, boolean agregar) {
+            int maxSalida = 0;
+            for (int i = 0; i < salientes.tam[x]; i++) {
+                int e = salientes.lista[x][i];
+                if (!contraido[aristas.destino[e]]) maxSalida = Math.max(maxSalida, aristas.peso[e]);
+            }
+
+            int atajos = 0;
+            for (int i = 0; i < entrantes.tam[x]; i++) {
+                int entrada = entrantes.lista[x][i];
+                int u = aristas.origen[entrada];
+                if (contraido[u]) continue;
+                if (agregar) vecinosContraidos[u]++;
+
+                int pesoEntrada = aristas.peso[entrada];
+                buscarTestigos(u, x, pesoEntrada + maxSalida);
+
+                for (int j = 0; j < salientes.tam[x]; j++) {
+                    int salida = salientes.lista[x][j];
+                    int w = aristas.destino[salida];
+                    if (w == u || contraido[w]) continue;
+
+                    int pesoAtajo = pesoEntrada + aristas.peso[salida];
+                    if (distTestigo[w] <= pesoAtajo) continue; // Existe camino testigo sin pasar por x
+
+                    atajos++;
+                    if (agregar) {
+                        agregarAtajo(u, w, pesoAtajo, entrada, salida);
+                    }
+                }
+                limpiarTestigos();
+            }
+
+            if (agregar) {
+                for (int j = 0; j < salientes.tam[x]; j++) {
+                    int w = aristas.destino[salientes.lista[x][j]];
+                    if (!contraido[w]) vecinosContraidos[w]++;
+                }
+            }
+            return atajos;
+        }
+
+        /** Dijkstra limitado desde u que ignora x y los nodos ya contraídos. */
+        private void buscarTestigos(int u, int x, int limite) {
+            colaTestigo.clear();
+            distTestigo[u] = 0;
+            tocados[numTocados++] = u;
+            colaTestigo.offer(u, 0);
+            int asentados = 0;
+
+            while (!colaTestigo.isEmpty() && asentados < LIMITE_TESTIGO) {
+                int d = colaTestigo.peekPrioridad();
+                int v = colaTestigo.poll();
+                if (d > distTestigo[v]) continue;
+                if (d > limite) break;
+                asentados++;
+
+                for (int i = 0; i < salientes.tam[v]; i++) {
+                    int e = salientes.lista[v][i];
+                    int w = aristas.destino[e];
+                    if (w == x || contraido[w]) continue;
+                    int candidata = d + aristas.peso[e];
+                    if (candidata < distTestigo[w]) {
+                        if (distTestigo[w] == INFINITO) tocados[numTocados++] = w;
+                        distTestigo[w] = candidata;
+                        colaTestigo.offer(w, candidata);
+                    }
+                }
+            }
+        }
+
+        private void limpiarTestigos() {
+            for (int i = 0; i < numTocados; i++) {
+                distTestigo[tocados[i]] = INFINITO;
+            }
+            numTocados = 0;
+        }
+
+        /** Inserta el atajo u→w, o mejora el existente si ya había una arista u→w más cara. */
+        private void agregarAtajo(int u, int w, int peso, int hijoA, int hijoB) {
+            // Cuenta como testigo para otra salida paralela x→w del mismo u
+            if (peso < distTestigo[w]) {
+                if (distTestigo[w] == INFINITO) tocados[numTocados++] = w;
+                distTestigo[w] = peso;
+            }
+
+            for (int i = 0; i < salientes.tam[u]; i++) {
+                int e = salientes.lista[u][i];
+                if (aristas.destino[e] != w) continue;
+                if (aristas.peso[e] <= peso) return;
+
+                int id = aristas.agregar(u, w, peso, hijoA, hijoB);
+                aristas.vigente[e] = false;
+                salientes.lista[u][i] = id;
+                entrantes.reemplazar(w, e, id);
+                return;
+            }
+
+            int id = aristas.agregar(u, w, peso, hijoA, hijoB);
+            salientes.agregar(u, id);
+            entrantes.agregar(w, id);
+        }
+    }
+
+    /** Arreglos crecientes con todas las aristas (originales y atajos). */
+    private static final class Aristas {
+        int[] origen, destino, peso, hijoA, hijoB;
+        boolean[] vigente;
+        int total;
+
+        Aristas(int capacidad) {
+            capacidad = Math.max(capacidad, 16);
+            origen = new int[capacidad];
+            destino = new int[capacidad];
+            peso = new int[capacidad];
+            hijoA = new int[capacidad];
+            hijoB = new int[capacidad];
+            vigente = new boolean[capacidad];
+        }
+
+        int agregar(int u, int v, int p, int a, int b) {
+            if (total == origen.length) {
+                int nueva = total * 2;
+                origen = Arrays.copyOf(origen, nueva);
+                destino = Arrays.copyOf(destino, nueva);
+                peso = Arrays.copyOf(peso, nueva);
+                hijoA = Arrays.copyOf(hijoA, nueva);
+                hijoB = Arrays.copyOf(hijoB, nueva);
+                vigente = Arrays.copyOf(vigente, nueva);
+            }
+            origen[total] = u;
+            destino[total] = v;
+            peso[total] = p;
+            hijoA[total] = a;
+            hijoB[total] = b;
+            vigente[total] = true;
+            return total++;
+        }
+    }
+
+    /** Listas de ids de arista por nodo, modificables durante la contracción. */
+    private static final class ListasAdyacencia {
+        final int[][] lista;
+        final int[] tam;
+
+        ListasAdyacencia(int n) {
+            lista = new int[n][];
+            tam = new int[n];
+        }
+
+        void agregar(int u, int arista) {
+            if (lista[u] == null) {
+                lista[u] = new int[4];
+            } else if (tam[u] == lista[u].length) {
+                lista[u] = Arrays.copyOf(lista[u], tam[u] * 2);
+            }
+            lista[u][tam[u]++] = arista;
+        }
+
+        void reemplazar(int u, int anterior, int nueva) {
+            for (int i = 0; i < tam[u]; i++) {
+                if (lista[u][i] == anterior) {
+                    lista[u][i] = nueva;
+                    return;
+                }
+            }
+        }
+    }
+
+    // ================== Consulta ==================
+
+    /**
+     * Camino mínimo entre dos estaciones usando la jerarquía.
+     * nodosExplorados cuenta los nodos asentados en ambas búsquedas ascendentes.
+     */
+    public Dijkstra.ResultadoDijkstra calcularCaminoMinimo(Estacion origen, Estacion destino) {
+        if (origen == null || destino == null) {
+            throw new IllegalArgumentException("Origen y destino no pueden ser null");
+        }
+
+        long startTime = System.currentTimeMillis();
+        int s = grafo.indice(origen);
+        int t = grafo.indice(destino);
+        if (s < 0 || t < 0) {
+            logger.warn("Origen o destino no pertenecen al grafo");
+            return new Dijkstra.ResultadoDijkstra(Double.POSITIVE_INFINITY, Collections.emptyList());
+        }
+
+        // El "predecesor" de cada lado es la arista de la jerarquía: la de llegada en el
+        // lado origen y la de salida hacia t en el lado destino
+        SearchWorkspace ws = SearchWorkspace.actual(grafo.getNumNodos());
+        SearchWorkspace.Lado adelante = ws.adelante();
+        SearchWorkspace.Lado atras = ws.atras();
+
+        IntPriorityQueue colaAdelante = adelante.heap();
+        IntPriorityQueue colaAtras = atras.heap();
+        adelante.actualizar(s, 0, -1);
+        atras.actualizar(t, 0, -1);
+        colaAdelante.offer(s, 0);
+        colaAtras.offer(t, 0);
+
+        long mejor = s == t ? 0 : Long.MAX_VALUE;
+        int encuentro = s == t ? s : -1;
+        int nodosExplorados = 0;
+
+        while (true) {
+            boolean adelanteActivo = !colaAdelante.isEmpty() && colaAdelante.peekPrioridad() < mejor;
+            boolean atrasActivo = !colaAtras.isEmpty() && colaAtras.peekPrioridad() < mejor;
+            if (!adelanteActivo && !atrasActivo) break;
+
+            boolean haciaAdelante = adelanteActivo
+                    && (!atrasActivo || colaAdelante.peekPrioridad() <= colaAtras.peekPrioridad());
+
+            if (haciaAdelante) {
+                int d = colaAdelante.peekPrioridad();
+                int u = colaAdelante.poll();
+                if (d > adelante.distancia(u)) continue;
+                nodosExplorados++;
+
+                int duAtras = atras.distancia(u);
+                if (duAtras != INFINITO && (long) d + duAtras < mejor) {
+                    mejor = (long) d + duAtras;
+                    encuentro = u;
+                }
+                // Stall-on-demand: si un vecino de mayor rango llega más barato, u no es óptimo
+                if (detenido(u, d, adelante, inicioBajada, bajadaNodo, bajadaArista)) continue;
+
+                for (int k = inicioSubida[u]; k < inicioSubida[u + 1]; k++) {
+                    int v = subidaNodo[k];
+                    int candidata = d + aristaPeso[subidaArista[k]];
+                    if (candidata < adelante.distancia(v)) {
+                        adelante.actualizar(v, candidata, subidaArista[k]);
+                        colaAdelante.offer(v, candidata);
+                    }
+                }
+            } else {
+                int d = colaAtras.peekPrioridad();
+                int u = colaAtras.poll();
+                if (d > atras.distancia(u)) continue;
+                nodosExplorados++;
+
+                int duAdelante = adelante.distancia(u);
+                if (duAdelante != INFINITO && (long) d + duAdelante < mejor) {
+                    mejor = (long) d + duAdelante;
+                    encuentro = u;
+                }
+                if (detenido(u, d, atras, inicioSubida, subidaNodo, subidaArista)) continue;
+
+                for (int k = inicioBajada[u]; k < inicioBajada[u + 1]; k++) {
+                    int v = bajadaNodo[k];
+                    int candidata = d + aristaPeso[bajadaArista[k]];
+                    if (candidata < atras.distancia(v)) {
+                        atras.actualizar(v, candidata, bajadaArista[k]);
+                        colaAtras.offer(v, candidata);
+                    }
+                }
+            }
+        }
+
+        long tiempoEjecucion = System.currentTimeMillis() - startTime;
+        if (encuentro < 0) {
+            logger.warn("No existe camino de {} a {} | Tiempo búsqueda: {} ms", origen, destino, tiempoEjecucion);
+            return new Dijkstra.ResultadoDijkstra(Double.POSITIVE_INFINITY, Collections.emptyList(), nodosExplorados);
+        }
+
+        List<Estacion> camino = reconstruirCamino(s, encuentro, adelante, atras);
+        logger.info("CH completado en {} ms | Distancia: {} min | {} estaciones | {} nodos explorados",
+                tiempoEjecucion, mejor, camino.size(), nodosExplorados);
+        return new Dijkstra.ResultadoDijkstra(mejor, camino, nodosExplorados);
+    }
+
+    /**
+     * Comprueba si u puede alcanzarse más barato desde un nodo de mayor rango ya
+     * etiquetado (usando los arcos en sentido contrario a la búsqueda).
+     */
+    private boolean detenido(int u, int d, SearchWorkspace.Lado lado, int[] inicio, int[] nodos, int[] aristasArco) {
+        for (int k = inicio[u]; k < inicio[u + 1]; k++) {
+            int dv = lado.distancia(nodos[k]);
+            if (dv != INFINITO && (long) dv + aristaPeso[aristasArco[k]] < d) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reconstruye las aristas de la jerarquía origen→encuentro→destino y las
+     * desempaqueta en la secuencia de estaciones original.
+     */
+    private List<Estacion> reconstruirCamino(int s, int encuentro, SearchWorkspace.Lado adelante,
+                                             SearchWorkspace.Lado atras) {
+        Deque<Integer> subida = new ArrayDeque<>();
+        for (int v = encuentro; v != s; v = aristaOrigen[adelante.predecesor(v)]) {
+            subida.push(adelante.predecesor(v));
+        }
+
+        List<Estacion> camino = new ArrayList<>();
+        camino.add(grafo.getEstacion(s));
+        for (int e : subida) {
+            desempaquetar(e, camino);
+        }
+        for (int v = encuentro; atras.predecesor(v) != -1; v = aristaDestino[atras.predecesor(v)]) {
+            desempaquetar(atras.predecesor(v), camino);
+        }
+        return camino;
+    }
+
+    /** Agrega al camino los destinos de las aristas originales que componen e (sin recursión). */
+    private void desempaquetar(int arista, List<Estacion> camino) {
+        Deque<Integer> pila = new ArrayDeque<>();
+        pila.push(arista);
+        while (!pila.isEmpty()) {
+            int e = pila.pop();
+            if (aristaHijoA[e] < 0) {
+                camino.add(grafo.getEstacion(aristaDestino[e]));
+            } else {
+                pila.push(aristaHijoB[e]);
+                pila.push(aristaHijoA[e]);
+            }
+        }
+    }
+
+    // ================== Estadísticas ==================
+
+    public int getNumAtajos() { return numAtajos; }
+
+    public long getTiempoPreprocesoMs() { return tiempoPreprocesoMs; }
+
+    /** Rango (orden de contracción) del nodo con ordinal dado. */
+    public int getRango(int nodo) { return rango[nodo]; }
+
+    @Override
+    public String toString() {
+        return "ContractionHierarchy{nodos=" + grafo.getNumNodos() + ", atajos=" + numAtajos
+                + ", preproceso=" + tiempoPreprocesoMs + " ms}";
+    }
+}
@@ -0,0 +1,258 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.util.CompactGraph;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caminos mínimos desde un origen a toda la red con delta-stepping paralelo
+ * (Meyer y Sanders), para pesos no negativos.
+ *
+ * Los nodos se agrupan en buckets de ancho delta según su distancia tentativa. Se
+ * procesa el bucket no vacío de menor índice: sus aristas ligeras (peso ≤ delta) se
+ * relajan en paralelo en rondas hasta que el bucket deja de recibir nodos, y luego
+ * se relajan una sola vez las aristas pesadas de todos los nodos asentados en él.
+ * Cada ronda reparte la frontera entre los hilos de un ForkJoinPool.
+ *
+ * La distancia y el predecesor de cada nodo van empaquetados en un long
+ * (distancia en los 32 bits altos) y se actualizan con compareAndSet vía VarHandle,
+ * de modo que el mínimo atómico mantiene el predecesor coherente con la distancia.
+ */
+public final class DeltaStepping {
+
+    private static final VarHandle ETIQUETAS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle MARCAS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    public static final int INFINITO = Integer.MAX_VALUE;
+    private static final long SIN_ETIQUETA = empaquetar(INFINITO, -1);
+
+    /** Por debajo de este tamaño de frontera se relaja en el hilo actual. */
+    private static final int UMBRAL_SECUENCIAL = 256;
+
+    private DeltaStepping() {
+    }
+
+    /**
+     * Distancias y árbol de predecesores por ordinal (INFINITO / -1 si no es alcanzable).
+     */
+    public static final class ArbolCaminos {
+        public final int[] distancias;
+        public final int[] predecesores;
+
+        ArbolCaminos(int[] distancias, int[] predecesores) {
+            this.distancias = distancias;
+            this.predecesores = predecesores;
+        }
+    }
+
+    /**
+     * Ancho de bucket por defecto: peso máximo / grado medio (la elección de Meyer y
+     * Sanders), que deja pocas reinserciones por nodo sin vaciar los buckets.
+     */
+    public static int deltaSugerido(CompactGraph grafo) {
+        if (grafo.getNumAristas() == 0) return 1;
+        long numerador = (long) grafo.getTiempoMaximo() * grafo.getNumNodos();
+        return (int) Math.max(1, (numerador + grafo.getNumAristas() - 1) / grafo.getNumAristas());
+    }
+
+    /**
+     * Calcula las distancias desde origen en el pool indicado.
+     *
+     * @throws IllegalArgumentException si el grafo tiene pesos negativos
+     */
+    public static ArbolCaminos calcular(CompactGraph grafo, int origen, int delta, ForkJoinPool pool) {
+        if (grafo.getTiempoMinimo() < 0) {
+            throw new IllegalArgumentException("Delta-stepping requiere pesos no negativos");
+        }
+        if (delta < 1) {
+            throw new IllegalArgumentException("Delta debe ser positivo: " + delta);
+        }
+        return new Ejecucion(grafo, delta, pool).ejecutar(origen);
+    }
+
+    private static long empaquetar(int distancia, int predecesor) {
+        return ((long) distancia << 32) | (predecesor & 0xFFFFFFFFL);
+    }
+
+    private static int distancia(long etiqueta) {
+        return (int) (etiqueta >>> 32);
+    }
+
+    /**
+     * Estado de una consulta. Las listas de espera y frontera solo se tocan entre
+     * rondas (en el hilo que coordina); durante una ronda los hilos escriben las
+     * etiquetas y agregan a nuevos con un cursor atómico.
+     */
+    private static final class Ejecucion {
+        final CompactGraph grafo;
+        final int delta;
+        final ForkJoinPool pool;
+        final long[] etiquetas;
+
+        // marcado[v] = 1 mientras v está pendiente (en espera o en nuevos)
+        final int[] marcado;
+        final int[] nuevos;
+        final AtomicInteger numNuevos = new AtomicInteger();
+
+        final int[] espera;
+        int numEspera;
+        final int[] frontera;
+        final int[] asentados;
+        final int[] asentadoEn; // bucket + 1 en que v entró a asentados
+
+        Ejecucion(CompactGraph grafo, int delta, ForkJoinPool pool) {
+            int n = grafo.getNumNodos();
+            this.grafo = grafo;
+            this.delta = delta;
+            this.pool = pool;
+            this.etiquetas = new long[n];
+            this.marcado = new int[n];
+            this.nuevos = new int[n];
+            this.espera = new int[n];
+            this.frontera = new int[n];
+            this.asentados = new int[n];
+            this.asentadoEn = new int[n];
+            Arrays.fill(etiquetas, SIN_ETIQUETA);
+        }
+
+        ArbolCaminos ejecutar(int origen) {
+            etiquetas[origen] = empaquetar(0, -1);
+            marcado[origen] = 1;
+            espera[numEspera++] = origen;
+
+            while (numEspera > 0) {
+                int bucket = menorBucket();
+                int numAsentados = 0;
+
+                // Rondas de aristas ligeras hasta que el bucket queda vacío
+                int numFrontera;
+                while ((numFrontera = extraerBucket(bucket)) > 0) {
+                    for (int k = 0; k < numFrontera; k++) {
+                        int u = frontera[k];
+                        if (asentadoEn[u] != bucket + 1) {
+                            asentadoEn[u] = bucket + 1;
+                            asentados[numAsentados++] = u;
+                        }
+                    }
+                    relajar(frontera, numFrontera, true);
+                    vaciarNuevos();
+                }
+
+                // Aristas pesadas: siempre caen en buckets posteriores
+                relajar(asentados, numAsentados, false);
+                vaciarNuevos();
+            }
+
+            int n = etiquetas.length;
+            int[] distancias = new int[n];
+            int[] predecesores = new int[n];
+            for (int v = 0; v < n; v++) {
+                distancias[v] = distancia(etiquetas[v]);
+                predecesores[v] = (int) etiquetas[v];
+            }
+            return new ArbolCaminos(distancias, predecesores);
+        }
+
+        private int bucketDe(int v) {
+            return distancia(etiquetas[v]) / delta;
+        }
+
+        private int menorBucket() {
+            int menor = Integer.MAX_VALUE;
+            for (int k = 0; k < numEspera; k++) {
+                menor = Math.min(menor, bucketDe(espera[k]));
+            }
+            return menor;
+        }
+
+        /** Mueve a la frontera los nodos en espera del bucket indicado (o anteriores). */
+        private int extraerBucket(int bucket) {
+            int numFrontera = 0, quedan = 0;
+            for (int k = 0; k < numEspera; k++) {
+                int v = espera[k];
+                if (bucketDe(v) <= bucket) {
+                    marcado[v] = 0;
+                    frontera[numFrontera++] = v;
+                } else {
+                    espera[quedan++] = v;
+                }
+            }
+            numEspera = quedan;
+            return numFrontera;
+        }
+
+        private void vaciarNuevos() {
+            int total = numNuevos.getAndSet(0);
+            System.arraycopy(nuevos, 0, espera, numEspera, total);
+            numEspera += total;
+        }
+
+        private void relajar(int[] nodos, int numNodos, boolean ligeras) {
+            if (numNodos < UMBRAL_SECUENCIAL) {
+                relajarRango(nodos, 0, numNodos, ligeras);
+            } else {
+                pool.invoke(new Relajacion(nodos, 0, numNodos, ligeras));
+            }
+        }
+
+        private void relajarRango(int[] nodos, int desde, int hasta, boolean ligeras) {
+            for (int k = desde; k < hasta; k++) {
+                int u = nodos[k];
+                int du = distancia((long) ETIQUETAS.getVolatile(etiquetas, u));
+                for (int e = grafo.inicioAristas(u), fin = grafo.finAristas(u); e < fin; e++) {
+                    int peso = grafo.tiempo(e);
+                    if ((peso <= delta) == ligeras) {
+                        minimoAtomico(grafo.destino(e), du + peso, u);
+                    }
+                }
+            }
+        }
+
+        /** Baja la distancia de v a candidata si es menor; el primer hilo que lo logra lo encola. */
+        private void minimoAtomico(int v, int candidata, int u) {
+            long nueva = empaquetar(candidata, u);
+            long actual = (long) ETIQUETAS.getVolatile(etiquetas, v);
+            while (candidata < distancia(actual)) {
+                if (ETIQUETAS.compareAndSet(etiquetas, v, actual, nueva)) {
+                    if (MARCAS.compareAndSet(marcado, v, 0, 1)) {
+                        nuevos[numNuevos.getAndIncrement()] = v;
+                    }
+                    return;
+                }
+                actual = (long) ETIQUETAS.getVolatile(etiquetas, v);
+            }
+        }
+
+        private final class Relajacion extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int[] nodos;
+            private final int desde;
+            private final int hasta;
+            private final boolean ligeras;
+
+            Relajacion(int[] nodos, int desde, int hasta, boolean ligeras) {
+                this.nodos = nodos;
+                this.desde = desde;
+                this.hasta = hasta;
+                this.ligeras = ligeras;
+            }
+
+            @Override
+            protected void compute() {
+                if (hasta - desde <= UMBRAL_SECUENCIAL) {
+                    relajarRango(nodos, desde, hasta, ligeras);
+                    return;
+                }
+                int medio = (desde + hasta) >>> 1;
+                invokeAll(new Relajacion(nodos, desde, medio, ligeras),
+                          new Relajacion(nodos, medio, hasta, ligeras));
+            }
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.transporte.bogota.algorithm;
 
 import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.CompactGraph;
+import com.transporte.bogota.util.GeoUtils;
 import com.transporte.bogota.util.Graph;
-import com.transporte.bogota.util.GraphEdge;
+import com.transporte.bogota.util.IntMinQueue;
+import com.transporte.bogota.util.SearchWorkspace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,13 +20,37 @@ public class Dijkstra {
     private static final Logger logger = LoggerFactory.getLogger(Dijkstra.class);
     private static final double INFINITO = Double.POSITIVE_INFINITY;
 
+    /** Peso máximo de arista para usar la cola de buckets; por encima se usa el heap binario. */
+    static final int MAX_PESO_BUCKETS = 1024;
+
+    /**
+     * Algoritmo de búsqueda punto a punto seleccionable por petición.
+     */
+    public enum Algoritmo {
+        DIJKSTRA, A_ESTRELLA, BIDIRECCIONAL, CH, ALT
+    }
+
+    /**
+     * Cota inferior admisible del tiempo restante desde un nodo hasta el destino fijo de la búsqueda.
+     */
+    @FunctionalInterface
+    public interface Heuristica {
+        int estimar(int nodo);
+    }
+
     public static class ResultadoDijkstra {
         public final double distancia;
         public final List<Estacion> camino;
+        public final int nodosExplorados; // Nodos asentados (extraídos de la cola) durante la búsqueda
 
         public ResultadoDijkstra(double distancia, List<Estacion> camino) {
+            this(distancia, camino, 0);
+        }
+
+        public ResultadoDijkstra(double distancia, List<Estacion> camino, int nodosExplorados) {
             this.distancia = distancia;
             this.camino = Collections.unmodifiableList(camino); // Inmutable por seguridad
+            this.nodosExplorados = nodosExplorados;
         }
 
         public boolean esAlcanzable() {
@@ -43,59 +70,231 @@ public class Dijkstra {
         if (origen == null || destino == null || grafo == null) {
             throw new IllegalArgumentException("Grafo, origen y destino no pueden ser null");
         }
+        return calcularCaminoMinimo(grafo.compactar(), origen, destino);
+    }
 
-        long startTime = System.currentTimeMillis();
-        logger.info("Iniciando Dijkstra desde {} hacia {} ({} nodos)", origen, destino, grafo.getNodos().size());
+    /**
+     * Variante sobre el grafo CSR: distancias y predecesores en arreglos int indexados
+     * por ordinal, sin mapas ni boxing durante la búsqueda.
+     */
+    public static ResultadoDijkstra calcularCaminoMinimo(CompactGraph grafo, Estacion origen, Estacion destino) {
+        return buscar(grafo, origen, destino, null, "Dijkstra");
+    }
+
+    /**
+     * A*: igual que Dijkstra pero prioriza por g + h, con h = distancia en línea recta
+     * al destino dividida por la velocidad máxima observada en la red. Como ninguna
+     * arista permite avanzar más rápido que esa velocidad, h nunca sobreestima el
+     * tiempo restante y el camino sigue siendo óptimo.
+     *
+     * @param velocidadMaxima Velocidad máxima de la red en km/min (ver GraphSnapshot)
+     */
+    public static ResultadoDijkstra calcularCaminoAEstrella(CompactGraph grafo, Estacion origen,
+                                                           Estacion destino, double velocidadMaxima) {
+        if (destino == null || grafo == null || grafo.indice(destino) < 0) {
+            return buscar(grafo, origen, destino, null, "Dijkstra");
+        }
+        return buscar(grafo, origen, destino, heuristicaGeografica(grafo, grafo.indice(destino), velocidadMaxima), "A*");
+    }
 
-        Map<Estacion, Double> distancias = new HashMap<>();
-        Map<Estacion, Estacion> predecesores = new HashMap<>();
-        Set<Estacion> visitados = new HashSet<>();
+    /**
+     * ALT: A* con cotas inferiores por desigualdad triangular respecto a landmarks
+     * precalculados. Mismo camino óptimo que Dijkstra, con menos nodos explorados.
+     */
+    public static ResultadoDijkstra calcularCaminoALT(CompactGraph grafo, Estacion origen, Estacion destino,
+                                                     AltLandmarks landmarks) {
+        if (destino == null || grafo == null || grafo.indice(destino) < 0 || landmarks == null) {
+            return buscar(grafo, origen, destino, null, "Dijkstra");
+        }
+        return buscar(grafo, origen, destino, landmarks.heuristica(grafo.indice(destino)), "ALT");
+    }
 
-        // Cola de prioridad: menor distancia primero
-        PriorityQueue<Estacion> cola = new PriorityQueue<>(
-                Comparator.comparingDouble(n -> distancias.getOrDefault(n, INFINITO))
-        );
+    /**
+     * Distancias mínimas desde origen a todos los nodos (o, si inverso es true, desde
+     * todos los nodos hacia origen, recorriendo el índice inverso). Los nodos
+     * inalcanzables quedan en Integer.MAX_VALUE.
+     */
+    public static int[] calcularDistancias(CompactGraph grafo, int origen, boolean inverso) {
+        int n = grafo.getNumNodos();
+        int[] distancias = new int[n];
+        Arrays.fill(distancias, Integer.MAX_VALUE);
+        if (origen < 0) return distancias;
+
+        SearchWorkspace.Lado lado = SearchWorkspace.actual(n).adelante();
+        IntMinQueue cola = crearCola(lado, grafo, false);
+        distancias[origen] = 0;
+        cola.offer(origen, 0);
 
-        // Inicialización
-        for (Estacion nodo : grafo.getNodos()) {
-            distancias.put(nodo, INFINITO);
+        while (!cola.isEmpty()) {
+            int actual = cola.poll();
+            if (lado.asentado(actual)) continue;
+            lado.asentar(actual);
+            int distActual = distancias[actual];
+
+            int inicio = inverso ? grafo.inicioEntrantes(actual) : grafo.inicioAristas(actual);
+            int fin = inverso ? grafo.finEntrantes(actual) : grafo.finAristas(actual);
+            for (int k = inicio; k < fin; k++) {
+                int vecino = inverso ? grafo.origenEntrante(k) : grafo.destino(k);
+                int tiempo = grafo.tiempo(inverso ? grafo.aristaEntrante(k) : k);
+                int candidata = distActual + tiempo;
+                if (!lado.asentado(vecino) && candidata < distancias[vecino]) {
+                    distancias[vecino] = candidata;
+                    cola.offer(vecino, candidata);
+                }
+            }
+        }
+        return distancias;
+    }
+
+    /**
+     * Cota en minutos: ceil(distancia / velocidad). Redondear hacia arriba sigue siendo
+     * admisible y consistente porque los tiempos de las aristas son enteros.
+     */
+    static Heuristica heuristicaGeografica(CompactGraph grafo, int destino, double velocidadMaxima) {
+        if (!(velocidadMaxima > 0) || Double.isInfinite(velocidadMaxima)) {
+            return nodo -> 0; // Sin cota válida: se degrada a Dijkstra
         }
-        distancias.put(origen, 0.0);
-        cola.offer(origen);
+        double latDestino = grafo.latitud(destino);
+        double lonDestino = grafo.longitud(destino);
+        return nodo -> {
+            double km = GeoUtils.distanciaKm(grafo.latitud(nodo), grafo.longitud(nodo), latDestino, lonDestino);
+            return Math.max(0, (int) Math.ceil(km / velocidadMaxima - 1e-9));
+        };
+    }
+
+    /**
+     * Búsqueda uno-a-muchos: distancias desde origen a cada ordinal de destinos
+     * (Integer.MAX_VALUE si no es alcanzable). Se detiene en cuanto todos los
+     * destinos quedan asentados en lugar de recorrer toda la red.
+     */
+    public static int[] calcularDistanciasHasta(CompactGraph grafo, int origen, int[] destinos) {
+        int[] resultado = new int[destinos.length];
+        Arrays.fill(resultado, Integer.MAX_VALUE);
+        if (origen < 0) return resultado;
+
+        SearchWorkspace ws = SearchWorkspace.actual(grafo.getNumNodos());
+        SearchWorkspace.Lado lado = ws.adelante();
+        SearchWorkspace.Lado esDestino = ws.atras(); // solo se usa su marca de asentado
+
+        // Destinos pendientes (los repetidos cuentan una sola vez)
+        int pendientes = 0;
+        for (int t : destinos) {
+            if (t >= 0 && !esDestino.asentado(t)) {
+                esDestino.asentar(t);
+                pendientes++;
+            }
+        }
+
+        IntMinQueue cola = crearCola(lado, grafo, false);
+        lado.actualizar(origen, 0, -1);
+        cola.offer(origen, 0);
+
+        while (!cola.isEmpty() && pendientes > 0) {
+            int actual = cola.poll();
+            if (lado.asentado(actual)) continue;
+            lado.asentar(actual);
+            if (esDestino.asentado(actual)) pendientes--;
+
+            int distActual = lado.distancia(actual);
+            for (int e = grafo.inicioAristas(actual), fin = grafo.finAristas(actual); e < fin; e++) {
+                int vecino = grafo.destino(e);
+                int candidata = distActual + grafo.tiempo(e);
+                if (!lado.asentado(vecino) && candidata < lado.distancia(vecino)) {
+                    lado.actualizar(vecino, candidata, actual);
+                    cola.offer(vecino, candidata);
+                }
+            }
+        }
+
+        for (int j = 0; j < destinos.length; j++) {
+            if (destinos[j] >= 0 && lado.asentado(destinos[j])) {
+                resultado[j] = lado.distancia(destinos[j]);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Elige (y vacía) la cola reutilizable del lado según los pesos del grafo. Con tiempos enteros pequeños y no
+     * negativos (casi todos de 1 minuto en la red) la cola de Dial extrae en O(1);
+     * con pesos grandes o negativos se mantiene el heap binario.
+     *
+     * Con la heurística geográfica la prioridad g + h crece a lo sumo peso + (peso + 1)
+     * por arista (h es consistente y redondeada hacia arriba), de ahí la ventana doble.
+     */
+    static IntMinQueue crearCola(SearchWorkspace.Lado lado, CompactGraph grafo, boolean conHeuristica) {
+        int pesoMaximo = grafo.getTiempoMaximo();
+        if (grafo.getTiempoMinimo() < 0 || pesoMaximo > MAX_PESO_BUCKETS) {
+            return lado.heap();
+        }
+        return lado.buckets(conHeuristica ? 2 * pesoMaximo + 1 : pesoMaximo);
+    }
+
+    /**
+     * Núcleo común de Dijkstra y A* (heuristica == null equivale a h = 0).
+     */
+    private static ResultadoDijkstra buscar(CompactGraph grafo, Estacion origen, Estacion destino,
+                                            Heuristica heuristica, String nombre) {
+        if (origen == null || destino == null || grafo == null) {
+            throw new IllegalArgumentException("Grafo, origen y destino no pueden ser null");
+        }
+
+        long startTime = System.currentTimeMillis();
+        logger.info("Iniciando {} desde {} hacia {} ({} nodos)", nombre, origen, destino, grafo.getNumNodos());
+
+        int s = grafo.indice(origen);
+        int t = grafo.indice(destino);
+        if (s < 0 || t < 0) {
+            logger.warn("Origen o destino no pertenecen al grafo");
+            return new ResultadoDijkstra(INFINITO, Collections.emptyList());
+        }
+
+        // Distancias, predecesores y visitados en el espacio de trabajo del hilo (sin asignar por consulta)
+        SearchWorkspace.Lado lado = SearchWorkspace.actual(grafo.getNumNodos()).adelante();
+        int nodosExplorados = 0;
+
+        // Cola de prioridad: menor distancia (más heurística, en A*) primero
+        IntMinQueue cola = crearCola(lado, grafo, heuristica != null);
+        lado.actualizar(s, 0, -1);
+        cola.offer(s, heuristica == null ? 0 : heuristica.estimar(s));
 
         while (!cola.isEmpty()) {
-            Estacion actual = cola.poll();
+            int prioridadActual = cola.peekPrioridad();
+            int actual = cola.poll();
 
             // Si ya fue procesado con una mejor o igual distancia, ignorar esta entrada duplicada
-            if (visitados.contains(actual)) {
+            if (lado.asentado(actual)) {
                 continue;
             }
+            lado.asentar(actual);
+            nodosExplorados++;
 
-            visitados.add(actual);
-
-            // Si llegamos al destino, podemos terminar (opcional: mejora rendimiento)
-            if (actual.equals(destino)) {
-                List<Estacion> camino = reconstruirCamino(predecesores, origen, destino);
+            // Si llegamos al destino, podemos terminar
+            if (actual == t) {
+                List<Estacion> camino = lado.reconstruirCamino(grafo, s, t);
                 long tiempoEjecucion = System.currentTimeMillis() - startTime;
-                logger.info("Dijkstra completado en {} ms | Distancia: {:.2f} min | {} estaciones",
-                        tiempoEjecucion, distancias.get(destino) / 60.0, camino.size());
-                return new ResultadoDijkstra(distancias.get(destino), camino);
+                logger.info("{} completado en {} ms | Distancia: {} min | {} estaciones | {} nodos explorados",
+                        nombre, tiempoEjecucion, lado.distancia(t), camino.size(), nodosExplorados);
+                return new ResultadoDijkstra(lado.distancia(t), camino, nodosExplorados);
             }
 
             // Relajación de aristas
-            for (GraphEdge arista : grafo.getVecinos(actual)) {
-                Estacion vecino = arista.getDestino();
-                if (visitados.contains(vecino)) {
+            int distActual = lado.distancia(actual);
+            for (int e = grafo.inicioAristas(actual), fin = grafo.finAristas(actual); e < fin; e++) {
+                int vecino = grafo.destino(e);
+                if (lado.asentado(vecino)) {
                     continue; // Ya procesado con mejor o igual distancia
                 }
 
-                double peso = arista.getTiempo();
-                double distanciaCandidata = distancias.get(actual) + peso;
-
-                if (distanciaCandidata < distancias.get(vecino)) {
-                    distancias.put(vecino, distanciaCandidata);
-                    predecesores.put(vecino, actual);
-                    cola.offer(vecino); // Se permiten duplicados, se filtran con visitados
+                int distanciaCandidata = distActual + grafo.tiempo(e);
+                if (distanciaCandidata < lado.distancia(vecino)) {
+                    lado.actualizar(vecino, distanciaCandidata, actual);
+                    // En A*, max con la prioridad actual (pathmax) mantiene la cola monótona
+                    // aunque el redondeo de h pierda consistencia por error de coma flotante
+                    int prioridad = heuristica == null
+                            ? distanciaCandidata
+                            : Math.max(prioridadActual, distanciaCandidata + heuristica.estimar(vecino));
+                    cola.offer(vecino, prioridad); // Se permiten duplicados, se filtran con visitados
                 }
             }
         }
@@ -103,27 +302,6 @@ public class Dijkstra {
         // No se encontró camino
         long tiempoEjecucion = System.currentTimeMillis() - startTime;
         logger.warn("No existe camino de {} a {} | Tiempo búsqueda: {} ms", origen, destino, tiempoEjecucion);
-        return new ResultadoDijkstra(INFINITO, Collections.emptyList());
-    }
-
-    /**
-     * Reconstruye el camino óptimo usando el mapa de predecesores.
-     */
-    private static List<Estacion> reconstruirCamino(Map<Estacion, Estacion> predecesores,
-                                                    Estacion origen, Estacion destino) {
-        List<Estacion> camino = new ArrayList<>();
-        Estacion actual = destino;
-
-        while (actual != null) {
-            camino.add(actual);
-            if (actual.equals(origen)) {
-                Collections.reverse(camino);
-                return camino;
-            }
-            actual = predecesores.get(actual);
-        }
-
-        // Si no se llegó al origen → no hay camino válido
-        return Collections.emptyList();
+        return new ResultadoDijkstra(INFINITO, Collections.emptyList(), nodosExplorados);
     }
-}
\ No newline at end of file
+}
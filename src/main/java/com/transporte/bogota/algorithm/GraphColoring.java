@@ -1,8 +1,8 @@
 package com.transporte.bogota.algorithm;
 
 import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.CompactGraph;
 import com.transporte.bogota.util.Graph;
-import com.transporte.bogota.util.GraphEdge;
 
 import java.util.*;
 
@@ -20,47 +20,79 @@ public class GraphColoring {
      * @return Un mapa donde la clave es el nodo (recurso) y el valor es el ID del color (franja horaria/andén).
      */
     public static Map<Estacion, Integer> colorearGrafo(Graph conflictoGraph) {
-        Map<Estacion, Integer> colores = new HashMap<>();
-        
-        // 1. Obtener los nodos del grafo
-        List<Estacion> nodos = new ArrayList<>(conflictoGraph.getNodos());
-
-        // 2. Ordenar los nodos por grado decreciente (Heurística Welsh-Powell)
-        nodos.sort(Comparator.comparingInt((Estacion n) -> conflictoGraph.getVecinos(n).size()).reversed());
-        
+        return colorearGrafo(conflictoGraph.compactar());
+    }
+
+    /**
+     * Welsh-Powell sobre el grafo CSR: los colores viven en un int[] por ordinal
+     * y solo se materializa el mapa de salida.
+     */
+    public static Map<Estacion, Integer> colorearGrafo(CompactGraph grafo) {
+        int n = grafo.getNumNodos();
+        int[] colores = new int[n]; // 0 = sin color
+
+        // 1-2. Ordenar los nodos por grado decreciente (Heurística Welsh-Powell), counting sort por grado
+        int[] nodos = ordenarPorGradoDecreciente(grafo);
+
         int colorActual = 1;
-        
+
         // 3. Colorear los nodos
-        for (Estacion nodoInicial : nodos) {
-            if (!colores.containsKey(nodoInicial)) {
-                // Asignar un nuevo color al nodo inicial no coloreado
-                colores.put(nodoInicial, colorActual);
-                
-                // Iterar sobre los nodos restantes para asignar el mismo color
-                for (Estacion otroNodo : nodos) {
-                    if (!colores.containsKey(otroNodo)) {
-                        boolean conflicto = false;
-                        
-                        // Verificar si el 'otroNodo' tiene conflicto con cualquier vecino ya coloreado con 'colorActual'
-                        for (GraphEdge vecinoEdge : conflictoGraph.getVecinos(otroNodo)) {
-                            Estacion vecino = vecinoEdge.getDestino();
-                            if (colores.containsKey(vecino) && colores.get(vecino) == colorActual) {
-                                conflicto = true;
-                                break;
-                            }
-                        }
-                        
-                        if (!conflicto) {
-                            colores.put(otroNodo, colorActual);
-                        }
+        for (int i = 0; i < n; i++) {
+            int nodoInicial = nodos[i];
+            if (colores[nodoInicial] != 0) continue;
+
+            // Asignar un nuevo color al nodo inicial no coloreado
+            colores[nodoInicial] = colorActual;
+
+            // Los nodos anteriores a i ya tienen color: basta con recorrer los restantes
+            for (int j = i + 1; j < n; j++) {
+                int otroNodo = nodos[j];
+                if (colores[otroNodo] != 0) continue;
+
+                // Verificar si el 'otroNodo' tiene conflicto con cualquier vecino ya coloreado con 'colorActual'
+                boolean conflicto = false;
+                for (int e = grafo.inicioAristas(otroNodo), fin = grafo.finAristas(otroNodo); e < fin; e++) {
+                    if (colores[grafo.destino(e)] == colorActual) {
+                        conflicto = true;
+                        break;
                     }
                 }
-                
-                // Mover al siguiente color
-                colorActual++;
+
+                if (!conflicto) {
+                    colores[otroNodo] = colorActual;
+                }
             }
+
+            // Mover al siguiente color
+            colorActual++;
+        }
+
+        Map<Estacion, Integer> resultado = new HashMap<>(n * 2);
+        for (int u = 0; u < n; u++) {
+            resultado.put(grafo.getEstacion(u), colores[u]);
+        }
+        return resultado;
+    }
+
+    private static int[] ordenarPorGradoDecreciente(CompactGraph grafo) {
+        int n = grafo.getNumNodos();
+        int gradoMax = 0;
+        for (int u = 0; u < n; u++) {
+            gradoMax = Math.max(gradoMax, grafo.grado(u));
+        }
+
+        int[] inicio = new int[gradoMax + 2];
+        for (int u = 0; u < n; u++) {
+            inicio[gradoMax - grafo.grado(u) + 1]++;
+        }
+        for (int g = 0; g <= gradoMax; g++) {
+            inicio[g + 1] += inicio[g];
+        }
+
+        int[] orden = new int[n];
+        for (int u = 0; u < n; u++) {
+            orden[inicio[gradoMax - grafo.grado(u)]++] = u;
         }
-        
-        return colores;
+        return orden;
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,59 @@
 package com.transporte.bogota.algorithm;
 
 import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.CompactGraph;
 import com.transporte.bogota.util.Graph;
-import com.transporte.bogota.util.GraphEdge;
+import com.transporte.bogota.util.SearchWorkspace;
 
-import java.util.*;
+import java.util.Arrays;
 
 /**
- * Implementación del algoritmo de Edmonds-Karp para Flujo Máximo.
- * Utiliza la capacidad de la arista (capacidad del vehículo/tramo) 
- * para encontrar el flujo máximo de pasajeros entre origen y destino, 
+ * Flujo Máximo con dos motores: Dinic y push-relabel (ver PushRelabel).
+ * Utiliza la capacidad de la arista (capacidad del vehículo/tramo)
+ * para encontrar el flujo máximo de pasajeros entre origen y destino,
  * lo que ayuda a identificar cuellos de botella (congestión).
+ *
+ * En Dinic, cada fase construye el grafo de niveles con un BFS desde el origen y luego
+ * satura un flujo bloqueante con búsquedas en profundidad que solo avanzan de un
+ * nivel al siguiente. El puntero de arco actual de cada nodo nunca retrocede dentro
+ * de una fase, así que un arco agotado no se vuelve a examinar. Hay a lo sumo n
+ * fases, de modo que el resultado es exacto sin límite de iteraciones.
+ *
+ * Sin motor explícito, cada tipo de consulta usa el que ganó en MaxFlowBenchmark
+ * sobre la red real: Dinic (MOTOR_POR_DEFECTO) en las consultas s-t dirigidas y
+ * push-relabel en las de varios orígenes y destinos (MOTOR_FLUJO_MULTIPLE) y en los
+ * cortes no dirigidos de GomoryHuTree.
+ *
+ * Para varios orígenes y destinos (capacidad de un corredor) se usa una red residual
+ * con superorigen y supersumidero virtuales, de modo que un solo cálculo de flujo
+ * responde la consulta sin copiar el grafo.
  */
 public class MaxFlow {
 
-    /** * Matriz de capacidad residual: Almacena la capacidad restante disponible 
-     * en la dirección de avance y retroceso entre estaciones.
+    /** Redes residuales reutilizables; cada consulta trabaja sobre la suya. */
+    private static final ResidualNetworkPool REDES =
+            new ResidualNetworkPool(2 * Runtime.getRuntime().availableProcessors());
+
+    /** Redes con superorigen y supersumidero para las consultas de varios orígenes/destinos. */
+    private static final ResidualNetworkPool REDES_MULTIPLES =
+            new ResidualNetworkPool(Runtime.getRuntime().availableProcessors(), true);
+
+    /**
+     * Motor de flujo máximo. Dinic es más simple y rápido cuando hay pocos caminos de
+     * aumento; push-relabel rinde mejor cuando el flujo se reparte por muchos tramos,
+     * como en los cortes no dirigidos.
+     */
+    public enum Motor { DINIC, PUSH_RELABEL }
+
+    /** Motor de las consultas s-t sin motor explícito. */
+    public static final Motor MOTOR_POR_DEFECTO = Motor.DINIC;
+
+    /**
+     * Motor de las consultas de varios orígenes y destinos sin motor explícito. En
+     * MaxFlowBenchmark push-relabel fue ~30 veces más rápido que Dinic de los portales
+     * al centro, ~2 veces entre zonas aleatorias y ~13% del centro a los portales.
      */
-    private static Map<Estacion, Map<Estacion, Integer>> capacidadResidual;
+    public static final Motor MOTOR_FLUJO_MULTIPLE = Motor.PUSH_RELABEL;
 
     /**
      * Calcula el flujo máximo de pasajeros que puede pasar de origen a destino.
@@ -31,130 +67,312 @@ public class MaxFlow {
         if (!grafo.contiene(origen) || !grafo.contiene(destino)) {
             return 0;
         }
-        
-        int flujoMaximo = 0;
-        
-        // 1. Inicializar la capacidad residual basada en el grafo original
-        inicializarCapacidadResidual(grafo);
-        
-        // Mapa para almacenar el camino de aumento encontrado por BFS (parent[v] = u)
-        Map<Estacion, Estacion> parent = new HashMap<>();
-        
-        // Límite de iteraciones para evitar bucles infinitos en grafos degenerados
-        int maxIteraciones = Math.min(10000, grafo.getNodos().size() * 2);
-        int iteraciones = 0;
-
-        // 2. Ejecutar el ciclo principal de Ford-Fulkerson
-        // Mientras haya un camino de aumento desde origen a destino en el grafo residual
-        while (iteraciones < maxIteraciones && encontrarCaminoAumento(origen, destino, parent, grafo.getNodos())) {
-            iteraciones++;
-            
-            // 3. Encontrar el flujo (cuello de botella) del camino encontrado
-            int flujoCamino = Integer.MAX_VALUE;
-            Estacion v = destino;
-            while (!v.equals(origen)) {
-                Estacion u = parent.get(v);
-                Map<Estacion, Integer> capacidades = capacidadResidual.get(u);
-                int capActual = capacidades != null ? capacidades.getOrDefault(v, 0) : 0;
-                flujoCamino = Math.min(flujoCamino, capActual);
-                v = u;
+
+        CompactGraph compacto = grafo.compactar();
+        return calcularFlujoMaximo(compacto, compacto.indice(origen), compacto.indice(destino));
+    }
+
+    /**
+     * Flujo máximo sobre la red residual CSR (ordinales de origen y destino), con el
+     * motor por defecto.
+     * Es reentrante: la red residual sale del pool y el estado de búsqueda es por
+     * hilo, así que se puede invocar desde varios hilos a la vez.
+     */
+    public static int calcularFlujoMaximo(CompactGraph grafo, int origen, int destino) {
+        return calcularFlujoMaximo(grafo, origen, destino, MOTOR_POR_DEFECTO);
+    }
+
+    /**
+     * Flujo máximo con un motor explícito.
+     */
+    public static int calcularFlujoMaximo(CompactGraph grafo, int origen, int destino, Motor motor) {
+        if (origen < 0 || destino < 0 || origen == destino) {
+            return 0;
+        }
+        ResidualNetwork red = REDES.adquirir(grafo);
+        try {
+            return calcularFlujoMaximo(red, origen, destino, motor);
+        } finally {
+            REDES.liberar(red);
+        }
+    }
+
+    /**
+     * Flujo máximo junto con el flujo final por arista y el corte mínimo s-t.
+     */
+    public static ResultadoFlujo calcularFlujoConCorte(CompactGraph grafo, int origen, int destino) {
+        int m = grafo.getNumAristas();
+        if (origen < 0 || destino < 0 || origen == destino) {
+            return new ResultadoFlujo(0, new int[m], new boolean[grafo.getNumNodos()], new int[0]);
+        }
+        ResidualNetwork red = REDES.adquirir(grafo);
+        try {
+            int flujoMaximo = calcularFlujoMaximo(red, origen, destino, MOTOR_POR_DEFECTO);
+
+            // Lado del origen: alcanzables por arcos con residual positivo
+            return armarResultado(grafo, red, flujoMaximo, alcanzablesEnResidual(red, origen));
+        } finally {
+            REDES.liberar(red);
+        }
+    }
+
+    /**
+     * Flujo máximo desde un conjunto de orígenes hacia un conjunto de destinos (por
+     * ejemplo, todos los portales del norte hacia una zona), con su corte mínimo.
+     *
+     * Equivale a un flujo s-t desde un superorigen unido a cada origen hasta un
+     * supersumidero unido a cada destino. Las aristas del corte son siempre del grafo:
+     * los orígenes se cuentan del lado del origen y los destinos del otro.
+     *
+     * @throws IllegalArgumentException si algún conjunto está vacío o comparten estaciones
+     */
+    public static ResultadoFlujo calcularFlujoMultiple(CompactGraph grafo, int[] origenes, int[] destinos) {
+        return calcularFlujoMultiple(grafo, origenes, destinos, MOTOR_FLUJO_MULTIPLE);
+    }
+
+    /**
+     * Flujo máximo entre conjuntos con un motor explícito.
+     */
+    public static ResultadoFlujo calcularFlujoMultiple(CompactGraph grafo, int[] origenes, int[] destinos,
+                                                       Motor motor) {
+        int n = grafo.getNumNodos();
+        if (origenes.length == 0 || destinos.length == 0) {
+            throw new IllegalArgumentException("Se requiere al menos un origen y un destino");
+        }
+        byte[] papel = new byte[n]; // 1 = origen, 2 = destino
+        for (int v : origenes) {
+            papel[v] = 1;
+        }
+        for (int v : destinos) {
+            if (papel[v] == 1) {
+                throw new IllegalArgumentException("La estación " + grafo.getEstacion(v)
+                        + " no puede ser origen y destino a la vez");
+            }
+            papel[v] = 2;
+        }
+
+        ResidualNetwork red = REDES_MULTIPLES.adquirir(grafo);
+        try {
+            for (int v = 0; v < n; v++) {
+                if (papel[v] == 1) red.abrirOrigen(v);
+                else if (papel[v] == 2) red.abrirDestino(v);
             }
-            
-            // Si flujoCamino es 0 o MAX_VALUE, hay un problema, salir
-            if (flujoCamino <= 0 || flujoCamino == Integer.MAX_VALUE) {
-                break;
+            int flujoMaximo = calcularFlujoMaximo(red, red.superOrigen, red.superSumidero, motor);
+
+            // Un arco virtual del corte vale lo mismo que las aristas reales de su
+            // estación (se le dio esa capacidad), así que mover orígenes y destinos a su
+            // lado deja un corte igual de mínimo formado solo por aristas del grafo
+            boolean[] ladoOrigen = Arrays.copyOf(alcanzablesEnResidual(red, red.superOrigen), n);
+            for (int v = 0; v < n; v++) {
+                if (papel[v] != 0) ladoOrigen[v] = papel[v] == 1;
             }
-            
-            // 4. Sumar el flujo del camino al flujo máximo total
-            flujoMaximo += flujoCamino;
-
-            // 5. Actualizar las capacidades residuales (grafo residual)
-            v = destino;
-            while (!v.equals(origen)) {
-                Estacion u = parent.get(v);
-                
-                // Reducir la capacidad en la arista de avance
-                Map<Estacion, Integer> capacidadesU = capacidadResidual.get(u);
-                capacidadesU.put(v, capacidadesU.get(v) - flujoCamino);
-                
-                // Aumentar la capacidad en la arista de retroceso
-                Map<Estacion, Integer> capacidadesV = capacidadResidual.get(v);
-                capacidadesV.put(u, capacidadesV.getOrDefault(u, 0) + flujoCamino);
-                
-                v = u;
+            return armarResultado(grafo, red, flujoMaximo, ladoOrigen);
+        } finally {
+            REDES_MULTIPLES.liberar(red);
+        }
+    }
+
+    /**
+     * Flujo máximo sobre una red residual ya construida; deja en ella un flujo máximo válido.
+     */
+    static int calcularFlujoMaximo(ResidualNetwork red, int origen, int destino, Motor motor) {
+        return motor == Motor.PUSH_RELABEL
+                ? PushRelabel.calcular(red, origen, destino)
+                : dinic(red, origen, destino);
+    }
+
+    /**
+     * Dinic: fases de grafo de niveles y flujo bloqueante.
+     */
+    private static int dinic(ResidualNetwork red, int origen, int destino) {
+        // Niveles en el espacio de trabajo (época nueva por fase); el puntero de arco
+        // actual y la pila de arcos del camino usan sus arreglos auxiliares
+        SearchWorkspace ws = SearchWorkspace.actual(red.numNodos);
+        SearchWorkspace.Lado niveles = ws.adelante();
+        int[] arcoActual = ws.atras().cola();
+
+        int flujoMaximo = 0;
+        while (construirNiveles(red, origen, destino, ws, niveles)) {
+            for (int u = 0; u < red.numNodos; u++) {
+                arcoActual[u] = red.inicio[u];
             }
+            flujoMaximo += flujoBloqueante(red, origen, destino, niveles, arcoActual);
         }
 
         return flujoMaximo;
     }
-    
+
     // ================== Métodos Auxiliares ==================
 
     /**
-     * Inicializa la capacidad residual usando matriz dispersa.
-     * Solo crea entradas para aristas existentes, no para todos los pares nodo×nodo.
-     * Esto reduce memoria de O(n²) a O(m) donde m es el número de aristas.
+     * Flujo por arista y aristas del corte: las del grafo con capacidad que salen
+     * del lado del origen (todas saturadas tras el flujo máximo).
+     */
+    private static ResultadoFlujo armarResultado(CompactGraph grafo, ResidualNetwork red,
+                                                 int flujoMaximo, boolean[] ladoOrigen) {
+        int m = grafo.getNumAristas();
+        int[] flujoPorArista = new int[m];
+        for (int e = 0; e < m; e++) {
+            flujoPorArista[e] = red.flujo(red.arcoAvance[e]);
+        }
+
+        int numCorte = 0;
+        int[] corte = new int[m];
+        for (int u = 0; u < grafo.getNumNodos(); u++) {
+            if (!ladoOrigen[u]) continue;
+            for (int e = grafo.inicioAristas(u), fin = grafo.finAristas(u); e < fin; e++) {
+                if (!ladoOrigen[grafo.destino(e)] && red.capacidad[red.arcoAvance[e]] > 0) {
+                    corte[numCorte++] = e;
+                }
+            }
+        }
+        return new ResultadoFlujo(flujoMaximo, flujoPorArista, ladoOrigen, Arrays.copyOf(corte, numCorte));
+    }
+
+    /**
+     * BFS por arcos con residual positivo desde s (tras el flujo máximo, el lado s del corte).
+     */
+    private static boolean[] alcanzablesEnResidual(ResidualNetwork red, int s) {
+        boolean[] alcanzados = new boolean[red.numNodos];
+        int[] cola = SearchWorkspace.actual(red.numNodos).adelante().cola();
+        int cabezaCola = 0, finCola = 0;
+        cola[finCola++] = s;
+        alcanzados[s] = true;
+
+        while (cabezaCola < finCola) {
+            int u = cola[cabezaCola++];
+            for (int a = red.inicio[u], fin = red.inicio[u + 1]; a < fin; a++) {
+                int v = red.cabeza[a];
+                if (red.residual[a] > 0 && !alcanzados[v]) {
+                    alcanzados[v] = true;
+                    cola[finCola++] = v;
+                }
+            }
+        }
+        return alcanzados;
+    }
+
+    /**
+     * BFS por arcos con capacidad residual positiva que asigna a cada nodo su nivel
+     * (distancia en arcos desde el origen). No expande más allá del nivel del destino.
+     *
+     * @return true si el destino es alcanzable en la red residual
      */
-    private static void inicializarCapacidadResidual(Graph grafo) {
-        capacidadResidual = new HashMap<>();
-        
-        // 1. Crear entrada para cada nodo (pero sin inicializar todos los pares)
-        for (Estacion u : grafo.getNodos()) {
-            capacidadResidual.put(u, new HashMap<>());
-        }
-        
-        // 2. Llenar solo con las aristas reales del grafo
-        for (Estacion u : grafo.getNodos()) {
-            Map<Estacion, Integer> vecinos = capacidadResidual.get(u);
-            for (GraphEdge edge : grafo.getVecinos(u)) {
-                Estacion destino = edge.getDestino();
-                // Capacidad de avance
-                vecinos.put(destino, edge.getCapacidad());
-                
-                // Asegurar que el nodo destino existe en el mapa (aristas de retroceso)
-                capacidadResidual.putIfAbsent(destino, new HashMap<>());
-                // Capacidad de retroceso inicial es 0
-                capacidadResidual.get(destino).putIfAbsent(u, 0);
+    private static boolean construirNiveles(ResidualNetwork red, int s, int t,
+                                            SearchWorkspace ws, SearchWorkspace.Lado niveles) {
+        ws.nuevaEpoca();
+        int[] cola = niveles.cola();
+        int cabezaCola = 0, finCola = 0;
+
+        cola[finCola++] = s;
+        niveles.actualizar(s, 0, -1);
+
+        while (cabezaCola < finCola) {
+            int u = cola[cabezaCola++];
+            int siguiente = niveles.distancia(u) + 1;
+            if (niveles.tocado(t) && siguiente > niveles.distancia(t)) {
+                break; // Los nodos más lejanos que el destino no sirven en esta fase
+            }
+
+            for (int a = red.inicio[u], fin = red.inicio[u + 1]; a < fin; a++) {
+                int v = red.cabeza[a];
+                if (red.residual[a] > 0 && !niveles.tocado(v)) {
+                    niveles.actualizar(v, siguiente, -1);
+                    cola[finCola++] = v;
+                }
             }
         }
+
+        return niveles.tocado(t);
     }
 
     /**
-     * Búsqueda en anchura (BFS) para encontrar un camino de aumento.
-     * OPTIMIZADO: Solo itera sobre vecinos reales (aristas existentes), no todos los nodos.
+     * Satura el grafo de niveles con DFS iterativas. La pila guarda los arcos del
+     * camino actual; al llegar al destino se aumenta por el mínimo residual y se
+     * retrocede hasta el primer arco saturado. Un nodo sin salida hace avanzar el
+     * puntero de arco de su antecesor.
      */
-    private static boolean encontrarCaminoAumento(Estacion s, Estacion t, Map<Estacion, Estacion> parent, Collection<Estacion> nodos) {
-        parent.clear(); 
-        Set<Estacion> visitados = new HashSet<>();
-        Queue<Estacion> queue = new LinkedList<>();
-
-        queue.add(s);
-        visitados.add(s);
-        
-        while (!queue.isEmpty()) {
-            Estacion u = queue.poll();
-            
-            // Iterar solo sobre vecinos reales (con capacidad residual > 0)
-            Map<Estacion, Integer> vecinosResidual = capacidadResidual.get(u);
-            if (vecinosResidual != null) {
-                for (Map.Entry<Estacion, Integer> entry : vecinosResidual.entrySet()) {
-                    Estacion v = entry.getKey();
-                    int capacidad = entry.getValue();
-                    
-                    // Si aún queda capacidad residual y no ha sido visitado
-                    if (capacidad > 0 && !visitados.contains(v)) {
-                        queue.add(v);
-                        parent.put(v, u);
-                        visitados.add(v);
-                        
-                        if (v.equals(t)) {
-                            return true; // Camino encontrado
-                        }
-                    }
+    private static int flujoBloqueante(ResidualNetwork red, int s, int t,
+                                       SearchWorkspace.Lado niveles, int[] arcoActual) {
+        int[] pila = niveles.cola(); // la cola del BFS ya no se usa en esta fase
+        int profundidad = 0;
+        int u = s;
+        int flujo = 0;
+
+        while (true) {
+            if (u == t) {
+                int flujoCamino = Integer.MAX_VALUE;
+                for (int i = 0; i < profundidad; i++) {
+                    flujoCamino = Math.min(flujoCamino, red.residual[pila[i]]);
+                }
+                int primerSaturado = -1;
+                for (int i = 0; i < profundidad; i++) {
+                    int arco = pila[i];
+                    red.residual[arco] -= flujoCamino;
+                    red.residual[red.pareja[arco]] += flujoCamino;
+                    if (primerSaturado < 0 && red.residual[arco] == 0) primerSaturado = i;
                 }
+                flujo += flujoCamino;
+
+                profundidad = primerSaturado;
+                u = profundidad == 0 ? s : red.cabeza[pila[profundidad - 1]];
+                continue;
+            }
+
+            // Avanzar por el primer arco admisible (residual > 0 y un nivel más)
+            int nivelSiguiente = niveles.distancia(u) + 1;
+            int fin = red.inicio[u + 1];
+            int a = arcoActual[u];
+            while (a < fin && (red.residual[a] <= 0 || niveles.distancia(red.cabeza[a]) != nivelSiguiente)) {
+                a++;
             }
+            arcoActual[u] = a;
+
+            if (a < fin) {
+                pila[profundidad++] = a;
+                u = red.cabeza[a];
+            } else {
+                // Sin salida: retroceder y descartar el arco que llevó hasta aquí
+                if (u == s) break;
+                profundidad--;
+                u = profundidad == 0 ? s : red.cabeza[pila[profundidad - 1]];
+                arcoActual[u]++;
+            }
+        }
+
+        return flujo;
+    }
+
+    /**
+     * Flujo máximo con el estado final de la red: flujo por arista del grafo,
+     * lado del origen del corte mínimo y aristas del corte (todas saturadas).
+     */
+    public static final class ResultadoFlujo {
+        public final int flujoMaximo;
+        private final int[] flujoPorArista;
+        private final boolean[] ladoOrigen;
+        private final int[] aristasCorte;
+
+        ResultadoFlujo(int flujoMaximo, int[] flujoPorArista, boolean[] ladoOrigen, int[] aristasCorte) {
+            this.flujoMaximo = flujoMaximo;
+            this.flujoPorArista = flujoPorArista;
+            this.ladoOrigen = ladoOrigen;
+            this.aristasCorte = aristasCorte;
+        }
+
+        /** Flujo que circula por la arista e del grafo. */
+        public int flujo(int arista) {
+            return flujoPorArista[arista];
+        }
+
+        /** true si el nodo queda del lado del origen en el corte mínimo. */
+        public boolean enLadoOrigen(int nodo) {
+            return ladoOrigen[nodo];
+        }
+
+        /** Índices de las aristas del corte mínimo; la suma de sus capacidades es el flujo máximo. */
+        public int[] getAristasCorte() {
+            return aristasCorte.clone();
         }
-        
-        return false; // No hay más caminos de aumento
     }
-}
\ No newline at end of file
+}
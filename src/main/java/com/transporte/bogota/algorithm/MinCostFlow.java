@@ -0,0 +1,243 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.util.CompactGraph;
+import com.transporte.bogota.util.IntPriorityQueue;
+import com.transporte.bogota.util.SearchWorkspace;
+
+import java.util.Arrays;
+
+/**
+ * Asignación de una matriz de demanda origen-destino a la red con flujo de costo
+ * mínimo: costo = tiempo de la arista, capacidad = capacidad de la arista.
+ *
+ * Cada par se resuelve con caminos mínimos sucesivos (SSP) sobre la red residual:
+ * Dijkstra con costos reducidos c(u,v) + π(u) - π(v), que con potenciales válidos
+ * son no negativos aunque la red residual tenga arcos de retroceso con costo
+ * negativo. La búsqueda se detiene al asentar el destino y solo se actualizan los
+ * potenciales de los nodos asentados (π(v) += d(v) - d(t)), lo que los mantiene
+ * válidos sin recorrer toda la red. Se aumenta por el cuello de botella del camino
+ * hasta cubrir el volumen del par o agotar la capacidad.
+ *
+ * Los pares comparten la capacidad pero no se cancelan entre sí: al terminar un par
+ * su flujo se fija como carga y su capacidad residual pasa a ser la capacidad
+ * disponible para los siguientes (sin arcos de retroceso), de modo que la carga de
+ * cada par es un flujo propio de su origen a su destino. Los pares se asignan de
+ * mayor a menor volumen.
+ */
+public final class MinCostFlow {
+
+    private MinCostFlow() {
+    }
+
+    /**
+     * Asigna los viajes (origenes[i] → destinos[i], volumenes[i] pasajeros).
+     *
+     * @throws IllegalArgumentException si los arreglos no coinciden, hay volúmenes
+     *         negativos o el grafo tiene tiempos negativos
+     */
+    public static AsignacionFlujo asignar(CompactGraph grafo, int[] origenes, int[] destinos, int[] volumenes) {
+        if (origenes.length != destinos.length || origenes.length != volumenes.length) {
+            throw new IllegalArgumentException("Orígenes, destinos y volúmenes deben tener el mismo tamaño");
+        }
+        if (grafo.getTiempoMinimo() < 0) {
+            throw new IllegalArgumentException("La asignación requiere tiempos no negativos");
+        }
+        for (int volumen : volumenes) {
+            if (volumen < 0) {
+                throw new IllegalArgumentException("Volumen negativo: " + volumen);
+            }
+        }
+
+        Integer[] orden = new Integer[origenes.length];
+        for (int i = 0; i < orden.length; i++) orden[i] = i;
+        Arrays.sort(orden, (a, b) -> Integer.compare(volumenes[b], volumenes[a]));
+
+        Asignador asignador = new Asignador(grafo);
+        int[] asignados = new int[origenes.length];
+        for (int i : orden) {
+            if (origenes[i] == destinos[i]) {
+                asignados[i] = volumenes[i];
+            } else if (volumenes[i] > 0) {
+                asignados[i] = asignador.asignarPar(origenes[i], destinos[i], volumenes[i]);
+            }
+        }
+        return new AsignacionFlujo(asignador.cargas, asignados, volumenes.clone(), asignador.costoTotal);
+    }
+
+    /**
+     * Red residual propia de una asignación (las capacidades se van consumiendo)
+     * con el costo de cada arco y el estado de los potenciales del par en curso.
+     */
+    private static final class Asignador {
+        final CompactGraph grafo;
+        final ResidualNetwork red;
+        final int[] costo;          // por arco: tiempo en avance, -tiempo en retroceso
+        final int[] aristaDeArco;
+        final int[] cargas;
+        long costoTotal;
+
+        // Potenciales del par actual: valen 0 si su marca no es la del par
+        final int[] potencial;
+        final int[] marcaPotencial;
+        // Aristas que el par actual tocó, para fijar su flujo al terminar
+        final int[] marcaArista;
+        final int[] tocadas;
+        int numTocadas;
+        int par;
+
+        Asignador(CompactGraph grafo) {
+            int n = grafo.getNumNodos();
+            int m = grafo.getNumAristas();
+            this.grafo = grafo;
+            this.red = new ResidualNetwork(grafo);
+            this.costo = new int[red.cabeza.length];
+            this.aristaDeArco = new int[red.cabeza.length];
+            for (int e = 0; e < m; e++) {
+                int avance = red.arcoAvance[e];
+                costo[avance] = grafo.tiempo(e);
+                costo[red.pareja[avance]] = -grafo.tiempo(e);
+                aristaDeArco[avance] = e;
+                aristaDeArco[red.pareja[avance]] = e;
+            }
+            this.cargas = new int[m];
+            this.potencial = new int[n];
+            this.marcaPotencial = new int[n];
+            this.marcaArista = new int[m];
+            this.tocadas = new int[m];
+        }
+
+        private int potencial(int v) {
+            return marcaPotencial[v] == par ? potencial[v] : 0;
+        }
+
+        /** Caminos mínimos sucesivos de s a t hasta cubrir el volumen; devuelve lo asignado. */
+        int asignarPar(int s, int t, int volumen) {
+            par++;
+            numTocadas = 0;
+            int pendiente = volumen;
+            SearchWorkspace ws = SearchWorkspace.actual(grafo.getNumNodos());
+            SearchWorkspace.Lado lado = ws.adelante();
+
+            while (pendiente > 0 && caminoMinimo(ws, lado, s, t)) {
+                int cuello = pendiente;
+                for (int v = t; v != s; v = red.cabeza[red.pareja[lado.predecesor(v)]]) {
+                    cuello = Math.min(cuello, red.residual[lado.predecesor(v)]);
+                }
+                for (int v = t; v != s; ) {
+                    int arco = lado.predecesor(v);
+                    red.residual[arco] -= cuello;
+                    red.residual[red.pareja[arco]] += cuello;
+                    int e = aristaDeArco[arco];
+                    if (marcaArista[e] != par) {
+                        marcaArista[e] = par;
+                        tocadas[numTocadas++] = e;
+                    }
+                    v = red.cabeza[red.pareja[arco]];
+                }
+                pendiente -= cuello;
+            }
+
+            fijarFlujoDelPar();
+            return volumen - pendiente;
+        }
+
+        /**
+         * Dijkstra con costos reducidos sobre los arcos con residual; el predecesor de
+         * cada nodo es el arco por el que se llegó. Al asentar t ajusta los potenciales.
+         *
+         * @return false si t no es alcanzable
+         */
+        private boolean caminoMinimo(SearchWorkspace ws, SearchWorkspace.Lado lado, int s, int t) {
+            ws.nuevaEpoca();
+            int[] asentados = lado.cola();
+            int numAsentados = 0;
+            IntPriorityQueue cola = lado.heap();
+            lado.actualizar(s, 0, -1);
+            cola.offer(s, 0);
+
+            while (!cola.isEmpty()) {
+                int u = cola.poll();
+                if (lado.asentado(u)) continue;
+                lado.asentar(u);
+                asentados[numAsentados++] = u;
+                if (u == t) break;
+
+                int du = lado.distancia(u);
+                int pu = potencial(u);
+                for (int a = red.inicio[u], fin = red.inicio[u + 1]; a < fin; a++) {
+                    if (red.residual[a] <= 0) continue;
+                    int v = red.cabeza[a];
+                    if (lado.asentado(v)) continue;
+                    int candidata = du + costo[a] + pu - potencial(v);
+                    if (candidata < lado.distancia(v)) {
+                        lado.actualizar(v, candidata, a);
+                        cola.offer(v, candidata);
+                    }
+                }
+            }
+            if (!lado.asentado(t)) return false;
+
+            int dt = lado.distancia(t);
+            for (int i = 0; i < numAsentados; i++) {
+                int v = asentados[i];
+                potencial[v] = potencial(v) + lado.distancia(v) - dt;
+                marcaPotencial[v] = par;
+            }
+            return true;
+        }
+
+        /**
+         * Suma el flujo del par a las cargas y deja la capacidad residual como la
+         * disponible para los pares siguientes, sin arcos de retroceso.
+         */
+        private void fijarFlujoDelPar() {
+            for (int i = 0; i < numTocadas; i++) {
+                int e = tocadas[i];
+                int avance = red.arcoAvance[e];
+                int flujo = red.capacidad[avance] - red.residual[avance];
+                cargas[e] += flujo;
+                costoTotal += (long) flujo * grafo.tiempo(e);
+                red.capacidad[avance] = red.residual[avance];
+                red.residual[red.pareja[avance]] = 0;
+            }
+        }
+    }
+
+    /**
+     * Resultado de una asignación: carga por arista del grafo, pasajeros asignados por
+     * viaje (menos que el volumen si la capacidad no alcanza) y costo total en
+     * pasajero-minutos.
+     */
+    public static final class AsignacionFlujo {
+        private final int[] cargas;
+        private final int[] asignados;
+        private final int[] volumenes;
+        public final long costoTotal;
+
+        AsignacionFlujo(int[] cargas, int[] asignados, int[] volumenes, long costoTotal) {
+            this.cargas = cargas;
+            this.asignados = asignados;
+            this.volumenes = volumenes;
+            this.costoTotal = costoTotal;
+        }
+
+        /** Pasajeros que circulan por la arista e del grafo. */
+        public int carga(int arista) {
+            return cargas[arista];
+        }
+
+        /** Pasajeros del viaje i que se lograron asignar. */
+        public int asignado(int viaje) {
+            return asignados[viaje];
+        }
+
+        /** Pasajeros del viaje i que no caben en la red. */
+        public int sinAsignar(int viaje) {
+            return volumenes[viaje] - asignados[viaje];
+        }
+
+        public int getNumViajes() {
+            return asignados.length;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.transporte.bogota.algorithm;
 
-import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.CompactGraph;
 import com.transporte.bogota.util.Graph;
 import com.transporte.bogota.util.GraphEdge;
 
@@ -8,38 +8,54 @@ import java.util.*;
 
 /**
  * Estructura auxiliar para el algoritmo de Kruskal (Union-Find / DSU).
- * Se utiliza para detectar ciclos.
+ * Se utiliza para detectar ciclos. Trabaja sobre ordinales de nodo.
  */
 class UnionFind {
-    private final Map<Estacion, Estacion> parent;
+    private final int[] parent;
+    private final byte[] rank;
 
-    public UnionFind(Collection<Estacion> nodos) {
-        parent = new HashMap<>();
-        for (Estacion e : nodos) {
-            parent.put(e, e); 
+    public UnionFind(int numNodos) {
+        parent = new int[numNodos];
+        rank = new byte[numNodos];
+        for (int i = 0; i < numNodos; i++) {
+            parent[i] = i;
         }
     }
 
     /** Encuentra el representante (raíz) del conjunto al que pertenece el nodo. */
-    public Estacion find(Estacion i) {
-        if (parent.get(i).equals(i))
-            return i;
-        
+    public int find(int i) {
+        int raiz = i;
+        while (parent[raiz] != raiz) {
+            raiz = parent[raiz];
+        }
         // Compresión de camino para optimización
-        parent.put(i, find(parent.get(i)));
-        return parent.get(i);
+        while (parent[i] != raiz) {
+            int siguiente = parent[i];
+            parent[i] = raiz;
+            i = siguiente;
+        }
+        return raiz;
     }
 
     /** Une los conjuntos que contienen a 'x' y 'y'. */
-    public boolean union(Estacion x, Estacion y) {
-        Estacion rootX = find(x);
-        Estacion rootY = find(y);
+    public boolean union(int x, int y) {
+        int rootX = find(x);
+        int rootY = find(y);
 
-        if (!rootX.equals(rootY)) {
-            parent.put(rootY, rootX);
-            return true; // Se hizo la unión (no había ciclo)
+        if (rootX == rootY) {
+            return false; // Ya estaban unidos (había ciclo)
         }
-        return false; // Ya estaban unidos (había ciclo)
+
+        // Unión por rango
+        if (rank[rootX] < rank[rootY]) {
+            parent[rootX] = rootY;
+        } else if (rank[rootX] > rank[rootY]) {
+            parent[rootY] = rootX;
+        } else {
+            parent[rootY] = rootX;
+            rank[rootX]++;
+        }
+        return true; // Se hizo la unión (no había ciclo)
     }
 }
 
@@ -55,46 +71,49 @@ public class MinimumSpanningTree {
      * @return Una lista de GraphEdge que forman el ARM.
      */
     public static List<GraphEdge> calcularARM(Graph grafo) {
+        return calcularARM(grafo.compactar());
+    }
+
+    /**
+     * Kruskal sobre el grafo CSR. Las aristas se ordenan como longs empaquetados
+     * (tiempo en los bits altos, índice de arista en los bajos) para evitar boxing.
+     * Nota: trata el grafo como no dirigido para el propósito del ARM,
+     * pero usa las aristas dirigidas existentes.
+     */
+    public static List<GraphEdge> calcularARM(CompactGraph grafo) {
         List<GraphEdge> arm = new ArrayList<>();
-        
-        // 1. Obtener todas las aristas y ordenarlas por peso (tiempo de viaje)
-        List<GraphEdge> todasLasAristas = obtenerTodasLasAristas(grafo);
-        
-        // Ordenar por el peso (tiempo de viaje) de forma ascendente
-        todasLasAristas.sort(Comparator.comparingInt(GraphEdge::getTiempo));
-        
+        int n = grafo.getNumNodos();
+        int m = grafo.getNumAristas();
+
+        // 1. Obtener todas las aristas con su origen y ordenarlas por peso (tiempo de viaje)
+        int[] origenes = new int[m];
+        long[] orden = new long[m];
+        for (int u = 0; u < n; u++) {
+            for (int e = grafo.inicioAristas(u), fin = grafo.finAristas(u); e < fin; e++) {
+                origenes[e] = u;
+                orden[e] = ((long) grafo.tiempo(e) << 32) | e;
+            }
+        }
+        Arrays.sort(orden);
+
         // 2. Inicializar la estructura Union-Find (DSU)
-        UnionFind dsu = new UnionFind(grafo.getNodos());
-        
+        UnionFind dsu = new UnionFind(n);
+
         // 3. Iterar sobre las aristas ordenadas
-        for (GraphEdge edge : todasLasAristas) {
-            Estacion origen = edge.getOrigen();
-            Estacion destino = edge.getDestino();
+        for (long entrada : orden) {
+            int e = (int) entrada;
 
             // 4. Si la arista no crea un ciclo
-            if (dsu.union(origen, destino)) {
-                arm.add(edge);
-                
+            if (dsu.union(origenes[e], grafo.destino(e))) {
+                arm.add(grafo.arista(e));
+
                 // 5. Condición de parada: N-1 aristas
-                if (arm.size() == grafo.getNodos().size() - 1) {
+                if (arm.size() == n - 1) {
                     break;
                 }
             }
         }
-        
+
         return arm;
     }
-    
-    /**
-     * Método auxiliar para obtener todas las aristas del grafo.
-     * Nota: Este método asume que el grafo subyacente es no dirigido
-     * para el propósito del ARM, pero usa las aristas dirigidas existentes.
-     */
-    private static List<GraphEdge> obtenerTodasLasAristas(Graph grafo) {
-        Set<GraphEdge> aristasSet = new HashSet<>();
-        for (Estacion u : grafo.getNodos()) {
-            aristasSet.addAll(grafo.getVecinos(u));
-        }
-        return new ArrayList<>(aristasSet);
-    }
-}
\ No newline at end of file
+}
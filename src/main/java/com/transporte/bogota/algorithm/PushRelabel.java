@@ -0,0 +1,255 @@
+package com.transporte.bogota.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Flujo máximo por push-relabel con selección del nodo activo más alto
+ * (highest-label), sobre la red residual CSR.
+ *
+ * Fase 1: se satura la salida del origen y cada nodo activo empuja su exceso por
+ * arcos admisibles (altura exactamente una menos) o se reetiqueta. Al terminar, el
+ * exceso del destino es el flujo máximo. Fase 2: el exceso que quedó atrapado en
+ * nodos que ya no alcanzan el destino se devuelve al origen con el mismo esquema,
+ * de modo que la red queda con un flujo válido (útil para el corte mínimo y el
+ * flujo por arista).
+ *
+ * Heurísticas:
+ * - Gap: si una altura h < n queda vacía, ningún nodo por encima puede llegar al
+ *   destino; se suben todos a n de una vez.
+ * - Reetiquetado global: cada n reetiquetados se recalculan las alturas exactas con
+ *   un BFS inverso desde el sumidero sobre la red residual.
+ *
+ * Los arreglos auxiliares se crean una vez por red residual y se guardan en ella:
+ * como cada red pertenece a una sola consulta a la vez (pool o red por hilo), las
+ * consultas siguientes los reutilizan sin asignar memoria.
+ */
+final class PushRelabel {
+
+    private final ResidualNetwork red;
+    private final int n;
+    private final int[] altura;
+    private final int[] exceso;
+    private final int[] arcoActual;
+    private final int[] cola;
+
+    // Nodos activos por altura (pilas enlazadas) y todos los nodos por altura (listas dobles, para el gap)
+    private final int[] primerActivo;
+    private final int[] siguienteActivo;
+    private final int[] primerNodo;
+    private final int[] siguienteNodo;
+    private final int[] anteriorNodo;
+
+    private int limite;       // altura a partir de la cual un nodo deja de estar activo
+    private boolean conGap;
+    private int alturaMaxActiva;
+    private int alturaMaxNodo;
+    private int reetiquetados;
+
+    private PushRelabel(ResidualNetwork red) {
+        this.red = red;
+        this.n = red.numNodos;
+        this.altura = new int[n];
+        this.exceso = new int[n];
+        this.arcoActual = new int[n];
+        this.cola = new int[n];
+        this.primerActivo = new int[2 * n + 1];
+        this.siguienteActivo = new int[n];
+        this.primerNodo = new int[2 * n + 1];
+        this.siguienteNodo = new int[n];
+        this.anteriorNodo = new int[n];
+    }
+
+    /**
+     * Calcula el flujo máximo de origen a destino y deja en la red un flujo válido.
+     */
+    static int calcular(ResidualNetwork red, int origen, int destino) {
+        PushRelabel estado = red.pushRelabel;
+        if (estado == null) {
+            estado = new PushRelabel(red);
+            red.pushRelabel = estado;
+        }
+        return estado.ejecutar(origen, destino);
+    }
+
+    private int ejecutar(int s, int t) {
+        // Estado de la consulta anterior sobre la misma red
+        Arrays.fill(exceso, 0);
+        reetiquetados = 0;
+
+        // Fase 1: preflujo máximo hacia t; los nodos que suben a n quedan inactivos
+        limite = n;
+        conGap = true;
+        for (int a = red.inicio[s], fin = red.inicio[s + 1]; a < fin; a++) {
+            int delta = red.residual[a];
+            if (delta > 0) {
+                empujar(a, s, red.cabeza[a], delta);
+            }
+        }
+        reetiquetarGlobal(t, s);
+        procesarActivos(s, t);
+        int flujo = exceso[t];
+
+        // Fase 2: devolver al origen el exceso atrapado (solo pasa si quedó alguno)
+        boolean quedaExceso = false;
+        for (int v = 0; v < n && !quedaExceso; v++) {
+            quedaExceso = v != s && v != t && exceso[v] > 0;
+        }
+        if (quedaExceso) {
+            limite = 2 * n;
+            conGap = false;
+            reetiquetarGlobal(s, t);
+            procesarActivos(t, s);
+        }
+
+        return flujo;
+    }
+
+    /** Bucle highest-label: descarga siempre el nodo activo de mayor altura. */
+    private void procesarActivos(int fijo, int sumidero) {
+        while (true) {
+            if (reetiquetados >= n) {
+                reetiquetarGlobal(sumidero, fijo);
+            }
+            while (alturaMaxActiva >= 0 && primerActivo[alturaMaxActiva] == -1) {
+                alturaMaxActiva--;
+            }
+            if (alturaMaxActiva < 0) return;
+
+            int h = alturaMaxActiva;
+            int v = primerActivo[h];
+            primerActivo[h] = siguienteActivo[v];
+            if (altura[v] == h && exceso[v] > 0) {
+                descargar(v, fijo, sumidero);
+            }
+        }
+    }
+
+    /** Empuja el exceso de v por arcos admisibles, reetiquetando cuando se agotan. */
+    private void descargar(int v, int fijo, int sumidero) {
+        int fin = red.inicio[v + 1];
+        while (exceso[v] > 0) {
+            int a = arcoActual[v];
+            if (a == fin) {
+                reetiquetar(v);
+                if (altura[v] >= limite) return;
+                continue;
+            }
+            int w = red.cabeza[a];
+            if (red.residual[a] > 0 && altura[v] == altura[w] + 1) {
+                boolean estabaInactivo = exceso[w] == 0;
+                empujar(a, v, w, Math.min(exceso[v], red.residual[a]));
+                if (estabaInactivo && w != fijo && w != sumidero) {
+                    activar(w);
+                }
+            } else {
+                arcoActual[v] = a + 1;
+            }
+        }
+    }
+
+    private void empujar(int arco, int v, int w, int delta) {
+        red.residual[arco] -= delta;
+        red.residual[red.pareja[arco]] += delta;
+        exceso[v] -= delta;
+        exceso[w] += delta;
+    }
+
+    private void reetiquetar(int v) {
+        reetiquetados++;
+        int vieja = altura[v];
+        int nueva = limite;
+        for (int a = red.inicio[v], fin = red.inicio[v + 1]; a < fin; a++) {
+            if (red.residual[a] > 0) {
+                nueva = Math.min(nueva, altura[red.cabeza[a]] + 1);
+            }
+        }
+        quitarNodo(v, vieja);
+        arcoActual[v] = red.inicio[v];
+
+        if (conGap && primerNodo[vieja] == -1) {
+            // Gap en 'vieja': nada por encima puede llegar al sumidero
+            for (int h = vieja + 1; h <= alturaMaxNodo; h++) {
+                for (int u = primerNodo[h]; u != -1; u = siguienteNodo[u]) {
+                    altura[u] = limite;
+                }
+                primerNodo[h] = -1;
+                primerActivo[h] = -1;
+            }
+            alturaMaxNodo = vieja - 1;
+            altura[v] = limite;
+            return;
+        }
+
+        altura[v] = Math.min(nueva, limite);
+        if (altura[v] < limite) {
+            agregarNodo(v);
+        }
+    }
+
+    /**
+     * Alturas exactas: distancia en la red residual hasta el sumidero (limite si no
+     * lo alcanza). El nodo fijo queda en limite. Reconstruye las listas por altura.
+     */
+    private void reetiquetarGlobal(int sumidero, int fijo) {
+        reetiquetados = 0;
+        Arrays.fill(altura, limite);
+        Arrays.fill(primerActivo, -1);
+        Arrays.fill(primerNodo, -1);
+        alturaMaxActiva = -1;
+        alturaMaxNodo = -1;
+
+        int cabezaCola = 0, finCola = 0;
+        cola[finCola++] = sumidero;
+        altura[sumidero] = 0;
+        while (cabezaCola < finCola) {
+            int v = cola[cabezaCola++];
+            for (int a = red.inicio[v], fin = red.inicio[v + 1]; a < fin; a++) {
+                int u = red.cabeza[a];
+                // u → v tiene residual si el arco inverso (pareja) lo tiene
+                if (u != fijo && altura[u] == limite && red.residual[red.pareja[a]] > 0) {
+                    altura[u] = altura[v] + 1;
+                    cola[finCola++] = u;
+                }
+            }
+        }
+
+        for (int v = 0; v < n; v++) {
+            arcoActual[v] = red.inicio[v];
+            if (v == fijo || altura[v] >= limite) continue;
+            agregarNodo(v);
+            if (v != sumidero && exceso[v] > 0) {
+                activar(v);
+            }
+        }
+    }
+
+    private void activar(int v) {
+        int h = altura[v];
+        if (h >= limite) return;
+        siguienteActivo[v] = primerActivo[h];
+        primerActivo[h] = v;
+        if (h > alturaMaxActiva) alturaMaxActiva = h;
+    }
+
+    private void agregarNodo(int v) {
+        int h = altura[v];
+        int primero = primerNodo[h];
+        siguienteNodo[v] = primero;
+        anteriorNodo[v] = -1;
+        if (primero != -1) anteriorNodo[primero] = v;
+        primerNodo[h] = v;
+        if (h > alturaMaxNodo) alturaMaxNodo = h;
+    }
+
+    private void quitarNodo(int v, int h) {
+        if (h >= limite) return;
+        int anterior = anteriorNodo[v];
+        int siguiente = siguienteNodo[v];
+        if (anterior != -1) {
+            siguienteNodo[anterior] = siguiente;
+        } else {
+            primerNodo[h] = siguiente;
+        }
+        if (siguiente != -1) anteriorNodo[siguiente] = anterior;
+    }
+}
@@ -0,0 +1,188 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.util.CompactGraph;
+
+/**
+ * Red residual en formato CSR para los algoritmos de flujo.
+ *
+ * Cada arista u→v del grafo genera dos arcos: el de avance (capacidad original)
+ * y su pareja de retroceso v→u (capacidad 0). Los arcos de cada nodo son contiguos
+ * en [inicio[u], inicio[u+1]) y pareja[a] da el arco inverso de a, de modo que
+ * aumentar flujo es una resta y una suma sobre el arreglo residual.
+ *
+ * La estructura de arcos depende solo de la topología; las capacidades se pueden
+ * recargar desde cualquier grafo con la misma estructura CSR, lo que permite
+ * reutilizar la red entre consultas (ver ResidualNetworkPool). Una instancia es
+ * estado mutable de una sola consulta a la vez.
+ *
+ * Con superNodos, la red agrega un superorigen (n) y un supersumidero (n + 1) con
+ * un arco reservado superorigen→v y otro v→supersumidero para cada nodo, todos con
+ * capacidad 0. Una consulta con varios orígenes y destinos solo abre los arcos de
+ * sus estaciones (abrirOrigen/abrirDestino); el grafo no se copia ni se modifica.
+ */
+final class ResidualNetwork {
+
+    final int numNodos;
+    final int[] inicio;     // offsets por nodo (n + 1)
+    final int[] cabeza;     // nodo destino de cada arco
+    final int[] pareja;     // arco inverso
+    final int[] capacidad;  // capacidad original (0 en retroceso, salvo en la red no dirigida)
+    final int[] residual;   // capacidad residual actual
+    final int[] arcoAvance; // arco de avance de cada arista del grafo
+
+    // Superorigen y supersumidero (-1 sin superNodos) y sus arcos reservados por nodo
+    final int superOrigen;
+    final int superSumidero;
+    private final int[] arcoDesdeSuperOrigen;
+    private final int[] arcoHaciaSuperSumidero;
+    private final CompactGraph estructura;
+
+    // Arreglos auxiliares de push-relabel, creados en el primer uso y reutilizados con la red
+    PushRelabel pushRelabel;
+
+    ResidualNetwork(CompactGraph grafo) {
+        this(grafo, false);
+    }
+
+    ResidualNetwork(CompactGraph grafo, boolean superNodos) {
+        int n = grafo.getNumNodos();
+        int m = grafo.getNumAristas();
+        int numArcos = 2 * m + (superNodos ? 4 * n : 0);
+        this.numNodos = superNodos ? n + 2 : n;
+        this.inicio = new int[numNodos + 1];
+        this.cabeza = new int[numArcos];
+        this.pareja = new int[numArcos];
+        this.capacidad = new int[numArcos];
+        this.residual = new int[numArcos];
+        this.arcoAvance = new int[m];
+        this.superOrigen = superNodos ? n : -1;
+        this.superSumidero = superNodos ? n + 1 : -1;
+        this.arcoDesdeSuperOrigen = superNodos ? new int[n] : null;
+        this.arcoHaciaSuperSumidero = superNodos ? new int[n] : null;
+        this.estructura = grafo;
+
+        // Cada arista aporta un arco al origen y otro al destino
+        for (int u = 0; u < n; u++) {
+            for (int e = grafo.inicioAristas(u), fin = grafo.finAristas(u); e < fin; e++) {
+                inicio[u + 1]++;
+                inicio[grafo.destino(e) + 1]++;
+            }
+        }
+        if (superNodos) {
+            // Cada nodo: retroceso del arco desde el superorigen y avance hacia el supersumidero
+            for (int u = 0; u < n; u++) {
+                inicio[u + 1] += 2;
+            }
+            inicio[superOrigen + 1] = n;
+            inicio[superSumidero + 1] = n;
+        }
+        for (int u = 0; u < numNodos; u++) {
+            inicio[u + 1] += inicio[u];
+        }
+
+        int[] cursor = new int[numNodos];
+        System.arraycopy(inicio, 0, cursor, 0, numNodos);
+        for (int u = 0; u < n; u++) {
+            for (int e = grafo.inicioAristas(u), fin = grafo.finAristas(u); e < fin; e++) {
+                int v = grafo.destino(e);
+                int avance = cursor[u]++;
+                int retroceso = cursor[v]++;
+                cabeza[avance] = v;
+                cabeza[retroceso] = u;
+                pareja[avance] = retroceso;
+                pareja[retroceso] = avance;
+                arcoAvance[e] = avance;
+            }
+        }
+        if (superNodos) {
+            for (int v = 0; v < n; v++) {
+                arcoDesdeSuperOrigen[v] = enlazar(cursor[superOrigen]++, cursor[v]++, superOrigen, v);
+                arcoHaciaSuperSumidero[v] = enlazar(cursor[v]++, cursor[superSumidero]++, v, superSumidero);
+            }
+        }
+        cargarCapacidades(grafo);
+    }
+
+    /** Une el arco de avance u→v con su retroceso y devuelve el de avance. */
+    private int enlazar(int avance, int retroceso, int u, int v) {
+        cabeza[avance] = v;
+        cabeza[retroceso] = u;
+        pareja[avance] = retroceso;
+        pareja[retroceso] = avance;
+        return avance;
+    }
+
+    /** true si la red se puede recargar con las capacidades de este grafo. */
+    boolean admite(CompactGraph grafo) {
+        return estructura.mismaEstructura(grafo);
+    }
+
+    boolean tieneSuperNodos() {
+        return superOrigen >= 0;
+    }
+
+    /**
+     * Toma las capacidades del grafo (misma estructura) y deja el flujo en cero.
+     */
+    void cargarCapacidades(CompactGraph grafo) {
+        for (int e = 0; e < arcoAvance.length; e++) {
+            capacidad[arcoAvance[e]] = Math.max(grafo.capacidad(e), 0);
+        }
+        if (tieneSuperNodos()) {
+            for (int v = 0; v < arcoDesdeSuperOrigen.length; v++) {
+                capacidad[arcoDesdeSuperOrigen[v]] = 0;
+                capacidad[arcoHaciaSuperSumidero[v]] = 0;
+            }
+        }
+        reiniciar();
+    }
+
+    /**
+     * Versión no dirigida: cada arista admite su capacidad en ambos sentidos (el arco
+     * de retroceso recibe la misma capacidad que el de avance). Deja el flujo en cero.
+     */
+    void cargarCapacidadesNoDirigidas(CompactGraph grafo) {
+        for (int e = 0; e < arcoAvance.length; e++) {
+            int capacidadArista = Math.max(grafo.capacidad(e), 0);
+            capacidad[arcoAvance[e]] = capacidadArista;
+            capacidad[pareja[arcoAvance[e]]] = capacidadArista;
+        }
+        reiniciar();
+    }
+
+    /**
+     * Conecta v al superorigen con la capacidad total de salida de v: el superorigen
+     * nunca limita el flujo (v no puede emitir más) y el exceso inicial no desborda.
+     */
+    void abrirOrigen(int v) {
+        int salida = 0;
+        for (int a = inicio[v], fin = inicio[v + 1]; a < fin; a++) {
+            salida += capacidad[a];
+        }
+        abrir(arcoDesdeSuperOrigen[v], salida);
+    }
+
+    /** Conecta v al supersumidero con la capacidad total de entrada de v. */
+    void abrirDestino(int v) {
+        int entrada = 0;
+        for (int a = inicio[v], fin = inicio[v + 1]; a < fin; a++) {
+            if (cabeza[a] < superOrigen) entrada += capacidad[pareja[a]];
+        }
+        abrir(arcoHaciaSuperSumidero[v], entrada);
+    }
+
+    private void abrir(int arco, int cantidad) {
+        capacidad[arco] = cantidad;
+        residual[arco] = cantidad;
+    }
+
+    /** Restaura las capacidades residuales a las originales (flujo cero). */
+    void reiniciar() {
+        System.arraycopy(capacidad, 0, residual, 0, capacidad.length);
+    }
+
+    /** Flujo que circula actualmente por un arco de avance. */
+    int flujo(int arco) {
+        return capacidad[arco] - residual[arco];
+    }
+}
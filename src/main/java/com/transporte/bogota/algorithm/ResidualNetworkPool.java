@@ -0,0 +1,50 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.util.CompactGraph;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pool acotado de redes residuales reutilizables.
+ *
+ * Construir la red residual asigna cinco arreglos de 2m enteros; con el pool, una
+ * consulta de flujo toma una red libre de la misma estructura y solo recarga las
+ * capacidades. Cada red está en manos de una sola consulta entre adquirir y liberar,
+ * así que consultas concurrentes nunca comparten estado residual. Las redes de una
+ * instantánea anterior se descartan al encontrarlas. Un pool entrega siempre redes
+ * del mismo tipo (con o sin superNodos).
+ */
+final class ResidualNetworkPool {
+
+    private final ArrayBlockingQueue<ResidualNetwork> libres;
+    private final boolean superNodos;
+
+    ResidualNetworkPool(int maxRetenidas) {
+        this(maxRetenidas, false);
+    }
+
+    ResidualNetworkPool(int maxRetenidas, boolean superNodos) {
+        this.libres = new ArrayBlockingQueue<>(maxRetenidas);
+        this.superNodos = superNodos;
+    }
+
+    /**
+     * Red residual exclusiva para la consulta, con las capacidades del grafo y flujo cero.
+     */
+    ResidualNetwork adquirir(CompactGraph grafo) {
+        ResidualNetwork red;
+        while ((red = libres.poll()) != null) {
+            if (red.admite(grafo)) {
+                red.cargarCapacidades(grafo);
+                return red;
+            }
+            // De otra estructura (instantánea reemplazada): se deja al GC
+        }
+        return new ResidualNetwork(grafo, superNodos);
+    }
+
+    /** Devuelve la red al pool; si está lleno, se descarta. */
+    void liberar(ResidualNetwork red) {
+        libres.offer(red);
+    }
+}
@@ -0,0 +1,288 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.CompactGraph;
+import com.transporte.bogota.util.IntMinQueue;
+import com.transporte.bogota.util.SearchWorkspace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * K caminos más cortos sin ciclos (algoritmo de Yen) sobre la vista CSR.
+ *
+ * El camino i+1 se obtiene desviándose de alguno de los i caminos ya aceptados:
+ * para cada nodo de desvío se fija el prefijo (raíz) del camino, se prohíben los
+ * nodos de la raíz y los siguientes saltos que ya usaron los caminos aceptados con
+ * esa misma raíz, y se busca el tramo restante con Dijkstra. De todos los candidatos
+ * se acepta el más barato.
+ *
+ * Optimizaciones:
+ * - Los caminos aceptados forman un árbol de prefijos compartido: cada raíz existe
+ *   una sola vez y sus hijos son exactamente los saltos prohibidos para ese desvío,
+ *   sin recorrer la lista de caminos. El costo de la raíz se copia del camino base.
+ * - Solo se desvía desde el punto en que el camino se separó de su padre (Lawler);
+ *   los desvíos anteriores ya se exploraron al generar el padre.
+ * - Los tramos de desvío son A* con la distancia exacta al destino en la red sin
+ *   restricciones (un Dijkstra inverso por consulta). Prohibir nodos y aristas solo
+ *   alarga caminos, así que la cota sigue siendo admisible y consistente.
+ */
+public final class YenKShortestPaths {
+
+    private static final Logger logger = LoggerFactory.getLogger(YenKShortestPaths.class);
+
+    private YenKShortestPaths() {
+    }
+
+    /**
+     * Calcula hasta k caminos sin ciclos de origen a destino, en orden de costo no decreciente.
+     *
+     * @return Lista de rutas (vacía si no existe camino); el primer elemento es el camino mínimo
+     */
+    public static List<RutaAlternativa> calcular(CompactGraph grafo, Estacion origen, Estacion destino, int k) {
+        if (origen == null || destino == null || grafo == null) {
+            throw new IllegalArgumentException("Grafo, origen y destino no pueden ser null");
+        }
+        int s = grafo.indice(origen);
+        int t = grafo.indice(destino);
+        if (s < 0 || t < 0 || k <= 0) {
+            return Collections.emptyList();
+        }
+
+        long inicio = System.currentTimeMillis();
+
+        // Cota exacta hacia el destino: distancia mínima a t ignorando las prohibiciones
+        int[] hastaDestino = Dijkstra.calcularDistancias(grafo, t, true);
+        if (hastaDestino[s] == SearchWorkspace.INFINITO) {
+            logger.info("Yen: no existe camino de {} a {}", origen, destino);
+            return Collections.emptyList();
+        }
+
+        List<Camino> aceptados = new ArrayList<>();
+        PriorityQueue<Camino> candidatos = new PriorityQueue<>(
+                Comparator.comparingInt((Camino c) -> c.costo).thenComparingInt(c -> c.nodos.length));
+        Set<Camino> vistos = new HashSet<>();
+        NodoPrefijo raizArbol = new NodoPrefijo();
+
+        int[] primerTramo = buscarTramo(grafo, s, t, 0, hastaDestino, null, null);
+        Camino primero = Camino.unir(grafo, null, 0, primerTramo);
+        primero.desviacion = 0;
+        candidatos.add(primero);
+        vistos.add(primero);
+
+        int busquedas = 1;
+        while (aceptados.size() < k && !candidatos.isEmpty()) {
+            Camino actual = candidatos.poll();
+            aceptados.add(actual);
+            NodoPrefijo[] prefijos = raizArbol.insertar(actual);
+            if (aceptados.size() == k) break;
+
+            // Desvíos desde cada nodo del camino a partir de donde se separó de su padre
+            for (int j = actual.desviacion; j < actual.nodos.length - 1; j++) {
+                NodoPrefijo raiz = prefijos[j];
+                int[] tramo = buscarTramo(grafo, actual.nodos[j], t, j, hastaDestino, actual.nodos, raiz);
+                busquedas++;
+                if (tramo == null) continue;
+
+                Camino candidato = Camino.unir(grafo, actual, j, tramo);
+                candidato.desviacion = j;
+                if (vistos.add(candidato)) {
+                    candidatos.add(candidato);
+                }
+            }
+        }
+
+        List<RutaAlternativa> rutas = new ArrayList<>(aceptados.size());
+        for (int i = 0; i < aceptados.size(); i++) {
+            Camino c = aceptados.get(i);
+            List<Estacion> estaciones = new ArrayList<>(c.nodos.length);
+            for (int v : c.nodos) {
+                estaciones.add(grafo.getEstacion(v));
+            }
+            rutas.add(new RutaAlternativa(estaciones, c.costo, i + 1));
+        }
+
+        logger.info("Yen: {} rutas de {} a {} en {} ms ({} búsquedas de desvío)",
+                rutas.size(), origen, destino, System.currentTimeMillis() - inicio, busquedas);
+        return rutas;
+    }
+
+    /**
+     * Tramo más corto desde el nodo de desvío hasta t evitando los nodos de la raíz
+     * (posiciones 0..j-1 del camino) y los saltos hijos de la raíz en el árbol de prefijos.
+     *
+     * @return Nodos del tramo de desvío a t, ambos incluidos, o null si no hay camino
+     */
+    private static int[] buscarTramo(CompactGraph grafo, int desvio, int t, int j, int[] hastaDestino,
+                                     int[] caminoBase, NodoPrefijo raiz) {
+        SearchWorkspace ws = SearchWorkspace.actual(grafo.getNumNodos());
+        SearchWorkspace.Lado lado = ws.adelante();
+        SearchWorkspace.Lado prohibidos = ws.atras();
+
+        for (int i = 0; i < j; i++) {
+            prohibidos.asentar(caminoBase[i]);
+        }
+
+        IntMinQueue cola = Dijkstra.crearCola(lado, grafo, true);
+        lado.actualizar(desvio, 0, -1);
+        cola.offer(desvio, hastaDestino[desvio]);
+
+        while (!cola.isEmpty()) {
+            int actual = cola.poll();
+            if (lado.asentado(actual)) continue;
+            lado.asentar(actual);
+
+            if (actual == t) {
+                int longitud = 1;
+                for (int v = t; v != desvio; v = lado.predecesor(v)) longitud++;
+                int[] tramo = new int[longitud];
+                for (int v = t, i = longitud - 1; i >= 0; v = lado.predecesor(v), i--) {
+                    tramo[i] = v;
+                }
+                return tramo;
+            }
+
+            boolean enDesvio = actual == desvio && raiz != null;
+            int distActual = lado.distancia(actual);
+            for (int e = grafo.inicioAristas(actual), fin = grafo.finAristas(actual); e < fin; e++) {
+                int vecino = grafo.destino(e);
+                if (lado.asentado(vecino) || prohibidos.asentado(vecino)) continue;
+                if (hastaDestino[vecino] == SearchWorkspace.INFINITO) continue; // No llega a t
+                if (enDesvio && raiz.tieneHijo(vecino)) continue;
+
+                int candidata = distActual + grafo.tiempo(e);
+                if (candidata < lado.distancia(vecino)) {
+                    lado.actualizar(vecino, candidata, actual);
+                    cola.offer(vecino, candidata + hastaDestino[vecino]);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Costo mínimo de la arista u→v (puede haber varias rutas entre dos estaciones).
+     */
+    private static int tiempoArista(CompactGraph grafo, int u, int v) {
+        int mejor = Integer.MAX_VALUE;
+        for (int e = grafo.inicioAristas(u), fin = grafo.finAristas(u); e < fin; e++) {
+            if (grafo.destino(e) == v && grafo.tiempo(e) < mejor) {
+                mejor = grafo.tiempo(e);
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * Camino candidato o aceptado: nodos por ordinal y costo acumulado por posición.
+     */
+    private static final class Camino {
+        final int[] nodos;
+        final int[] acumulado;
+        final int costo;
+        final int hash;
+        int desviacion; // posición desde la que se generó (solo se desvía a partir de aquí)
+
+        private Camino(int[] nodos, int[] acumulado) {
+            this.nodos = nodos;
+            this.acumulado = acumulado;
+            this.costo = acumulado[acumulado.length - 1];
+            this.hash = Arrays.hashCode(nodos);
+        }
+
+        /** Raíz base[0..j] (reutilizando sus costos acumulados) seguida del tramo desde base[j]. */
+        static Camino unir(CompactGraph grafo, Camino base, int j, int[] tramo) {
+            int[] nodos = new int[j + tramo.length];
+            int[] acumulado = new int[nodos.length];
+            if (base != null) {
+                System.arraycopy(base.nodos, 0, nodos, 0, j);
+                System.arraycopy(base.acumulado, 0, acumulado, 0, j + 1);
+            }
+            System.arraycopy(tramo, 0, nodos, j, tramo.length);
+            for (int i = j + 1; i < nodos.length; i++) {
+                acumulado[i] = acumulado[i - 1] + tiempoArista(grafo, nodos[i - 1], nodos[i]);
+            }
+            return new Camino(nodos, acumulado);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Camino && Arrays.equals(nodos, ((Camino) o).nodos);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Nodo del árbol de prefijos de los caminos aceptados. Los hijos de un prefijo son
+     * los saltos que ya tomó algún camino aceptado con esa raíz.
+     */
+    private static final class NodoPrefijo {
+        private int[] claves = new int[0];
+        private NodoPrefijo[] hijos = new NodoPrefijo[0];
+
+        boolean tieneHijo(int v) {
+            return indiceHijo(v) >= 0;
+        }
+
+        private int indiceHijo(int v) {
+            for (int i = 0; i < claves.length; i++) {
+                if (claves[i] == v) return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Inserta el camino (que empieza en este nodo) y devuelve el nodo del árbol
+         * correspondiente a cada posición; los prefijos ya presentes se comparten.
+         */
+        NodoPrefijo[] insertar(Camino camino) {
+            NodoPrefijo[] ruta = new NodoPrefijo[camino.nodos.length];
+            NodoPrefijo actual = this;
+            ruta[0] = actual;
+            for (int i = 1; i < camino.nodos.length; i++) {
+                int v = camino.nodos[i];
+                int idx = actual.indiceHijo(v);
+                if (idx < 0) {
+                    idx = actual.claves.length;
+                    actual.claves = Arrays.copyOf(actual.claves, idx + 1);
+                    actual.hijos = Arrays.copyOf(actual.hijos, idx + 1);
+                    actual.claves[idx] = v;
+                    actual.hijos[idx] = new NodoPrefijo();
+                }
+                actual = actual.hijos[idx];
+                ruta[i] = actual;
+            }
+            return ruta;
+        }
+    }
+
+    /**
+     * Clase para representar una ruta alternativa con su costo.
+     */
+    public static class RutaAlternativa {
+        public final List<Estacion> camino;
+        public final double costoTotal;
+        public final int numeroRuta;
+
+        public RutaAlternativa(List<Estacion> camino, double costoTotal, int numeroRuta) {
+            this.camino = camino;
+            this.costoTotal = costoTotal;
+            this.numeroRuta = numeroRuta;
+        }
+
+        public int getNumeroEstaciones() {
+            return camino.size();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Ruta #%d: %.1f min, %d estaciones",
+                               numeroRuta, costoTotal, camino.size());
+        }
+    }
+}
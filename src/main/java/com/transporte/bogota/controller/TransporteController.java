@@ -1,5 +1,6 @@
 package com.transporte.bogota.controller;
 
+import com.transporte.bogota.algorithm.Dijkstra;
 import com.transporte.bogota.model.Estacion;
 import com.transporte.bogota.service.TransporteService;
 import com.transporte.bogota.service.CongestionAnalysisService;
@@ -123,14 +124,19 @@ public class TransporteController {
 
     /**
      * Calcula la ruta óptima (tiempo mínimo) entre dos estaciones usando Dijkstra.
-     * http://localhost:8080/api/transporte/ruta-optima?origenId=E001&destinoId=E005
+     * El parámetro opcional algoritmo selecciona la búsqueda: ch (por defecto, Contraction
+     * Hierarchies precalculadas), dijkstra, astar, alt (landmarks) o bidireccional.
+     * La respuesta incluye nodosExplorados para comparar el espacio de búsqueda.
+     * http://localhost:8080/api/transporte/ruta-optima?origenId=E001&destinoId=E005&algoritmo=astar
      */
     @GetMapping("/ruta-optima")
     public ResponseEntity<?> calcularRutaOptima(
             @RequestParam String origenId, 
-            @RequestParam String destinoId) {
+            @RequestParam String destinoId,
+            @RequestParam(required = false, defaultValue = "ch") String algoritmo) {
         try {
-            Map<String, Object> resultado = transporteService.calcularRutaOptima(origenId, destinoId);
+            Map<String, Object> resultado = transporteService.calcularRutaOptima(
+                    origenId, destinoId, parsearAlgoritmo(algoritmo));
             return ResponseEntity.ok(resultado);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -139,6 +145,128 @@ public class TransporteController {
         }
     }
 
+    /**
+     * Traduce el parámetro de consulta al algoritmo de búsqueda.
+     */
+    private Dijkstra.Algoritmo parsearAlgoritmo(String algoritmo) {
+        switch (algoritmo.trim().toLowerCase()) {
+            case "dijkstra":
+                return Dijkstra.Algoritmo.DIJKSTRA;
+            case "astar":
+            case "a*":
+            case "a_estrella":
+                return Dijkstra.Algoritmo.A_ESTRELLA;
+            case "ch":
+                return Dijkstra.Algoritmo.CH;
+            case "alt":
+                return Dijkstra.Algoritmo.ALT;
+            case "bidireccional":
+            case "bidirectional":
+                return Dijkstra.Algoritmo.BIDIRECCIONAL;
+            default:
+                throw new IllegalArgumentException("Algoritmo no soportado: " + algoritmo);
+        }
+    }
+
+    // =========================================================================
+    // ENDPOINT DE MATRIZ ORIGEN-DESTINO
+    // =========================================================================
+
+    /**
+     * Matriz de tiempos mínimos (minutos) entre listas de estaciones.
+     * Cuerpo: {"origenes": ["TM02000", ...], "destinos": ["TM07000", ...]}
+     * Respuesta: tiempos[i][j] del origen i al destino j, -1 si no hay camino.
+     * POST http://localhost:8080/api/transporte/matriz
+     */
+    @PostMapping("/matriz")
+    public ResponseEntity<?> calcularMatriz(@RequestBody Map<String, List<String>> cuerpo) {
+        try {
+            Map<String, Object> resultado = transporteService.calcularMatrizTiempos(
+                    cuerpo.get("origenes"), cuerpo.get("destinos"));
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error interno al calcular la matriz: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Capacidad de un corredor entre dos conjuntos de estaciones (flujo máximo con
+     * varios orígenes y destinos) y los tramos del corte mínimo que la limitan.
+     * Cuerpo: {"origenes": ["TM02000", ...], "destinos": ["TM07000", ...]}
+     * o con cajas: {"cajaOrigen": {"latMin": 4.74, "lonMin": -74.10, "latMax": 4.78, "lonMax": -74.02},
+     *               "cajaDestino": {...}}
+     * POST http://localhost:8080/api/transporte/capacidad-corredor
+     */
+    @PostMapping("/capacidad-corredor")
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<?> calcularCapacidadCorredor(@RequestBody Map<String, Object> cuerpo) {
+        try {
+            Map<String, Object> resultado = transporteService.calcularCapacidadCorredor(
+                    (List<String>) cuerpo.get("origenes"), leerCaja(cuerpo.get("cajaOrigen")),
+                    (List<String>) cuerpo.get("destinos"), leerCaja(cuerpo.get("cajaDestino")));
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return ResponseEntity.badRequest().body("Solicitud inválida: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error interno al calcular la capacidad: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Asigna una matriz de demanda a la red con flujo de costo mínimo y devuelve la
+     * carga de pasajeros y la utilización de cada tramo.
+     * Cuerpo: {"viajes": [{"origen": "TM02000", "destino": "TM07000", "volumen": 3000}, ...]}
+     * POST http://localhost:8080/api/transporte/asignacion-demanda
+     */
+    @PostMapping("/asignacion-demanda")
+    public ResponseEntity<?> asignarDemanda(@RequestBody Map<String, List<Map<String, Object>>> cuerpo) {
+        try {
+            List<Map<String, Object>> viajes = cuerpo.get("viajes");
+            if (viajes == null) {
+                throw new IllegalArgumentException("Se requiere la lista de viajes");
+            }
+            List<String> origenes = new ArrayList<>();
+            List<String> destinos = new ArrayList<>();
+            List<Integer> volumenes = new ArrayList<>();
+            for (Map<String, Object> viaje : viajes) {
+                if (!(viaje.get("volumen") instanceof Number)) {
+                    throw new IllegalArgumentException("Cada viaje requiere un volumen numérico");
+                }
+                origenes.add((String) viaje.get("origen"));
+                destinos.add((String) viaje.get("destino"));
+                volumenes.add(((Number) viaje.get("volumen")).intValue());
+            }
+            return ResponseEntity.ok(transporteService.asignarDemanda(origenes, destinos, volumenes));
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return ResponseEntity.badRequest().body("Solicitud inválida: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error interno al asignar la demanda: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Convierte {"latMin", "lonMin", "latMax", "lonMax"} en un arreglo en ese orden (null si no viene).
+     */
+    private double[] leerCaja(Object valor) {
+        if (valor == null) return null;
+        if (!(valor instanceof Map)) {
+            throw new IllegalArgumentException("La caja debe ser un objeto con latMin, lonMin, latMax y lonMax");
+        }
+        Map<?, ?> caja = (Map<?, ?>) valor;
+        String[] claves = {"latMin", "lonMin", "latMax", "lonMax"};
+        double[] limites = new double[claves.length];
+        for (int i = 0; i < claves.length; i++) {
+            Object limite = caja.get(claves[i]);
+            if (!(limite instanceof Number)) {
+                throw new IllegalArgumentException("Falta el límite numérico " + claves[i] + " de la caja");
+            }
+            limites[i] = ((Number) limite).doubleValue();
+        }
+        return limites;
+    }
+
     // =========================================================================
     // ENDPOINT DE RESULTADOS DE ANÁLISIS (Reporte de Optimización)
     // =========================================================================
@@ -192,11 +320,10 @@ public class TransporteController {
             }
 
             // Realizar análisis de congestión
-            // IMPORTANTE: NO usar grafo completo (7849 nodos causa OOM)
-            // Usar grafo lazy que solo carga nodos relevantes
+            // Usar la instantánea compartida de la red completa (no se construye grafo por petición)
             CongestionAnalysisService.AnalisisCongestion analisis =
                 congestionService.analizarCongestion(
-                    transporteService.construirGrafoLazy(origen, destino),
+                    transporteService.getGrafoCompleto(),
                     origen,
                     destino
                 );
@@ -215,6 +342,9 @@ public class TransporteController {
             ));
             respuesta.put("flujoNormal", analisis.flujoNormal);
             respuesta.put("flujoHoraPico", analisis.flujoHoraPico);
+            if (analisis.corteMinimoNoDirigido != null) {
+                respuesta.put("corteMinimoNoDirigido", analisis.corteMinimoNoDirigido);
+            }
             respuesta.put("porcentajeReduccion", Math.round(analisis.porcentajeReduccion * 100) / 100.0);
             respuesta.put("nivelCongestion", Map.of(
                 "nivel", analisis.nivelCongestion.nombre,
@@ -234,7 +364,7 @@ public class TransporteController {
                     ),
                     "capacidadTotal", cuello.capacidadTotal,
                     "flujoActual", cuello.flujoActual,
-                    "porcentajeUso", Math.round(cuello.porcentajeUso * 100) / 100.0,
+                    "porcentajeDelCorte", Math.round(cuello.porcentajeDelCorte * 100) / 100.0,
                     "latitudOrigen", cuello.origen.getLatitud(),
                     "longitudOrigen", cuello.origen.getLongitud(),
                     "latitudDestino", cuello.destino.getLatitud(),
@@ -274,13 +404,42 @@ public class TransporteController {
         }
     }
 
+    /**
+     * Corte mínimo (capacidad de la red en ambos sentidos) entre dos estaciones,
+     * leído del árbol de Gomory-Hu precalculado: no ejecuta ningún flujo.
+     * Responde 503 mientras el árbol se construye.
+     * http://localhost:8080/api/transporte/corte-minimo?origenId=TM02000&destinoId=TM07000
+     */
+    @GetMapping("/corte-minimo")
+    public ResponseEntity<?> consultarCorteMinimo(
+            @RequestParam String origenId,
+            @RequestParam String destinoId) {
+        Estacion origen = transporteService.getEstacionPorId(origenId);
+        Estacion destino = transporteService.getEstacionPorId(destinoId);
+        if (origen == null || destino == null) {
+            return ResponseEntity.badRequest().body("Estación no encontrada");
+        }
+        if (origen.equals(destino)) {
+            return ResponseEntity.badRequest().body("Origen y destino deben ser distintos");
+        }
+
+        Integer corte = congestionService.consultarCorteMinimo(origen, destino);
+        if (corte == null) {
+            return ResponseEntity.status(503).body("El árbol de cortes aún se está construyendo");
+        }
+        return ResponseEntity.ok(Map.of(
+            "origenId", origenId,
+            "destinoId", destinoId,
+            "corteMinimo", corte
+        ));
+    }
+
     // =========================================================================
-    // ENDPOINT DE RUTAS ALTERNATIVAS CON BELLMAN-FORD
+    // ENDPOINT DE RUTAS ALTERNATIVAS (K CAMINOS MÁS CORTOS DE YEN)
     // =========================================================================
 
     /**
-     * Encuentra rutas alternativas considerando congestión usando Bellman-Ford.
-     * Este algoritmo penaliza rutas con baja capacidad y encuentra alternativas óptimas.
+     * Encuentra las K rutas más cortas sin ciclos (Yen) y las evalúa por congestión.
      * http://localhost:8080/api/transporte/rutas-alternativas?origenId=E013&destinoId=TM002&numRutas=3
      */
     @GetMapping("/rutas-alternativas")
@@ -291,7 +450,7 @@ public class TransporteController {
         try {
             // Validar número de rutas
             if (numRutas < 1) numRutas = 1;
-            if (numRutas > 5) numRutas = 5; // Máximo 5 rutas
+            if (numRutas > 20) numRutas = 20; // Limita el tamaño de la respuesta, no la latencia
 
             // Obtener estaciones
             Estacion origen = transporteService.getEstacionPorId(origenId);
@@ -301,12 +460,11 @@ public class TransporteController {
                 return ResponseEntity.badRequest().body("Estación no encontrada");
             }
 
-            // Analizar rutas alternativas con Bellman-Ford
-            // IMPORTANTE: NO usar grafo completo (7849 nodos causa OOM)
-            // Usar grafo lazy que solo carga nodos relevantes
+            // Analizar rutas alternativas (Yen)
+            // Usar la instantánea compartida de la red completa (no se construye grafo por petición)
             CongestionAnalysisService.AnalisisRutasAlternativas analisis =
                 congestionService.analizarRutasAlternativas(
-                    transporteService.construirGrafoLazy(origen, destino),
+                    transporteService.getGrafoCompleto(),
                     origen,
                     destino,
                     numRutas
@@ -15,6 +15,7 @@ import org.springframework.stereotype.Repository;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
@@ -52,7 +53,7 @@ public class CSVDataLoader {
         String archivo = dataPath + "/estaciones_completo.csv.backup";
         logger.info("Cargando estaciones desde: {}", archivo);
 
-        try (Reader reader = new FileReader(archivo);
+        try (Reader reader = new FileReader(archivo, StandardCharsets.UTF_8);
              CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT
                      .withFirstRecordAsHeader()
                      .withIgnoreHeaderCase()
@@ -78,7 +79,7 @@ public class CSVDataLoader {
         String archivo = dataPath + "/rutas_generadas.csv";
         logger.info("Cargando rutas desde: {}", archivo);
 
-        try (Reader reader = new FileReader(archivo);
+        try (Reader reader = new FileReader(archivo, StandardCharsets.UTF_8);
              CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT
                      .withFirstRecordAsHeader()
                      .withIgnoreHeaderCase()
@@ -113,7 +114,7 @@ public class CSVDataLoader {
         String archivo = dataPath + "/lineas.csv";
         logger.info("Cargando líneas desde: {}", archivo);
 
-        try (Reader reader = new FileReader(archivo);
+        try (Reader reader = new FileReader(archivo, StandardCharsets.UTF_8);
              CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT
                      .withFirstRecordAsHeader()
                      .withIgnoreHeaderCase()
@@ -1,56 +1,143 @@
 package com.transporte.bogota.service;
 
-import com.transporte.bogota.algorithm.BellmanFord;
+import com.transporte.bogota.algorithm.GomoryHuTree;
 import com.transporte.bogota.algorithm.MaxFlow;
+import com.transporte.bogota.algorithm.YenKShortestPaths;
 import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.CompactGraph;
 import com.transporte.bogota.util.Graph;
 import com.transporte.bogota.util.GraphEdge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * Servicio para analizar congestión en horas pico usando algoritmos de flujo máximo
- * y Bellman-Ford para identificar rutas alternativas.
+ * y K caminos más cortos (Yen) para identificar rutas alternativas.
  *
  * Estrategias implementadas:
- * 1. Flujo Máximo (Edmonds-Karp): Calcula capacidad de la red
- * 2. Bellman-Ford: Encuentra rutas alternativas considerando congestión
+ * 1. Flujo Máximo (Dinic): Calcula capacidad de la red
+ * 2. Yen: Encuentra rutas alternativas sin ciclos en orden de tiempo
  * 3. Detección de cuellos de botella
  * 4. Análisis de impacto en hora pico
+ * 5. Árbol de Gomory-Hu: corte mínimo de cualquier par sin recalcular flujos
+ *
+ * El árbol de cortes se construye en segundo plano al arrancar (y de nuevo si se
+ * publica otra instantánea); mientras no esté listo, las consultas lo omiten.
  */
 @Service
 public class CongestionAnalysisService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CongestionAnalysisService.class);
+
+    private final GraphSnapshotService snapshotService;
+
+    // Un solo hilo coordina la construcción; los flujos corren en su propio pool
+    private final ExecutorService constructorArbol = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "arbol-cortes");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final AtomicReference<ConstruccionArbol> arbol = new AtomicReference<>();
+
+    public CongestionAnalysisService(GraphSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void programarArbolCortes() {
+        getArbolCortes();
+    }
+
+    /**
+     * Árbol de cortes de la instantánea vigente, o null mientras se construye. Si la
+     * instantánea cambió desde la última construcción, programa una nueva.
+     */
+    public GomoryHuTree getArbolCortes() {
+        if (!snapshotService.isDisponible()) return null;
+        CompactGraph grafo = snapshotService.getActual().getCompacto();
+
+        ConstruccionArbol actual = arbol.get();
+        if (actual == null || actual.grafo != grafo) {
+            ConstruccionArbol nueva = new ConstruccionArbol(grafo);
+            if (arbol.compareAndSet(actual, nueva)) {
+                int paralelismo = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+                nueva.arbol = CompletableFuture.supplyAsync(
+                        () -> GomoryHuTree.construir(grafo, paralelismo), constructorArbol);
+                nueva.arbol.exceptionally(e -> {
+                    logger.error("No se pudo construir el árbol de cortes", e);
+                    return null;
+                });
+            }
+            actual = arbol.get();
+        }
+        CompletableFuture<GomoryHuTree> futuro = actual.arbol;
+        return futuro != null && futuro.isDone() && !futuro.isCompletedExceptionally() ? futuro.join() : null;
+    }
+
+    /**
+     * Corte mínimo no dirigido entre dos estaciones según el árbol de cortes (una
+     * búsqueda en el árbol, sin flujo). null si el árbol aún no está listo.
+     */
+    public Integer consultarCorteMinimo(Estacion origen, Estacion destino) {
+        GomoryHuTree arbolCortes = getArbolCortes();
+        if (arbolCortes == null) return null;
+        CompactGraph grafo = arbolCortes.getGrafo();
+        int s = grafo.indice(origen);
+        int t = grafo.indice(destino);
+        if (s < 0 || t < 0 || s == t) return null;
+        return arbolCortes.corteMinimo(s, t);
+    }
+
     /**
      * Analiza la congestión entre dos estaciones durante horas pico.
      * Reduce las capacidades al 60% para simular horas pico.
-     * Usa Bellman-Ford para encontrar rutas alternativas.
+     * Usa el algoritmo de Yen para encontrar rutas alternativas.
      */
     public AnalisisCongestion analizarCongestion(Graph grafo, Estacion origen, Estacion destino) {
-        // Crear un grafo simulando horas pico (capacidad reducida)
-        Graph grafoHoraPico = simularHoraPico(grafo, 0.6);
-
-        // Calcular flujo máximo en condiciones normales
-        int flujoNormal = MaxFlow.calcularFlujoMaximo(grafo, origen, destino);
-
-        // Calcular flujo máximo en hora pico
-        int flujoHoraPico = MaxFlow.calcularFlujoMaximo(grafoHoraPico, origen, destino);
+        CompactGraph compacto = grafo.compactar();
+        int s = compacto.indice(origen);
+        int t = compacto.indice(destino);
+
+        // Vista de hora pico (capacidad reducida): comparte la estructura del grafo,
+        // solo se asigna el arreglo de capacidades de esta consulta
+        CompactGraph grafoHoraPico = simularHoraPico(compacto, 0.6);
+
+        // Flujo en hora pico (con su corte mínimo) en otro hilo mientras este
+        // calcula el normal (cada cálculo usa su propia red residual)
+        CompletableFuture<MaxFlow.ResultadoFlujo> flujoPico =
+            CompletableFuture.supplyAsync(() -> MaxFlow.calcularFlujoConCorte(grafoHoraPico, s, t));
+        int flujoNormal = MaxFlow.calcularFlujoMaximo(compacto, s, t);
+        MaxFlow.ResultadoFlujo resultadoPico = flujoPico.join();
+        int flujoHoraPico = resultadoPico.flujoMaximo;
 
         // Calcular porcentaje de reducción
         double porcentajeReduccion = ((double)(flujoNormal - flujoHoraPico) / flujoNormal) * 100;
 
         // Identificar cuellos de botella
-        List<CuelloBotella> cuellos = identificarCuellosBotella(grafoHoraPico, origen, destino);
+        List<CuelloBotella> cuellos = identificarCuellosBotella(grafoHoraPico, resultadoPico);
 
         // Determinar nivel de congestión
         NivelCongestion nivel = determinarNivelCongestion(porcentajeReduccion);
 
-        // Usar Bellman-Ford para encontrar rutas alternativas considerando congestión
-        // OPTIMIZADO: Solo buscar 2 rutas alternativas para reducir carga
-        List<BellmanFord.RutaAlternativa> rutasAlternativas =
-            BellmanFord.encontrarRutasAlternativas(grafoHoraPico, origen, destino, 2);
+        // Corte no dirigido precalculado (si el árbol ya está listo para esta red)
+        GomoryHuTree arbolCortes = getArbolCortes();
+        Integer corteNoDirigido = arbolCortes != null && arbolCortes.getGrafo() == compacto && s >= 0 && t >= 0
+            ? arbolCortes.corteMinimo(s, t) : null;
+
+        // Rutas alternativas con Yen (los tiempos no cambian en hora pico,
+        // así que se busca sobre el grafo original)
+        List<YenKShortestPaths.RutaAlternativa> rutasAlternativas =
+            YenKShortestPaths.calcular(compacto, origen, destino, 2);
 
         // Generar recomendaciones incluyendo rutas alternativas
         List<String> recomendaciones = generarRecomendaciones(nivel, cuellos, flujoHoraPico, rutasAlternativas);
@@ -62,32 +149,25 @@ public class CongestionAnalysisService {
             nivel,
             cuellos,
             recomendaciones,
-            rutasAlternativas
+            rutasAlternativas,
+            corteNoDirigido
         );
     }
 
     /**
-     * Analiza rutas alternativas usando Bellman-Ford con penalizaciones por congestión.
+     * Analiza rutas alternativas: los K caminos más cortos sin ciclos (Yen),
+     * evaluados por congestión y transferencias.
      * Útil para encontrar rutas que eviten zonas congestionadas.
      */
     public AnalisisRutasAlternativas analizarRutasAlternativas(Graph grafo, Estacion origen,
                                                                 Estacion destino, int numRutas) {
-        // Limitar número de rutas para evitar sobrecarga
-        numRutas = Math.min(numRutas, 3);
-
-        // Factor de congestión: 0.5 significa +50% de tiempo en rutas congestionadas
-        double factorCongestion = 0.5;
-
-        // NO ejecutar detección de ciclos negativos (muy costoso)
-        // Ir directamente a buscar rutas alternativas
-
         // Encontrar múltiples rutas alternativas
-        List<BellmanFord.RutaAlternativa> rutas =
-            BellmanFord.encontrarRutasAlternativas(grafo, origen, destino, numRutas);
+        List<YenKShortestPaths.RutaAlternativa> rutas =
+            YenKShortestPaths.calcular(grafo.compactar(), origen, destino, numRutas);
 
         // Analizar cada ruta
         List<AnalisisRuta> analisisRutas = new ArrayList<>();
-        for (BellmanFord.RutaAlternativa ruta : rutas) {
+        for (YenKShortestPaths.RutaAlternativa ruta : rutas) {
             double nivelCongestion = calcularNivelCongestionRuta(grafo, ruta.camino);
             int transferencias = calcularTransferencias(ruta.camino);
 
@@ -180,87 +260,45 @@ public class CongestionAnalysisService {
     /**
      * Simula condiciones de hora pico reduciendo capacidades.
      */
-    private Graph simularHoraPico(Graph grafo, double factorReduccion) {
-        Graph grafoHoraPico = new Graph();
-
-        // Copiar aristas con capacidad reducida
-        for (Estacion origen : grafo.getNodos()) {
-            for (GraphEdge edge : grafo.getVecinos(origen)) {
-                int nuevaCapacidad = (int)(edge.getCapacidad() * factorReduccion);
-                // addArista automáticamente agrega los nodos si no existen
-                grafoHoraPico.addArista(
-                    edge.getOrigen(),
-                    edge.getDestino(),
-                    edge.getTiempo(),
-                    nuevaCapacidad
-                );
-            }
+    private CompactGraph simularHoraPico(CompactGraph grafo, double factorReduccion) {
+        int[] capacidades = new int[grafo.getNumAristas()];
+        for (int e = 0; e < capacidades.length; e++) {
+            capacidades[e] = (int) (grafo.capacidad(e) * factorReduccion);
         }
-
-        return grafoHoraPico;
+        return grafo.conCapacidades(capacidades);
     }
 
     /**
-     * Identifica los cuellos de botella en la red.
-     * Un cuello de botella es una arista con alta demanda y baja capacidad disponible.
+     * Identifica los cuellos de botella en la red: las aristas del corte mínimo s-t
+     * del flujo en hora pico. Están saturadas y su capacidad total es exactamente
+     * el flujo máximo, así que reducir cualquiera de ellas reduce la capacidad. Ampliar
+     * una sola no basta si hay otro corte mínimo (la mejora la limita ese otro corte).
+     *
+     * Como todas van al 100% de uso, cada una se reporta con su parte del flujo
+     * máximo: cuánto del total depende de ese tramo.
      */
-    private List<CuelloBotella> identificarCuellosBotella(Graph grafo, Estacion origen, Estacion destino) {
+    private List<CuelloBotella> identificarCuellosBotella(CompactGraph grafo, MaxFlow.ResultadoFlujo flujo) {
         List<CuelloBotella> cuellos = new ArrayList<>();
 
-        // Analizar todas las aristas en el grafo
-        for (Estacion estacionOrigen : grafo.getNodos()) {
-            for (GraphEdge edge : grafo.getVecinos(estacionOrigen)) {
-                // Calcular el flujo que pasa por esta arista
-                int capacidad = edge.getCapacidad();
-
-                // Si la capacidad es muy baja, es un potencial cuello de botella
-                if (capacidad < 4000) { // Umbral para considerar congestión
-                    double porcentajeUso = calcularPorcentajeUso(grafo, estacionOrigen, edge.getDestino());
-
-                    if (porcentajeUso > 70) { // Más del 70% de uso
-                        cuellos.add(new CuelloBotella(
-                            estacionOrigen,
-                            edge.getDestino(),
-                            capacidad,
-                            (int)(capacidad * porcentajeUso / 100),
-                            porcentajeUso
-                        ));
-                    }
-                }
-            }
+        for (int e : flujo.getAristasCorte()) {
+            int capacidad = grafo.capacidad(e);
+            int flujoArista = flujo.flujo(e);
+            cuellos.add(new CuelloBotella(
+                grafo.getEstacion(grafo.origen(e)),
+                grafo.getEstacion(grafo.destino(e)),
+                capacidad,
+                flujoArista,
+                flujo.flujoMaximo > 0 ? 100.0 * flujoArista / flujo.flujoMaximo : 0.0
+            ));
         }
 
-        // Ordenar por porcentaje de uso (descendente)
-        cuellos.sort((a, b) -> Double.compare(b.porcentajeUso, a.porcentajeUso));
+        // Ordenar por flujo que atraviesa el corte (descendente)
+        cuellos.sort((a, b) -> Integer.compare(b.flujoActual, a.flujoActual));
 
         // Retornar los 5 cuellos de botella más críticos
         return cuellos.stream().limit(5).collect(Collectors.toList());
     }
 
-    /**
-     * Calcula el porcentaje de uso estimado de una arista.
-     * Simulación basada en capacidad relativa.
-     */
-    private double calcularPorcentajeUso(Graph grafo, Estacion origen, Estacion destino) {
-        // Obtener la capacidad de la arista
-        int capacidad = 0;
-        for (GraphEdge edge : grafo.getVecinos(origen)) {
-            if (edge.getDestino().equals(destino)) {
-                capacidad = edge.getCapacidad();
-                break;
-            }
-        }
-
-        if (capacidad == 0) return 0;
-
-        // Estimación: cuanto menor la capacidad, mayor el porcentaje de uso
-        // Capacidad máxima esperada: 8000
-        double factorCapacidad = 1.0 - (capacidad / 8000.0);
-
-        // Porcentaje base + factor de capacidad
-        return 50 + (factorCapacidad * 40); // Entre 50% y 90%
-    }
-
     /**
      * Determina el nivel de congestión basado en la reducción de flujo.
      */
@@ -278,10 +316,10 @@ public class CongestionAnalysisService {
 
     /**
      * Genera recomendaciones basadas en el análisis de congestión.
-     * Incluye rutas alternativas encontradas por Bellman-Ford.
+     * Incluye rutas alternativas encontradas por Yen.
      */
     private List<String> generarRecomendaciones(NivelCongestion nivel, List<CuelloBotella> cuellos,
-                                                 int flujoDisponible, List<BellmanFord.RutaAlternativa> rutasAlternativas) {
+                                                 int flujoDisponible, List<YenKShortestPaths.RutaAlternativa> rutasAlternativas) {
         List<String> recomendaciones = new ArrayList<>();
 
         switch (nivel) {
@@ -316,10 +354,10 @@ public class CongestionAnalysisService {
             recomendaciones.add("🔴 Cuellos de botella identificados:");
             for (int i = 0; i < Math.min(3, cuellos.size()); i++) {
                 CuelloBotella cuello = cuellos.get(i);
-                recomendaciones.add(String.format("   • %s → %s (%.0f%% uso)",
+                recomendaciones.add(String.format("   • %s → %s (%.0f%% del flujo máximo)",
                     cuello.origen.getNombre(),
                     cuello.destino.getNombre(),
-                    cuello.porcentajeUso));
+                    cuello.porcentajeDelCorte));
             }
             recomendaciones.add("💡 Priorizar mejoras en estos segmentos");
         }
@@ -329,11 +367,11 @@ public class CongestionAnalysisService {
             recomendaciones.add("");
             recomendaciones.add("🔄 Rutas alternativas disponibles:");
             for (int i = 1; i < Math.min(3, rutasAlternativas.size()); i++) {
-                BellmanFord.RutaAlternativa ruta = rutasAlternativas.get(i);
+                YenKShortestPaths.RutaAlternativa ruta = rutasAlternativas.get(i);
                 recomendaciones.add(String.format("   Opción %d: %.1f min, %d estaciones",
                     i + 1, ruta.costoTotal, ruta.getNumeroEstaciones()));
             }
-            recomendaciones.add("💡 Usar algoritmo Bellman-Ford para evaluar alternativas");
+            recomendaciones.add("💡 Consultar /rutas-alternativas para evaluar más alternativas");
         }
 
         return recomendaciones;
@@ -341,6 +379,16 @@ public class CongestionAnalysisService {
 
     // ==================== Clases de Datos ====================
 
+    /** Construcción del árbol de cortes para un grafo concreto. */
+    private static final class ConstruccionArbol {
+        final CompactGraph grafo;
+        volatile CompletableFuture<GomoryHuTree> arbol;
+
+        ConstruccionArbol(CompactGraph grafo) {
+            this.grafo = grafo;
+        }
+    }
+
     public static class AnalisisCongestion {
         public final int flujoNormal;
         public final int flujoHoraPico;
@@ -348,11 +396,13 @@ public class CongestionAnalysisService {
         public final NivelCongestion nivelCongestion;
         public final List<CuelloBotella> cuellosBotella;
         public final List<String> recomendaciones;
-        public final List<BellmanFord.RutaAlternativa> rutasAlternativas;
+        public final List<YenKShortestPaths.RutaAlternativa> rutasAlternativas;
+        public final Integer corteMinimoNoDirigido; // del árbol de cortes; null si no está listo
 
         public AnalisisCongestion(int flujoNormal, int flujoHoraPico, double porcentajeReduccion,
                                   NivelCongestion nivel, List<CuelloBotella> cuellosBotella,
-                                  List<String> recomendaciones, List<BellmanFord.RutaAlternativa> rutasAlternativas) {
+                                  List<String> recomendaciones, List<YenKShortestPaths.RutaAlternativa> rutasAlternativas,
+                                  Integer corteMinimoNoDirigido) {
             this.flujoNormal = flujoNormal;
             this.flujoHoraPico = flujoHoraPico;
             this.porcentajeReduccion = porcentajeReduccion;
@@ -360,6 +410,7 @@ public class CongestionAnalysisService {
             this.cuellosBotella = cuellosBotella;
             this.recomendaciones = recomendaciones;
             this.rutasAlternativas = rutasAlternativas;
+            this.corteMinimoNoDirigido = corteMinimoNoDirigido;
         }
     }
 
@@ -379,12 +430,12 @@ public class CongestionAnalysisService {
     }
 
     public static class AnalisisRuta {
-        public final BellmanFord.RutaAlternativa ruta;
+        public final YenKShortestPaths.RutaAlternativa ruta;
         public final double nivelCongestion;
         public final int transferencias;
         public final double puntuacion;
 
-        public AnalisisRuta(BellmanFord.RutaAlternativa ruta, double nivelCongestion,
+        public AnalisisRuta(YenKShortestPaths.RutaAlternativa ruta, double nivelCongestion,
                            int transferencias, double puntuacion) {
             this.ruta = ruta;
             this.nivelCongestion = nivelCongestion;
@@ -404,15 +455,15 @@ public class CongestionAnalysisService {
         public final Estacion destino;
         public final int capacidadTotal;
         public final int flujoActual;
-        public final double porcentajeUso;
+        public final double porcentajeDelCorte; // parte del flujo máximo que cruza este tramo
 
         public CuelloBotella(Estacion origen, Estacion destino, int capacidadTotal,
-                            int flujoActual, double porcentajeUso) {
+                            int flujoActual, double porcentajeDelCorte) {
             this.origen = origen;
             this.destino = destino;
             this.capacidadTotal = capacidadTotal;
             this.flujoActual = flujoActual;
-            this.porcentajeUso = porcentajeUso;
+            this.porcentajeDelCorte = porcentajeDelCorte;
         }
     }
 
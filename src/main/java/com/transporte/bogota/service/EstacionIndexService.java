@@ -1,6 +1,10 @@
 package com.transporte.bogota.service;
 
+import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.AutocompleteIndex;
 import com.transporte.bogota.util.BPlusTree;
+import com.transporte.bogota.util.SymSpellIndex;
+import com.transporte.bogota.util.TextNormalizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -8,11 +12,23 @@ import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
 import java.io.BufferedReader;
 import java.io.FileReader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
  * Servicio de indexación de estaciones usando árboles B+.
  * Carga estaciones SITP en memoria indexadas para búsquedas O(log n).
+ *
+ * TransporteService registra tras la carga todas las estaciones del sistema; las que
+ * no están en el archivo SITP (TM, Metro, Portales, intermodales) quedan como
+ * principales. Principales y SITP comparten un índice de autocompletado con
+ * ranking (buscarRankeado), que resuelve las búsquedas por contención con su índice
+ * de n-gramas, y cada estación aparece una sola vez. Todas se devuelven con el
+ * mismo formato de mapa.
+ *
+ * Claves y consultas se normalizan sin tildes (TextNormalizer), así que "angeles"
+ * encuentra "21 Ángeles". Para errores de tipeo ("Ricuarte") hay índices aproximados
+ * de nombres (SymSpellIndex) que se consultan aparte con buscarAproximado.
  */
 @Service
 public class EstacionIndexService {
@@ -20,9 +36,19 @@ public class EstacionIndexService {
     private static final Logger logger = LoggerFactory.getLogger(EstacionIndexService.class);
     private static final String SITP_FILE = "data/estaciones_sitp.csv";
 
-    // Índices B+ para búsqueda eficiente
-    private BPlusTree<String, Map<String, Object>> indiceNombre;
-    private BPlusTree<String, Map<String, Object>> indiceId;
+    // Índice B+ por ID para búsqueda exacta
+    private BPlusTree<String, Map<String, Object>> indiceId = new BPlusTree<>();
+
+    // Estaciones SITP en orden de ID y sus nombres aproximados (documento i = estación i)
+    private List<Map<String, Object>> estacionesPorId = Collections.emptyList();
+    private SymSpellIndex aproximadoNombre = new SymSpellIndex.Builder().build();
+
+    // Estaciones principales (las del sistema que no están en el archivo SITP)
+    private volatile List<Estacion> principales = Collections.emptyList();
+
+    // Autocompletado: primero las principales y luego las SITP, con su catálogo de resultados
+    private volatile Catalogo catalogo = new Catalogo(Collections.emptyList(),
+            new AutocompleteIndex.Builder().build(), new SymSpellIndex.Builder().build());
 
     // Estadísticas
     private int totalEstacionesIndexadas = 0;
@@ -33,24 +59,29 @@ public class EstacionIndexService {
             logger.info("Iniciando indexación de estaciones SITP...");
             long startTime = System.currentTimeMillis();
 
-            indiceNombre = new BPlusTree<>();
-            indiceId = new BPlusTree<>();
-
             cargarIndices();
 
             long endTime = System.currentTimeMillis();
             logger.info("Indexación completada en {} ms", endTime - startTime);
             logger.info("Total de estaciones indexadas: {}", totalEstacionesIndexadas);
-            logger.info("Índice por nombre: {}", indiceNombre.getStats());
             logger.info("Índice por ID: {}", indiceId.getStats());
+            logger.info("Nombres aproximados: {}", aproximadoNombre.getStats());
+            construirCatalogo();
 
         } catch (Exception e) {
             logger.error("Error al indexar estaciones SITP", e);
         }
     }
 
+    /**
+     * Lee el archivo SITP una sola vez y construye el índice por ID con carga masiva
+     * (las entradas se ordenan por clave) y el índice aproximado de nombres sobre sus
+     * valores: una entrada por estación, aunque dos nombres solo difieran en tildes.
+     */
     private void cargarIndices() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(SITP_FILE))) {
+        List<Map.Entry<String, Map<String, Object>>> porId = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(SITP_FILE, StandardCharsets.UTF_8))) {
             String line;
             reader.readLine(); // Saltar encabezado
 
@@ -72,12 +103,8 @@ public class EstacionIndexService {
                     estacion.put("longitud", longitud);
                     estacion.put("capacidad", capacidad);
 
-                    // Indexar por nombre (normalizado para búsqueda)
-                    String nombreNormalizado = nombre.toLowerCase();
-                    indiceNombre.insert(nombreNormalizado, estacion);
-
                     // Indexar por ID
-                    indiceId.insert(id.toLowerCase(), estacion);
+                    porId.add(Map.entry(TextNormalizer.normalizar(id), estacion));
 
                     totalEstacionesIndexadas++;
                 }
@@ -86,113 +113,176 @@ public class EstacionIndexService {
             logger.error("Error al cargar índices desde archivo SITP", e);
             throw new RuntimeException("No se pudieron cargar los índices de estaciones SITP", e);
         }
+
+        indiceId = construirIndice(porId);
+        estacionesPorId = indiceId.getAllValues();
+
+        SymSpellIndex.Builder aproximado = new SymSpellIndex.Builder();
+        for (Map<String, Object> estacion : estacionesPorId) {
+            aproximado.add((String) estacion.get("nombre"));
+        }
+        aproximadoNombre = aproximado.build();
     }
 
     /**
-     * Busca estaciones por nombre (búsqueda por contención).
-     * Utiliza el índice B+ para búsqueda eficiente.
-     *
-     * @param query Texto a buscar
-     * @param limit Límite de resultados
-     * @return Lista de estaciones que coinciden
+     * Indexa por nombre e ID las estaciones principales del sistema (reemplaza las
+     * anteriores). Las que ya están indexadas desde el archivo SITP se omiten, para
+     * que ninguna estación aparezca dos veces en las búsquedas.
      */
-    public List<Map<String, Object>> buscarPorNombre(String query, int limit) {
-        if (query == null || query.trim().isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        String queryLower = query.toLowerCase().trim();
-
-        // Primero buscar por prefijo (más eficiente)
-        List<Map<String, Object>> resultados = indiceNombre.searchByPrefix(queryLower, limit);
-
-        // Si no hay suficientes resultados, buscar por contención
-        if (resultados.size() < limit) {
-            Set<String> idsYaIncluidos = new HashSet<>();
-            resultados.forEach(e -> idsYaIncluidos.add((String) e.get("id")));
-
-            List<Map<String, Object>> adicionales = indiceNombre.searchByContains(queryLower, limit - resultados.size());
-            for (Map<String, Object> estacion : adicionales) {
-                String id = (String) estacion.get("id");
-                if (!idsYaIncluidos.contains(id)) {
-                    resultados.add(estacion);
-                    idsYaIncluidos.add(id);
-                    if (resultados.size() >= limit) break;
-                }
+    public void indexarEstacionesPrincipales(Collection<Estacion> estaciones) {
+        List<Estacion> nuevas = new ArrayList<>();
+        for (Estacion estacion : estaciones) {
+            if (buscarPorIdExacto(estacion.getId()) == null) {
+                nuevas.add(estacion);
             }
         }
+        logger.info("Estaciones principales: {} ({} ya indexadas desde el archivo SITP)",
+                nuevas.size(), estaciones.size() - nuevas.size());
+        principales = nuevas;
+        construirCatalogo();
+    }
 
-        return resultados;
+    /**
+     * Estaciones del autocompletado (principales y luego SITP), su índice y el índice
+     * aproximado de las principales (documento i = estación i); se reemplazan juntos.
+     */
+    private static final class Catalogo {
+        final List<Map<String, Object>> estaciones;
+        final AutocompleteIndex indice;
+        final SymSpellIndex aproximadoPrincipales;
+
+        Catalogo(List<Map<String, Object>> estaciones, AutocompleteIndex indice, SymSpellIndex aproximadoPrincipales) {
+            this.estaciones = estaciones;
+            this.indice = indice;
+            this.aproximadoPrincipales = aproximadoPrincipales;
+        }
     }
 
     /**
-     * Busca estaciones por ID.
-     *
-     * @param query ID o parte del ID a buscar
-     * @param limit Límite de resultados
-     * @return Lista de estaciones que coinciden
+     * Reconstruye el autocompletado con las principales vigentes y las SITP. Las
+     * principales se convierten al mismo formato de mapa que las SITP.
      */
-    public List<Map<String, Object>> buscarPorId(String query, int limit) {
-        if (query == null || query.trim().isEmpty()) {
-            return Collections.emptyList();
+    private synchronized void construirCatalogo() {
+        List<Map<String, Object>> estaciones = new ArrayList<>();
+        SymSpellIndex.Builder aproximado = new SymSpellIndex.Builder();
+        for (Estacion estacion : principales) {
+            estaciones.add(aMapa(estacion));
+            aproximado.add(estacion.getNombre());
+        }
+        estaciones.addAll(estacionesPorId);
+
+        AutocompleteIndex.Builder builder = new AutocompleteIndex.Builder();
+        for (Map<String, Object> estacion : estaciones) {
+            builder.add(importancia((String) estacion.get("tipo"), (Integer) estacion.get("capacidad")),
+                    (String) estacion.get("nombre"), (String) estacion.get("id"));
         }
+        catalogo = new Catalogo(estaciones, builder.build(), aproximado.build());
+        logger.info("{}", catalogo.indice.getStats());
+    }
 
-        String queryLower = query.toLowerCase().trim();
-        return indiceId.searchByContains(queryLower, limit);
+    /** Estación principal con el mismo formato de mapa que las SITP del archivo. */
+    private static Map<String, Object> aMapa(Estacion estacion) {
+        Map<String, Object> mapa = new HashMap<>();
+        mapa.put("id", estacion.getId());
+        mapa.put("nombre", estacion.getNombre());
+        mapa.put("tipo", estacion.getTipo());
+        mapa.put("latitud", estacion.getLatitud());
+        mapa.put("longitud", estacion.getLongitud());
+        mapa.put("capacidad", estacion.getCapacidad());
+        return mapa;
     }
 
     /**
-     * Busca una estación exacta por ID.
-     *
-     * @param id ID de la estación
-     * @return Mapa con datos de la estación o null
+     * Importancia para el ranking: primero el tipo (portales e intermodales, luego
+     * TM y Metro, luego SITP) y dentro del tipo la capacidad.
      */
-    public Map<String, Object> buscarPorIdExacto(String id) {
-        if (id == null) return null;
-        return indiceId.search(id.toLowerCase());
+    private static int importancia(String tipo, Integer capacidad) {
+        int peso;
+        if ("portal".equalsIgnoreCase(tipo) || "intermodal".equalsIgnoreCase(tipo)) {
+            peso = 3;
+        } else if ("tm".equalsIgnoreCase(tipo) || "metro".equalsIgnoreCase(tipo)) {
+            peso = 2;
+        } else if ("sitp".equalsIgnoreCase(tipo)) {
+            peso = 0;
+        } else {
+            peso = 1;
+        }
+        int cap = capacidad == null ? 0 : Math.max(0, Math.min(capacidad, 99_999));
+        return peso * 100_000 + cap;
     }
 
     /**
-     * Busca estaciones combinando búsqueda por nombre e ID.
+     * Las limit estaciones (principales y SITP) que mejor coinciden con el texto, de la
+     * mejor a la peor: nombre o ID idéntico, luego prefijo, prefijo de una palabra y
+     * subcadena; a igual coincidencia, las más importantes y de nombre más corto.
      *
      * @param query Texto a buscar
      * @param limit Límite de resultados
      * @return Lista de estaciones ordenadas por relevancia
      */
-    public List<Map<String, Object>> buscar(String query, int limit) {
+    public List<Map<String, Object>> buscarRankeado(String query, int limit) {
         if (query == null || query.trim().isEmpty()) {
             return Collections.emptyList();
         }
 
-        Set<String> idsUnicos = new HashSet<>();
+        Catalogo actual = catalogo;
         List<Map<String, Object>> resultados = new ArrayList<>();
+        for (int documento : actual.indice.buscar(query, limit)) {
+            resultados.add(actual.estaciones.get(documento));
+        }
+        return resultados;
+    }
 
-        // 1. Buscar por nombre primero (más común)
-        List<Map<String, Object>> porNombre = buscarPorNombre(query, limit);
-        for (Map<String, Object> estacion : porNombre) {
-            String id = (String) estacion.get("id");
-            if (!idsUnicos.contains(id)) {
-                resultados.add(estacion);
-                idsUnicos.add(id);
-            }
+    private static BPlusTree<String, Map<String, Object>> construirIndice(
+            List<Map.Entry<String, Map<String, Object>>> entradas) {
+        entradas.sort(Map.Entry.comparingByKey());
+        List<String> claves = new ArrayList<>(entradas.size());
+        List<Map<String, Object>> valores = new ArrayList<>(entradas.size());
+        for (Map.Entry<String, Map<String, Object>> entrada : entradas) {
+            claves.add(entrada.getKey());
+            valores.add(entrada.getValue());
         }
+        return BPlusTree.bulkLoad(claves, valores);
+    }
 
-        // 2. Si no hay suficientes, buscar por ID
-        if (resultados.size() < limit) {
-            List<Map<String, Object>> porId = buscarPorId(query, limit - resultados.size());
-            for (Map<String, Object> estacion : porId) {
-                String id = (String) estacion.get("id");
-                if (!idsUnicos.contains(id)) {
-                    resultados.add(estacion);
-                    idsUnicos.add(id);
-                    if (resultados.size() >= limit) break;
-                }
-            }
+    /**
+     * Busca estaciones por nombre tolerando errores de tipeo (hasta
+     * SymSpellIndex.MAX_DISTANCIA letras por palabra según su largo): primero las
+     * principales y luego las SITP, cada grupo de la más parecida a la menos. Las
+     * palabras idénticas cuentan como distancia 0.
+     *
+     * @param query Texto a buscar
+     * @param limit Límite de resultados por grupo
+     * @return Lista de estaciones que coinciden aproximadamente
+     */
+    public List<Map<String, Object>> buscarAproximado(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            return Collections.emptyList();
         }
 
+        Catalogo actual = catalogo;
+        List<Map<String, Object>> resultados = new ArrayList<>();
+        for (int documento : actual.aproximadoPrincipales.buscar(query, limit)) {
+            resultados.add(actual.estaciones.get(documento));
+        }
+        List<Map<String, Object>> sitp = estacionesPorId;
+        for (int documento : aproximadoNombre.buscar(query, limit)) {
+            resultados.add(sitp.get(documento));
+        }
         return resultados;
     }
 
+    /**
+     * Busca una estación exacta por ID.
+     *
+     * @param id ID de la estación
+     * @return Mapa con datos de la estación o null
+     */
+    public Map<String, Object> buscarPorIdExacto(String id) {
+        if (id == null) return null;
+        return indiceId.search(TextNormalizer.normalizar(id));
+    }
+
     /**
      * Obtiene el número total de estaciones indexadas.
      */
@@ -206,8 +296,9 @@ public class EstacionIndexService {
     public Map<String, String> getEstadisticas() {
         Map<String, String> stats = new HashMap<>();
         stats.put("totalEstaciones", String.valueOf(totalEstacionesIndexadas));
-        stats.put("indiceNombre", indiceNombre.getStats());
         stats.put("indiceId", indiceId.getStats());
+        stats.put("nombresAproximados", aproximadoNombre.getStats());
+        stats.put("autocompletado", catalogo.indice.getStats());
         return stats;
     }
 }
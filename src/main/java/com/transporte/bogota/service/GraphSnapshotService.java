@@ -0,0 +1,78 @@
+package com.transporte.bogota.service;
+
+import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.model.Ruta;
+import com.transporte.bogota.model.SistemaTransporte;
+import com.transporte.bogota.util.Graph;
+import com.transporte.bogota.util.GraphSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica la instantánea compartida de la red completa.
+ *
+ * TransporteService la construye una vez tras la carga de CSVDataLoader; las
+ * peticiones leen la referencia volátil sin bloqueo. Republicar (p. ej. tras
+ * recargar datos) reemplaza la instantánea de forma atómica y las búsquedas en
+ * curso terminan sobre la versión que ya tenían.
+ */
+@Service
+public class GraphSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphSnapshotService.class);
+    private static final String LANDMARKS_FILE = "data/alt-landmarks.bin";
+
+    private final AtomicLong versiones = new AtomicLong();
+    private volatile GraphSnapshot actual;
+
+    /**
+     * Construye y publica una nueva instantánea con todas las estaciones y rutas del sistema.
+     */
+    public GraphSnapshot publicar(SistemaTransporte sistema) {
+        long startTime = System.currentTimeMillis();
+
+        Graph grafo = new Graph();
+        for (Estacion e : sistema.getAllEstaciones()) {
+            grafo.addNodo(e);
+        }
+        double velocidadMaxima = 0; // km/min
+        for (Ruta r : sistema.getAllRutas()) {
+            grafo.addArista(r.getOrigen(), r.getDestino(), r.getTiempoViaje(), r.getCapacidad());
+            if (r.getTiempoViaje() > 0) {
+                velocidadMaxima = Math.max(velocidadMaxima, r.getDistanciaM() / 1000.0 / r.getTiempoViaje());
+            } else if (r.getDistanciaM() > 0) {
+                velocidadMaxima = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        GraphSnapshot snapshot = new GraphSnapshot(versiones.incrementAndGet(), grafo, velocidadMaxima,
+                Paths.get(LANDMARKS_FILE));
+        actual = snapshot;
+
+        logger.info("Snapshot v{} publicado en {} ms - Nodos: {}, Aristas: {}, Vel. máx: {} km/min, {}, Atajos CH: {}",
+                snapshot.getVersion(), System.currentTimeMillis() - startTime,
+                snapshot.getCompacto().getNumNodos(), snapshot.getCompacto().getNumAristas(),
+                snapshot.getVelocidadMaxima(), snapshot.getIndiceEspacial().getStats(),
+                snapshot.getJerarquia().getNumAtajos());
+        return snapshot;
+    }
+
+    /**
+     * Instantánea vigente. Falla si todavía no se ha cargado la red.
+     */
+    public GraphSnapshot getActual() {
+        GraphSnapshot snapshot = actual;
+        if (snapshot == null) {
+            throw new IllegalStateException("La red de transporte aún no ha sido cargada");
+        }
+        return snapshot;
+    }
+
+    public boolean isDisponible() {
+        return actual != null;
+    }
+}
@@ -2,12 +2,17 @@ package com.transporte.bogota.service;
 
 import com.transporte.bogota.dao.CSVDataLoader;
 import com.transporte.bogota.model.*;
+import com.transporte.bogota.util.CompactGraph;
 import com.transporte.bogota.util.Graph;
 import com.transporte.bogota.util.GraphEdge;
+import com.transporte.bogota.util.GraphSnapshot;
+import com.transporte.bogota.util.SpatialGridIndex;
 
 // Importación de los algoritmos de optimización
+import com.transporte.bogota.algorithm.BidirectionalDijkstra;
 import com.transporte.bogota.algorithm.Dijkstra;
 import com.transporte.bogota.algorithm.MaxFlow;
+import com.transporte.bogota.algorithm.MinCostFlow;
 import com.transporte.bogota.algorithm.MinimumSpanningTree;
 import com.transporte.bogota.algorithm.GraphColoring; 
 
@@ -19,6 +24,7 @@ import jakarta.annotation.PostConstruct;
 import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Servicio principal para gestión y optimización del sistema de transporte.
@@ -30,20 +36,25 @@ public class TransporteService {
 
     private static final Logger logger = LoggerFactory.getLogger(TransporteService.class);
 
+    // Límites de la matriz origen-destino por petición
+    private static final int MAX_ORIGENES_MATRIZ = 1000;
+    private static final int MAX_DESTINOS_MATRIZ = 1000;
+
+    // Límite de viajes origen-destino por asignación de demanda
+    private static final int MAX_VIAJES_ASIGNACION = 5000;
+
     private final CSVDataLoader dataLoader;
     private final EstacionIndexService indexService;
-    private final RutaIndexService rutaIndexService;
     private final SistemaTransporte sistema;
-    private LazyGraphService lazyGraphService;
-    private Graph grafoCompleto; // Solo para análisis globales
+    private final GraphSnapshotService snapshotService;
     private Map<String, Object> analysisResults; // Campo para almacenar resultados de análisis
 
     public TransporteService(CSVDataLoader dataLoader, EstacionIndexService indexService,
-                            RutaIndexService rutaIndexService, SistemaTransporte sistema) {
+                            SistemaTransporte sistema, GraphSnapshotService snapshotService) {
         this.dataLoader = dataLoader;
         this.indexService = indexService;
-        this.rutaIndexService = rutaIndexService;
         this.sistema = sistema;
+        this.snapshotService = snapshotService;
         this.analysisResults = new HashMap<>();
     }
 
@@ -53,18 +64,16 @@ public class TransporteService {
             logger.info("Inicializando servicio de transporte...");
             dataLoader.cargarDatos();
 
-            // Crear LazyGraphService después de cargar el sistema
-            this.lazyGraphService = new LazyGraphService(sistema, rutaIndexService);
-
-            // CAMBIO: Ya NO construimos el grafo completo al inicio
-            // Solo lo construimos cuando se necesite para análisis globales
+            // Construir UNA vez la instantánea inmutable de la red completa.
+            // Todas las peticiones la comparten; cada búsqueda solo asigna su estado propio.
+            snapshotService.publicar(sistema);
+            indexService.indexarEstacionesPrincipales(sistema.getAllEstaciones());
             logger.info("Sistema inicializado - Estaciones: {}", sistema.getAllEstaciones().size());
-            logger.info("Grafo lazy activado - Se construirá bajo demanda");
 
-            // Calcular análisis solo si se necesita el grafo completo
+            // Calcular análisis solo si se necesita
             // calcularResultadosDeAnalisis(); // Comentado por ahora
 
-            logger.info("Servicio inicializado correctamente (modo lazy)");
+            logger.info("Servicio inicializado correctamente (snapshot compartido)");
         } catch (IOException e) {
             logger.error("Error al cargar datos del sistema", e);
             throw new RuntimeException("Error al inicializar sistema de transporte", e);
@@ -74,16 +83,11 @@ public class TransporteService {
     /**
      * Calcula y almacena los resultados de los algoritmos de ARM, Max Flow y Coloreado
      * para ser usados como reporte de análisis.
-     * NOTA: Este método construye el grafo completo, lo cual es costoso.
+     * Usa el grafo de la instantánea compartida.
      */
     private void calcularResultadosDeAnalisis() {
         logger.info("Calculando resultados de análisis (ARM, MaxFlow, GraphColoring)...");
-        logger.warn("Construyendo grafo completo para análisis globales...");
-
-        // Construir grafo completo solo para análisis
-        if (grafoCompleto == null) {
-            grafoCompleto = lazyGraphService.construirGrafoCompleto();
-        }
+        Graph grafoCompleto = getGrafoCompleto();
 
         // 1. Árbol de Recubrimiento Mínimo (ARM)
         try {
@@ -147,17 +151,27 @@ public class TransporteService {
     }
 
     // NOTA: construirGrafo() ya no se usa.
-    // Ahora usamos LazyGraphService para construir grafos bajo demanda.
+    // Ahora la red completa vive en la instantánea de GraphSnapshotService.
 
     // =========================================================================
     // 1. ALGORITMO: DIJKSTRA (Ruta Óptima) - Única función interactiva de cálculo
     // =========================================================================
 
     /**
-     * Calcula la ruta más corta (tiempo mínimo) entre dos estaciones usando Dijkstra.
-     * Usa lazy loading: construye un grafo solo con rutas relevantes.
+     * Calcula la ruta más corta (tiempo mínimo) entre dos estaciones.
+     * Responde con la jerarquía de contracción precalculada en la instantánea compartida:
+     * no construye ningún grafo por petición y el resultado es exacto sin importar la
+     * distancia entre estaciones.
      */
     public Map<String, Object> calcularRutaOptima(String origenId, String destinoId) {
+        return calcularRutaOptima(origenId, destinoId, Dijkstra.Algoritmo.CH);
+    }
+
+    /**
+     * Igual que calcularRutaOptima, eligiendo el algoritmo de búsqueda.
+     * Todos devuelven el mismo tiempo óptimo; difieren en cuántos nodos exploran.
+     */
+    public Map<String, Object> calcularRutaOptima(String origenId, String destinoId, Dijkstra.Algoritmo algoritmo) {
         Estacion origen = sistema.getEstacion(origenId);
         Estacion destino = sistema.getEstacion(destinoId);
 
@@ -165,12 +179,33 @@ public class TransporteService {
             throw new IllegalArgumentException("Estación no encontrada");
         }
 
-        // Construir grafo lazy solo con rutas relevantes
-        logger.info("Calculando ruta óptima: {} -> {}", origen.getNombre(), destino.getNombre());
-        Graph grafoLazy = lazyGraphService.construirGrafoLazy(origen, destino);
-
-        // Llamada al algoritmo Dijkstra con el grafo lazy
-        Dijkstra.ResultadoDijkstra resultado = Dijkstra.calcularCaminoMinimo(grafoLazy, origen, destino);
+        logger.info("Calculando ruta óptima ({}): {} -> {}", algoritmo, origen.getNombre(), destino.getNombre());
+        GraphSnapshot snapshot = snapshotService.getActual();
+        long inicio = System.nanoTime();
+
+        // Búsqueda sobre la vista CSR compartida
+        Dijkstra.ResultadoDijkstra resultado;
+        switch (algoritmo) {
+            case A_ESTRELLA:
+                resultado = Dijkstra.calcularCaminoAEstrella(snapshot.getCompacto(), origen, destino,
+                        snapshot.getVelocidadMaxima());
+                break;
+            case CH:
+                resultado = snapshot.getJerarquia().calcularCaminoMinimo(origen, destino);
+                break;
+            case ALT:
+                resultado = Dijkstra.calcularCaminoALT(snapshot.getCompacto(), origen, destino,
+                        snapshot.getLandmarks());
+                break;
+            case BIDIRECCIONAL:
+                resultado = BidirectionalDijkstra.calcularCaminoMinimo(snapshot.getCompacto(), origen, destino);
+                break;
+            case DIJKSTRA:
+            default:
+                resultado = Dijkstra.calcularCaminoMinimo(snapshot.getCompacto(), origen, destino);
+                break;
+        }
+        double tiempoCalculoMs = (System.nanoTime() - inicio) / 1_000_000.0;
 
         Map<String, Object> respuesta = new HashMap<>();
         respuesta.put("origen", crearEstacionDTO(origen));
@@ -180,10 +215,205 @@ public class TransporteService {
                 .map(this::crearEstacionDTO)
                 .collect(Collectors.toList()));
         respuesta.put("numeroEstaciones", resultado.camino.size());
+        respuesta.put("algoritmo", algoritmo.name());
+        respuesta.put("nodosExplorados", resultado.nodosExplorados);
+        respuesta.put("tiempoCalculoMs", Math.round(tiempoCalculoMs * 100) / 100.0);
+
+        return respuesta;
+    }
+
+    /**
+     * Matriz origen-destino de tiempos mínimos (minutos) sobre la instantánea compartida.
+     * Cada fila es una búsqueda uno-a-muchos que termina al asentar todos los destinos;
+     * las filas se calculan en paralelo. Los pares sin camino quedan en -1.
+     */
+    public Map<String, Object> calcularMatrizTiempos(List<String> origenIds, List<String> destinoIds) {
+        if (origenIds == null || destinoIds == null || origenIds.isEmpty() || destinoIds.isEmpty()) {
+            throw new IllegalArgumentException("Se requieren listas de origenes y destinos no vacías");
+        }
+        if (origenIds.size() > MAX_ORIGENES_MATRIZ || destinoIds.size() > MAX_DESTINOS_MATRIZ) {
+            throw new IllegalArgumentException("La matriz admite hasta " + MAX_ORIGENES_MATRIZ
+                    + " orígenes y " + MAX_DESTINOS_MATRIZ + " destinos");
+        }
+
+        CompactGraph grafo = snapshotService.getActual().getCompacto();
+        int[] origenes = resolverOrdinales(grafo, origenIds);
+        int[] destinos = resolverOrdinales(grafo, destinoIds);
+
+        long inicio = System.nanoTime();
+        int[][] tiempos = new int[origenes.length][];
+        IntStream.range(0, origenes.length).parallel().forEach(i -> {
+            int[] fila = Dijkstra.calcularDistanciasHasta(grafo, origenes[i], destinos);
+            for (int j = 0; j < fila.length; j++) {
+                if (fila[j] == Integer.MAX_VALUE) fila[j] = -1;
+            }
+            tiempos[i] = fila;
+        });
+        double tiempoCalculoMs = (System.nanoTime() - inicio) / 1_000_000.0;
+
+        int sinCamino = 0;
+        for (int[] fila : tiempos) {
+            for (int t : fila) {
+                if (t < 0) sinCamino++;
+            }
+        }
+        logger.info("Matriz {}x{} calculada en {} ms ({} pares sin camino)",
+                origenes.length, destinos.length, Math.round(tiempoCalculoMs), sinCamino);
+
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("origenes", origenIds);
+        respuesta.put("destinos", destinoIds);
+        respuesta.put("tiempos", tiempos);
+        respuesta.put("paresSinCamino", sinCamino);
+        respuesta.put("tiempoCalculoMs", Math.round(tiempoCalculoMs * 100) / 100.0);
+        return respuesta;
+    }
 
+    /**
+     * Capacidad de un corredor: flujo máximo de pasajeros desde un conjunto de
+     * estaciones de origen hacia un conjunto de destino, con las aristas del corte
+     * mínimo (los tramos que limitan el corredor). Cada conjunto se da por IDs o,
+     * si no hay IDs, por una caja {latMin, lonMin, latMax, lonMax}.
+     */
+    public Map<String, Object> calcularCapacidadCorredor(List<String> origenIds, double[] cajaOrigen,
+                                                         List<String> destinoIds, double[] cajaDestino) {
+        GraphSnapshot snapshot = snapshotService.getActual();
+        CompactGraph grafo = snapshot.getCompacto();
+        int[] origenes = resolverConjunto(grafo, snapshot.getIndiceEspacial(), origenIds, cajaOrigen, "origen");
+        int[] destinos = resolverConjunto(grafo, snapshot.getIndiceEspacial(), destinoIds, cajaDestino, "destino");
+
+        long inicio = System.nanoTime();
+        MaxFlow.ResultadoFlujo resultado = MaxFlow.calcularFlujoMultiple(grafo, origenes, destinos);
+        double tiempoCalculoMs = (System.nanoTime() - inicio) / 1_000_000.0;
+        logger.info("Capacidad de corredor {} -> {} estaciones: {} pasajeros en {} ms",
+                origenes.length, destinos.length, resultado.flujoMaximo, Math.round(tiempoCalculoMs));
+
+        List<Map<String, Object>> corte = new ArrayList<>();
+        for (int e : resultado.getAristasCorte()) {
+            Estacion desde = grafo.getEstacion(grafo.origen(e));
+            Estacion hasta = grafo.getEstacion(grafo.destino(e));
+            Map<String, Object> arista = new LinkedHashMap<>();
+            arista.put("origenId", desde.getId());
+            arista.put("origen", desde.getNombre());
+            arista.put("destinoId", hasta.getId());
+            arista.put("destino", hasta.getNombre());
+            arista.put("capacidad", grafo.capacidad(e));
+            corte.add(arista);
+        }
+        corte.sort((a, b) -> Integer.compare((int) b.get("capacidad"), (int) a.get("capacidad")));
+
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("numOrigenes", origenes.length);
+        respuesta.put("numDestinos", destinos.length);
+        respuesta.put("flujoMaximo", resultado.flujoMaximo);
+        respuesta.put("corteMinimo", corte);
+        respuesta.put("tiempoCalculoMs", Math.round(tiempoCalculoMs * 100) / 100.0);
         return respuesta;
     }
 
+    /**
+     * Asigna una matriz de demanda (viajes origen-destino con volumen de pasajeros) a
+     * la red con flujo de costo mínimo: cada pasajero toma el camino más rápido que
+     * aún tenga capacidad. Devuelve la carga y la utilización de cada tramo usado.
+     */
+    public Map<String, Object> asignarDemanda(List<String> origenIds, List<String> destinoIds,
+                                              List<Integer> volumenes) {
+        if (origenIds.isEmpty()) {
+            throw new IllegalArgumentException("Se requiere al menos un viaje");
+        }
+        if (origenIds.size() > MAX_VIAJES_ASIGNACION) {
+            throw new IllegalArgumentException("La asignación admite hasta " + MAX_VIAJES_ASIGNACION + " viajes");
+        }
+
+        CompactGraph grafo = snapshotService.getActual().getCompacto();
+        int[] origenes = resolverOrdinales(grafo, origenIds);
+        int[] destinos = resolverOrdinales(grafo, destinoIds);
+        int[] demanda = volumenes.stream().mapToInt(Integer::intValue).toArray();
+
+        long inicio = System.nanoTime();
+        MinCostFlow.AsignacionFlujo asignacion = MinCostFlow.asignar(grafo, origenes, destinos, demanda);
+        double tiempoCalculoMs = (System.nanoTime() - inicio) / 1_000_000.0;
+
+        List<Map<String, Object>> viajes = new ArrayList<>();
+        long totalDemanda = 0, totalAsignado = 0;
+        for (int i = 0; i < asignacion.getNumViajes(); i++) {
+            Map<String, Object> viaje = new LinkedHashMap<>();
+            viaje.put("origen", origenIds.get(i));
+            viaje.put("destino", destinoIds.get(i));
+            viaje.put("volumen", demanda[i]);
+            viaje.put("asignado", asignacion.asignado(i));
+            viajes.add(viaje);
+            totalDemanda += demanda[i];
+            totalAsignado += asignacion.asignado(i);
+        }
+
+        List<Map<String, Object>> cargas = new ArrayList<>();
+        for (int e = 0; e < grafo.getNumAristas(); e++) {
+            int carga = asignacion.carga(e);
+            if (carga == 0) continue;
+            Estacion desde = grafo.getEstacion(grafo.origen(e));
+            Estacion hasta = grafo.getEstacion(grafo.destino(e));
+            Map<String, Object> tramo = new LinkedHashMap<>();
+            tramo.put("origenId", desde.getId());
+            tramo.put("destinoId", hasta.getId());
+            tramo.put("carga", carga);
+            tramo.put("capacidad", grafo.capacidad(e));
+            tramo.put("utilizacion", Math.round(1000.0 * carga / grafo.capacidad(e)) / 10.0);
+            cargas.add(tramo);
+        }
+        cargas.sort((a, b) -> Double.compare((double) b.get("utilizacion"), (double) a.get("utilizacion")));
+
+        logger.info("Demanda asignada: {} viajes, {} de {} pasajeros, {} tramos cargados en {} ms",
+                origenes.length, totalAsignado, totalDemanda, cargas.size(), Math.round(tiempoCalculoMs));
+
+        Map<String, Object> respuesta = new LinkedHashMap<>();
+        respuesta.put("demandaTotal", totalDemanda);
+        respuesta.put("demandaAsignada", totalAsignado);
+        respuesta.put("costoTotalPasajeroMinuto", asignacion.costoTotal);
+        respuesta.put("viajes", viajes);
+        respuesta.put("cargas", cargas);
+        respuesta.put("tiempoCalculoMs", Math.round(tiempoCalculoMs * 100) / 100.0);
+        return respuesta;
+    }
+
+    /**
+     * Ordinales de un conjunto de estaciones dado por IDs o por caja geográfica.
+     */
+    private int[] resolverConjunto(CompactGraph grafo, SpatialGridIndex indice, List<String> ids,
+                                   double[] caja, String nombre) {
+        if (ids != null && !ids.isEmpty()) {
+            return resolverOrdinales(grafo, ids);
+        }
+        if (caja == null) {
+            throw new IllegalArgumentException("Se requieren IDs o una caja de " + nombre);
+        }
+        int[] ordinales = indice.buscarEnCaja(caja[0], caja[1], caja[2], caja[3]).stream()
+                .mapToInt(grafo::indice)
+                .filter(v -> v >= 0)
+                .toArray();
+        if (ordinales.length == 0) {
+            throw new IllegalArgumentException("No hay estaciones en la caja de " + nombre);
+        }
+        return ordinales;
+    }
+
+    /**
+     * Traduce IDs de estación a ordinales del grafo CSR. Falla con todos los IDs desconocidos.
+     */
+    private int[] resolverOrdinales(CompactGraph grafo, List<String> ids) {
+        int[] ordinales = new int[ids.size()];
+        List<String> desconocidos = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Estacion estacion = sistema.getEstacion(ids.get(i));
+            ordinales[i] = grafo.indice(estacion);
+            if (ordinales[i] < 0) desconocidos.add(ids.get(i));
+        }
+        if (!desconocidos.isEmpty()) {
+            throw new IllegalArgumentException("Estaciones no encontradas: " + desconocidos);
+        }
+        return ordinales;
+    }
+
     // =========================================================================
     // GETTER PARA RESULTADOS DE ANÁLISIS (Reporte)
     // =========================================================================
@@ -205,8 +435,11 @@ public class TransporteService {
     }
 
     /**
-     * Búsqueda de estaciones por nombre usando índice B+ para búsqueda O(log n).
-     * Busca primero en estaciones cargadas (TM, Metro, Portales), luego en índice SITP.
+     * Búsqueda de estaciones por nombre con ranking: estaciones principales (TM, Metro,
+     * Portales) y SITP en un mismo autocompletado, ordenadas por tipo de coincidencia
+     * (exacta, prefijo, prefijo de palabra, subcadena) e importancia de la estación.
+     * Si faltan resultados, completa con nombres parecidos (errores de tipeo). Las
+     * tildes no importan en ningún paso.
      */
     public List<Map<String, Object>> buscarEstaciones(String query, int limit) {
         if (query == null || query.trim().isEmpty()) {
@@ -215,26 +448,21 @@ public class TransporteService {
 
         String queryLower = query.toLowerCase().trim();
 
-        // 1. Buscar en estaciones principales ya cargadas (TM, Metro, Portales)
-        List<Map<String, Object>> resultados = sistema.getAllEstaciones().stream()
-                .filter(e -> e.getNombre().toLowerCase().contains(queryLower) ||
-                             e.getId().toLowerCase().contains(queryLower))
-                .limit(limit)
-                .map(this::crearEstacionDTO)
-                .collect(Collectors.toList());
-
-        logger.debug("Búsqueda '{}': {} resultados en estaciones principales", query, resultados.size());
+        // 1. Mejores coincidencias entre todas las estaciones (principales y SITP)
+        List<Map<String, Object>> resultados = new ArrayList<>(indexService.buscarRankeado(queryLower, limit));
+        logger.debug("Búsqueda '{}': {} resultados con ranking", query, resultados.size());
 
-        // 2. Si no hay suficientes resultados, buscar en índice SITP (B+ tree)
+        // 2. Coincidencias aproximadas ("Ricuarte" → "Ricaurte"), sin repetir estaciones
         if (resultados.size() < limit) {
-            try {
-                int restantes = limit - resultados.size();
-                List<Map<String, Object>> sitpResults = indexService.buscar(queryLower, restantes);
-                resultados.addAll(sitpResults);
-                logger.debug("Búsqueda '{}': {} resultados adicionales en SITP", query, sitpResults.size());
-            } catch (Exception e) {
-                logger.warn("Error al buscar en índice SITP: {}", e.getMessage());
+            Set<Object> ids = new HashSet<>();
+            resultados.forEach(r -> ids.add(r.get("id")));
+            List<Map<String, Object>> aproximados = indexService.buscarAproximado(queryLower, limit);
+            int antes = resultados.size();
+            for (Map<String, Object> estacion : aproximados) {
+                if (resultados.size() >= limit) break;
+                if (ids.add(estacion.get("id"))) resultados.add(estacion);
             }
+            logger.debug("Búsqueda '{}': {} resultados aproximados", query, resultados.size() - antes);
         }
 
         logger.info("Búsqueda '{}': {} resultados totales", query, resultados.size());
@@ -350,24 +578,11 @@ public class TransporteService {
         return dto;
     }
 
-    public Graph getGrafoCompleto() {
-        // Construir grafo completo bajo demanda si no existe
-        if (grafoCompleto == null) {
-            grafoCompleto = lazyGraphService.construirGrafoCompleto();
-        }
-        return grafoCompleto;
-    }
-
     /**
-     * Construye un grafo lazy (carga perezosa) con solo los nodos relevantes
-     * entre origen y destino. MUCHO más eficiente que getGrafoCompleto().
-     *
-     * @param origen Estación origen
-     * @param destino Estación destino
-     * @return Grafo optimizado con solo nodos alcanzables
+     * Grafo de la red completa, de solo lectura y compartido entre peticiones.
      */
-    public Graph construirGrafoLazy(Estacion origen, Estacion destino) {
-        return lazyGraphService.construirGrafoLazy(origen, destino);
+    public Graph getGrafoCompleto() {
+        return snapshotService.getActual().getGrafo();
     }
 
     public SistemaTransporte getSistema() {
@@ -0,0 +1,223 @@
+package com.transporte.bogota.util;
+
+import java.util.*;
+
+/**
+ * Autocompletado con ranking: devuelve los k documentos con mejor puntaje entre los
+ * que contienen la consulta, en lugar de los primeros k que aparecen.
+ *
+ * El puntaje combina, en este orden:
+ * - Tipo de coincidencia: campo idéntico, prefijo del campo, prefijo de una palabra
+ *   del campo o subcadena cualquiera (se toma el mejor entre los campos).
+ * - Importancia del documento (la define quien construye el índice).
+ * - Textos más cortos primero (el primer campo es el principal).
+ * Los empates se resuelven por número de documento.
+ *
+ * Las coincidencias salen del índice de n-gramas (TrigramIndex) y solo las k mejores
+ * se guardan en un heap acotado mientras se recorren. Las consultas de 1 a 3
+ * caracteres, que coinciden con muchos documentos, tienen su lista de los
+ * K_PRECALCULADO mejores calculada al construir y se responden sin recorrer nada.
+ *
+ * Es inmutable tras build(), así que se puede consultar desde varios hilos.
+ */
+public final class AutocompleteIndex {
+
+    /** Resultados precalculados por consulta corta (1 a 3 caracteres). */
+    public static final int K_PRECALCULADO = 20;
+
+    private static final int EXACTO = 4;
+    private static final int PREFIJO = 3;
+    private static final int PREFIJO_PALABRA = 2;
+    private static final int SUBCADENA = 1;
+
+    /** Importancia máxima admitida (24 bits del puntaje). */
+    public static final int MAX_IMPORTANCIA = (1 << 24) - 1;
+
+    private final TrigramIndex texto;
+    private final int[] importancia;
+    private final Map<String, int[]> mejoresCortas; // consulta corta → mejores documentos, en orden
+
+    private AutocompleteIndex(TrigramIndex texto, int[] importancia, Map<String, int[]> mejoresCortas) {
+        this.texto = texto;
+        this.importancia = importancia;
+        this.mejoresCortas = mejoresCortas;
+    }
+
+    public int size() {
+        return importancia.length;
+    }
+
+    /**
+     * Los limit documentos con mejor puntaje que contienen el texto, del mejor al peor.
+     */
+    public int[] buscar(String consulta, int limit) {
+        String normalizada = TextNormalizer.normalizar(consulta);
+        if (normalizada.isEmpty() || limit <= 0) return new int[0];
+
+        if (normalizada.length() <= 3 && limit <= K_PRECALCULADO) {
+            int[] mejores = mejoresCortas.get(normalizada);
+            if (mejores == null) return new int[0];
+            return mejores.length <= limit ? mejores.clone() : Arrays.copyOf(mejores, limit);
+        }
+
+        TopK top = new TopK(limit);
+        for (int documento : texto.buscar(normalizada, Integer.MAX_VALUE)) {
+            top.ofrecer(documento, puntaje(documento, normalizada));
+        }
+        return top.ordenados();
+    }
+
+    /**
+     * Puntaje del documento para una consulta normalizada que contiene: tipo de
+     * coincidencia (bits 40+), importancia (bits 16-39) y brevedad del campo
+     * principal (bits 0-15).
+     */
+    private long puntaje(int documento, String consulta) {
+        String[] campos = texto.campos(documento);
+        int coincidencia = 0;
+        for (String campo : campos) {
+            if (campo.equals(consulta)) {
+                coincidencia = EXACTO;
+                break;
+            }
+            if (campo.startsWith(consulta)) {
+                coincidencia = Math.max(coincidencia, PREFIJO);
+                continue;
+            }
+            for (int i = campo.indexOf(consulta); i >= 0 && coincidencia < PREFIJO_PALABRA; i = campo.indexOf(consulta, i + 1)) {
+                coincidencia = Character.isLetterOrDigit(campo.charAt(i - 1)) ? Math.max(coincidencia, SUBCADENA) : PREFIJO_PALABRA;
+            }
+        }
+        int largo = campos.length > 0 ? Math.min(campos[0].length(), 0xFFFF) : 0;
+        return ((long) coincidencia << 40) | ((long) importancia[documento] << 16) | (0xFFFF - largo);
+    }
+
+    /**
+     * Heap mínimo acotado a k elementos: la raíz es el peor de los k mejores vistos
+     * (menor puntaje; a igual puntaje, mayor documento).
+     */
+    private static final class TopK {
+        private final long[] puntajes;
+        private final int[] documentos;
+        private int tamano;
+
+        TopK(int k) {
+            this.puntajes = new long[k];
+            this.documentos = new int[k];
+        }
+
+        /** true si (pa, da) es peor que (pb, db). */
+        private static boolean peor(long pa, int da, long pb, int db) {
+            return pa < pb || (pa == pb && da > db);
+        }
+
+        void ofrecer(int documento, long puntaje) {
+            if (tamano < puntajes.length) {
+                int i = tamano++;
+                while (i > 0) {
+                    int padre = (i - 1) >>> 1;
+                    if (!peor(puntaje, documento, puntajes[padre], documentos[padre])) break;
+                    puntajes[i] = puntajes[padre];
+                    documentos[i] = documentos[padre];
+                    i = padre;
+                }
+                puntajes[i] = puntaje;
+                documentos[i] = documento;
+            } else if (peor(puntajes[0], documentos[0], puntaje, documento)) {
+                bajar(puntaje, documento);
+            }
+        }
+
+        /** Reemplaza la raíz por (puntaje, documento) y la hunde hasta su lugar. */
+        private void bajar(long puntaje, int documento) {
+            int i = 0;
+            while (true) {
+                int hijo = 2 * i + 1;
+                if (hijo >= tamano) break;
+                if (hijo + 1 < tamano && peor(puntajes[hijo + 1], documentos[hijo + 1], puntajes[hijo], documentos[hijo])) {
+                    hijo++;
+                }
+                if (!peor(puntajes[hijo], documentos[hijo], puntaje, documento)) break;
+                puntajes[i] = puntajes[hijo];
+                documentos[i] = documentos[hijo];
+                i = hijo;
+            }
+            puntajes[i] = puntaje;
+            documentos[i] = documento;
+        }
+
+        /** Documentos del mejor al peor (vacía el heap). */
+        int[] ordenados() {
+            int[] resultado = new int[tamano];
+            for (int i = tamano - 1; i >= 0; i--) {
+                resultado[i] = documentos[0];
+                tamano--;
+                if (tamano > 0) bajar(puntajes[tamano], documentos[tamano]);
+            }
+            return resultado;
+        }
+    }
+
+    // =========================================================================
+    // CONSTRUCCIÓN
+    // =========================================================================
+
+    public static final class Builder {
+        private final TrigramIndex.Builder texto = new TrigramIndex.Builder();
+        private int[] importancia = new int[16];
+        private int numDocumentos;
+
+        /**
+         * Agrega un documento; el primer campo es el principal (nombre) y los null se
+         * ignoran.
+         *
+         * @param importancia Entre 0 y MAX_IMPORTANCIA; mayor sube en el ranking
+         * @return Número del documento (consecutivo desde 0)
+         */
+        public int add(int importancia, String... campos) {
+            if (importancia < 0 || importancia > MAX_IMPORTANCIA) {
+                throw new IllegalArgumentException("Importancia fuera de rango: " + importancia);
+            }
+            int documento = texto.add(campos);
+            if (documento == this.importancia.length) {
+                this.importancia = Arrays.copyOf(this.importancia, documento * 2);
+            }
+            this.importancia[documento] = importancia;
+            numDocumentos++;
+            return documento;
+        }
+
+        public AutocompleteIndex build() {
+            AutocompleteIndex indice = new AutocompleteIndex(texto.build(),
+                    Arrays.copyOf(importancia, numDocumentos), new HashMap<>());
+
+            // Cada subcadena de 1 a 3 caracteres de cada documento compite en el heap de esa consulta
+            Map<String, TopK> heaps = new HashMap<>();
+            Set<String> cortas = new HashSet<>();
+            for (int documento = 0; documento < numDocumentos; documento++) {
+                cortas.clear();
+                for (String campo : indice.texto.campos(documento)) {
+                    for (int n = 1; n <= 3; n++) {
+                        for (int i = 0; i + n <= campo.length(); i++) {
+                            cortas.add(campo.substring(i, i + n));
+                        }
+                    }
+                }
+                for (String corta : cortas) {
+                    heaps.computeIfAbsent(corta, k -> new TopK(K_PRECALCULADO))
+                            .ofrecer(documento, indice.puntaje(documento, corta));
+                }
+            }
+            heaps.forEach((corta, top) -> indice.mejoresCortas.put(corta, top.ordenados()));
+            return indice;
+        }
+    }
+
+    /**
+     * Estadísticas del índice para debugging.
+     */
+    public String getStats() {
+        return String.format("Autocompletado - Documentos: %d, Consultas cortas precalculadas: %d",
+                importancia.length, mejoresCortas.size());
+    }
+}
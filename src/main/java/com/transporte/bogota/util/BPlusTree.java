@@ -4,13 +4,18 @@ import java.util.*;
 
 /**
  * Implementación de un Árbol B+ para indexación eficiente de estaciones.
- * Optimiza búsquedas por prefijo y rango.
+ * Búsqueda exacta por clave; las búsquedas por texto de las estaciones usan
+ * AutocompleteIndex y SymSpellIndex.
  *
  * Características:
  * - Orden del árbol: 50 (permite hasta 100 claves por nodo)
  * - Todas las claves están en las hojas
- * - Las hojas están enlazadas para búsquedas de rango eficientes
- * - Complejidad de búsqueda: O(log n)
+ * - Las hojas están enlazadas para recorrer todos los valores en orden
+ * - Complejidad de búsqueda: O(log n), con búsqueda binaria dentro de cada nodo
+ * - La inserción guarda el camino raíz-hoja, así que las divisiones suben por él
+ *   sin buscar al padre
+ * - Carga masiva (bulkLoad) de entradas ordenadas construyendo el árbol de abajo
+ *   hacia arriba en O(n)
  */
 public class BPlusTree<K extends Comparable<K>, V> {
 
@@ -22,6 +27,82 @@ public class BPlusTree<K extends Comparable<K>, V> {
         this.root = null;
     }
 
+    /**
+     * Construye un árbol a partir de claves ya ordenadas (y sus valores en el mismo
+     * orden), llenando cada nivel de izquierda a derecha. Con claves repetidas se
+     * queda el último valor, igual que con inserciones sucesivas.
+     *
+     * @throws IllegalArgumentException si las claves no están ordenadas o los tamaños no coinciden
+     */
+    public static <K extends Comparable<K>, V> BPlusTree<K, V> bulkLoad(List<K> sortedKeys, List<V> values) {
+        if (sortedKeys.size() != values.size()) {
+            throw new IllegalArgumentException("Claves y valores deben tener el mismo tamaño");
+        }
+        BPlusTree<K, V> tree = new BPlusTree<>();
+
+        // Entradas únicas (la última gana) en orden
+        List<K> keys = new ArrayList<>(sortedKeys.size());
+        List<V> vals = new ArrayList<>(values.size());
+        for (int i = 0; i < sortedKeys.size(); i++) {
+            K key = sortedKeys.get(i);
+            if (key == null) continue;
+            int last = keys.size() - 1;
+            int cmp = last >= 0 ? key.compareTo(keys.get(last)) : 1;
+            if (cmp < 0) {
+                throw new IllegalArgumentException("Claves no ordenadas en la posición " + i);
+            }
+            if (cmp == 0) {
+                vals.set(last, values.get(i));
+            } else {
+                keys.add(key);
+                vals.add(values.get(i));
+            }
+        }
+        if (keys.isEmpty()) return tree;
+
+        // Hojas: tantas como hagan falta con ORDER claves, repartidas de forma pareja
+        int leafCount = (keys.size() + ORDER - 1) / ORDER;
+        List<BPlusTree<K, V>.Node> level = new ArrayList<>(leafCount);
+        List<K> minKeys = new ArrayList<>(leafCount);
+        BPlusTree<K, V>.LeafNode previous = null;
+        for (int j = 0; j < leafCount; j++) {
+            int from = (int) ((long) keys.size() * j / leafCount);
+            int to = (int) ((long) keys.size() * (j + 1) / leafCount);
+            BPlusTree<K, V>.LeafNode leaf = tree.new LeafNode();
+            leaf.keys.addAll(keys.subList(from, to));
+            leaf.values.addAll(vals.subList(from, to));
+            if (previous == null) {
+                tree.firstLeaf = leaf;
+            } else {
+                previous.next = leaf;
+            }
+            previous = leaf;
+            level.add(leaf);
+            minKeys.add(keys.get(from));
+        }
+
+        // Niveles internos: cada nodo agrupa hasta ORDER + 1 hijos; la clave que separa
+        // dos hijos es la menor clave del subárbol derecho
+        while (level.size() > 1) {
+            int parentCount = (level.size() + ORDER) / (ORDER + 1);
+            List<BPlusTree<K, V>.Node> parents = new ArrayList<>(parentCount);
+            List<K> parentMinKeys = new ArrayList<>(parentCount);
+            for (int j = 0; j < parentCount; j++) {
+                int from = (int) ((long) level.size() * j / parentCount);
+                int to = (int) ((long) level.size() * (j + 1) / parentCount);
+                BPlusTree<K, V>.InternalNode parent = tree.new InternalNode();
+                parent.children.addAll(level.subList(from, to));
+                parent.keys.addAll(minKeys.subList(from + 1, to));
+                parents.add(parent);
+                parentMinKeys.add(minKeys.get(from));
+            }
+            level = parents;
+            minKeys = parentMinKeys;
+        }
+        tree.root = level.get(0);
+        return tree;
+    }
+
     /**
      * Inserta un par clave-valor en el árbol.
      */
@@ -33,27 +114,45 @@ public class BPlusTree<K extends Comparable<K>, V> {
             firstLeaf = (LeafNode) root;
         }
 
-        LeafNode leaf = findLeafNode(key);
+        // Descenso guardando los nodos internos del camino
+        List<InternalNode> path = new ArrayList<>();
+        Node node = root;
+        while (node instanceof InternalNode) {
+            InternalNode internal = (InternalNode) node;
+            path.add(internal);
+            node = internal.children.get(internal.childIndex(key));
+        }
+        LeafNode leaf = (LeafNode) node;
 
         if (leaf.insert(key, value)) {
             // No hay overflow, inserción exitosa
             return;
         }
 
-        // Overflow: dividir el nodo
+        // Overflow: dividir la hoja y subir la clave separadora por el camino
         LeafNode newLeaf = leaf.split();
         K newKey = newLeaf.keys.get(0);
+        Node left = leaf;
+        Node right = newLeaf;
 
-        if (leaf == root) {
-            InternalNode newRoot = new InternalNode();
-            newRoot.keys.add(newKey);
-            newRoot.children.add(leaf);
-            newRoot.children.add(newLeaf);
-            root = newRoot;
-        } else {
-            InternalNode parent = findParent(root, leaf);
-            insertInParent(parent, newKey, leaf, newLeaf);
+        for (int level = path.size() - 1; level >= 0; level--) {
+            InternalNode parent = path.get(level);
+            if (parent.insert(newKey, right)) {
+                return;
+            }
+            // Overflow en nodo interno: la primera clave del nuevo nodo sube al abuelo
+            InternalNode newInternal = parent.splitInternal();
+            newKey = newInternal.keys.remove(0);
+            left = parent;
+            right = newInternal;
         }
+
+        // Se dividió la raíz
+        InternalNode newRoot = new InternalNode();
+        newRoot.keys.add(newKey);
+        newRoot.children.add(left);
+        newRoot.children.add(right);
+        root = newRoot;
     }
 
     /**
@@ -63,67 +162,11 @@ public class BPlusTree<K extends Comparable<K>, V> {
         if (root == null || key == null) return null;
 
         LeafNode leaf = findLeafNode(key);
-        int index = leaf.keys.indexOf(key);
+        int index = Collections.binarySearch(leaf.keys, key);
 
         return index >= 0 ? leaf.values.get(index) : null;
     }
 
-    /**
-     * Busca todos los valores cuyas claves comienzan con el prefijo dado.
-     * Ideal para búsqueda autocompletada.
-     */
-    public List<V> searchByPrefix(String prefix, int limit) {
-        List<V> results = new ArrayList<>();
-        if (root == null || prefix == null) return results;
-
-        String prefixLower = prefix.toLowerCase();
-
-        // Comenzar desde la primera hoja
-        LeafNode current = firstLeaf;
-
-        while (current != null && results.size() < limit) {
-            for (int i = 0; i < current.keys.size() && results.size() < limit; i++) {
-                K key = current.keys.get(i);
-                if (key instanceof String) {
-                    String keyStr = ((String) key).toLowerCase();
-                    if (keyStr.startsWith(prefixLower)) {
-                        results.add(current.values.get(i));
-                    }
-                }
-            }
-            current = current.next;
-        }
-
-        return results;
-    }
-
-    /**
-     * Busca todos los valores cuyas claves contienen el texto dado.
-     */
-    public List<V> searchByContains(String text, int limit) {
-        List<V> results = new ArrayList<>();
-        if (root == null || text == null) return results;
-
-        String textLower = text.toLowerCase();
-
-        LeafNode current = firstLeaf;
-
-        while (current != null && results.size() < limit) {
-            for (int i = 0; i < current.keys.size() && results.size() < limit; i++) {
-                K key = current.keys.get(i);
-                if (key instanceof String) {
-                    String keyStr = ((String) key).toLowerCase();
-                    if (keyStr.contains(textLower)) {
-                        results.add(current.values.get(i));
-                    }
-                }
-            }
-            current = current.next;
-        }
-
-        return results;
-    }
-
     /**
      * Obtiene todos los valores en orden.
      */
@@ -141,68 +184,12 @@ public class BPlusTree<K extends Comparable<K>, V> {
     }
 
     private LeafNode findLeafNode(K key) {
-        if (root instanceof LeafNode) {
-            return (LeafNode) root;
-        }
-
-        InternalNode node = (InternalNode) root;
-
-        while (node != null) {
-            int i = 0;
-            while (i < node.keys.size() && key.compareTo(node.keys.get(i)) >= 0) {
-                i++;
-            }
-
-            Node child = node.children.get(i);
-            if (child instanceof LeafNode) {
-                return (LeafNode) child;
-            }
-            node = (InternalNode) child;
-        }
-
-        return null;
-    }
-
-    private InternalNode findParent(Node current, Node child) {
-        if (current instanceof LeafNode) {
-            return null;
-        }
-
-        InternalNode internal = (InternalNode) current;
-
-        for (Node node : internal.children) {
-            if (node == child) {
-                return internal;
-            }
-            if (node instanceof InternalNode) {
-                InternalNode parent = findParent(node, child);
-                if (parent != null) return parent;
-            }
-        }
-
-        return null;
-    }
-
-    private void insertInParent(InternalNode parent, K key, Node left, Node right) {
-        if (parent.insert(key, right)) {
-            return;
-        }
-
-        // Overflow en nodo interno
-        InternalNode newInternal = parent.splitInternal();
-        K newKey = newInternal.keys.get(0);
-        newInternal.keys.remove(0);
-
-        if (parent == root) {
-            InternalNode newRoot = new InternalNode();
-            newRoot.keys.add(newKey);
-            newRoot.children.add(parent);
-            newRoot.children.add(newInternal);
-            root = newRoot;
-        } else {
-            InternalNode grandParent = findParent(root, parent);
-            insertInParent(grandParent, newKey, parent, newInternal);
+        Node node = root;
+        while (node instanceof InternalNode) {
+            InternalNode internal = (InternalNode) node;
+            node = internal.children.get(internal.childIndex(key));
         }
+        return (LeafNode) node;
     }
 
     // =========================================================================
@@ -229,11 +216,18 @@ public class BPlusTree<K extends Comparable<K>, V> {
             this.children = new ArrayList<>();
         }
 
+        /**
+         * Hijo donde puede estar la clave: el primero cuya clave separadora es mayor
+         * (las claves iguales a un separador están a su derecha).
+         */
+        int childIndex(K key) {
+            int index = Collections.binarySearch(keys, key);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
         boolean insert(K key, Node child) {
-            int i = 0;
-            while (i < keys.size() && key.compareTo(keys.get(i)) > 0) {
-                i++;
-            }
+            int index = Collections.binarySearch(keys, key);
+            int i = index >= 0 ? index : -index - 1;
             keys.add(i, key);
             children.add(i + 1, child);
 
@@ -270,17 +264,15 @@ public class BPlusTree<K extends Comparable<K>, V> {
         }
 
         boolean insert(K key, V value) {
-            int i = 0;
-            while (i < keys.size() && key.compareTo(keys.get(i)) > 0) {
-                i++;
-            }
+            int index = Collections.binarySearch(keys, key);
 
             // Verificar duplicado
-            if (i < keys.size() && key.compareTo(keys.get(i)) == 0) {
-                values.set(i, value); // Actualizar valor existente
+            if (index >= 0) {
+                values.set(index, value); // Actualizar valor existente
                 return true;
             }
 
+            int i = -index - 1;
             keys.add(i, key);
             values.add(i, value);
 
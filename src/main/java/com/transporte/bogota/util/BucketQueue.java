@@ -0,0 +1,136 @@
+package com.transporte.bogota.util;
+
+import java.util.Arrays;
+
+/**
+ * Cola de prioridad monótona de Dial (bucket queue) para pesos enteros pequeños.
+ *
+ * Mientras las prioridades pendientes estén en la ventana [cursor, cursor + numBuckets),
+ * cada prioridad p vive en el bucket p % numBuckets, así que insertar es O(1) y
+ * extraer solo avanza el cursor sobre buckets vacíos. En Dijkstra con pesos en
+ * [0, C] basta una ventana de C + 1 buckets, y el recorrido total del cursor está
+ * acotado por la distancia final, lo que deja la búsqueda en O(m + distancia).
+ *
+ * Es monótona: no acepta prioridades menores que el último mínimo extraído. Si una
+ * prioridad cae fuera de la ventana, la ventana crece y se redistribuyen las entradas.
+ */
+public final class BucketQueue implements IntMinQueue {
+
+    private int[][] buckets;
+    private int[] tamanos;
+    private int numBuckets;
+    private int cursor; // prioridad mínima posible entre las entradas pendientes
+    private int size;
+
+    /**
+     * @param rango Diferencia máxima esperada entre la prioridad insertada y el mínimo
+     *              actual (en Dijkstra, el peso máximo de arista)
+     */
+    public BucketQueue(int rango) {
+        this.numBuckets = Math.max(rango + 1, 2);
+        this.buckets = new int[numBuckets][];
+        this.tamanos = new int[numBuckets];
+    }
+
+    @Override
+    public void offer(int nodo, int prioridad) {
+        if (prioridad < cursor) {
+            throw new IllegalArgumentException(
+                    "Prioridad " + prioridad + " menor que el mínimo actual " + cursor + " (cola monótona)");
+        }
+        if (prioridad - cursor >= numBuckets) {
+            crecer(prioridad - cursor + 1);
+        }
+        agregar(prioridad % numBuckets, nodo);
+        size++;
+    }
+
+    @Override
+    public int poll() {
+        int b = avanzar();
+        size--;
+        return buckets[b][--tamanos[b]];
+    }
+
+    @Override
+    public int peekPrioridad() {
+        avanzar();
+        return cursor;
+    }
+
+    @Override
+    public int peekNodo() {
+        int b = avanzar();
+        return buckets[b][tamanos[b] - 1];
+    }
+
+    @Override
+    public boolean isEmpty() { return size == 0; }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public void clear() {
+        Arrays.fill(tamanos, 0);
+        cursor = 0;
+        size = 0;
+    }
+
+    /**
+     * Vacía la cola para reutilizarla, garantizando al menos la ventana indicada.
+     */
+    public void reiniciar(int rango) {
+        if (rango + 1 > numBuckets) {
+            numBuckets = rango + 1;
+            buckets = new int[numBuckets][];
+            tamanos = new int[numBuckets];
+            cursor = 0;
+            size = 0;
+        } else {
+            clear();
+        }
+    }
+
+    /** Mueve el cursor hasta el primer bucket no vacío y devuelve su índice. */
+    private int avanzar() {
+        if (size == 0) {
+            throw new IllegalStateException("Cola vacía");
+        }
+        int b = cursor % numBuckets;
+        while (tamanos[b] == 0) {
+            cursor++;
+            if (++b == numBuckets) b = 0;
+        }
+        return b;
+    }
+
+    private void agregar(int b, int nodo) {
+        int[] bucket = buckets[b];
+        if (bucket == null) {
+            bucket = buckets[b] = new int[4];
+        } else if (tamanos[b] == bucket.length) {
+            bucket = buckets[b] = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+        bucket[tamanos[b]++] = nodo;
+    }
+
+    /** Amplía la ventana y reubica cada bucket según su prioridad real. */
+    private void crecer(int minimo) {
+        int[][] anteriores = buckets;
+        int[] tamanosAnteriores = tamanos;
+        int anterior = numBuckets;
+
+        numBuckets = Math.max(anterior * 2, minimo);
+        buckets = new int[numBuckets][];
+        tamanos = new int[numBuckets];
+        for (int k = 0; k < anterior; k++) {
+            int prioridad = cursor + k;
+            int b = prioridad % anterior;
+            int destino = prioridad % numBuckets;
+            for (int i = 0; i < tamanosAnteriores[b]; i++) {
+                agregar(destino, anteriores[b][i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.transporte.bogota.util;
+
+import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.model.Ruta;
+import com.transporte.bogota.model.SistemaTransporte;
+
+import java.util.*;
+
+/**
+ * Grafo dirigido inmutable en formato CSR (Compressed Sparse Row).
+ *
+ * Cada estación recibe un ordinal denso 0..n-1 y las aristas salientes del nodo u
+ * ocupan el rango [offsets[u], offsets[u+1]) de los arreglos paralelos
+ * destinos, tiempos y capacidades. Los algoritmos recorren la red sin hashing
+ * ni objetos por arista; la única búsqueda en mapa es al traducir la estación
+ * de entrada a su ordinal.
+ *
+ * También mantiene el índice inverso (aristas entrantes por nodo), necesario para
+ * búsquedas hacia atrás desde el destino.
+ */
+public final class CompactGraph {
+
+    private final Estacion[] estaciones;
+    private final Map<Estacion, Integer> ordinales;
+    private final int[] offsets;
+    private final int[] destinos;
+    private final int[] tiempos;
+    private final int[] capacidades;
+    private final int[] offsetsEntrantes;  // aristas entrantes de v en [offsetsEntrantes[v], offsetsEntrantes[v+1])
+    private final int[] aristasEntrantes;  // índice de la arista (para tiempo/capacidad)
+    private final int[] origenesEntrantes; // nodo de origen de esa arista
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int tiempoMinimo;
+    private final int tiempoMaximo;
+
+    private CompactGraph(Estacion[] estaciones, int[] offsets, int[] destinos,
+                         int[] tiempos, int[] capacidades) {
+        this.estaciones = estaciones;
+        this.offsets = offsets;
+        this.destinos = destinos;
+        this.tiempos = tiempos;
+        this.capacidades = capacidades;
+        this.tiempoMinimo = minimo(tiempos);
+        this.tiempoMaximo = maximo(tiempos);
+
+        // Índice inverso por counting sort sobre el destino
+        int n = estaciones.length;
+        this.offsetsEntrantes = new int[n + 1];
+        this.aristasEntrantes = new int[destinos.length];
+        this.origenesEntrantes = new int[destinos.length];
+        for (int v : destinos) {
+            offsetsEntrantes[v + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsetsEntrantes[v + 1] += offsetsEntrantes[v];
+        }
+        int[] cursor = Arrays.copyOf(offsetsEntrantes, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int pos = cursor[destinos[e]]++;
+                aristasEntrantes[pos] = e;
+                origenesEntrantes[pos] = u;
+            }
+        }
+
+        this.ordinales = new HashMap<>(estaciones.length * 2);
+        this.latitudes = new double[estaciones.length];
+        this.longitudes = new double[estaciones.length];
+        for (int i = 0; i < estaciones.length; i++) {
+            ordinales.put(estaciones[i], i);
+            latitudes[i] = estaciones[i].getLatitud();
+            longitudes[i] = estaciones[i].getLongitud();
+        }
+    }
+
+    /** Copia superficial que comparte estructura y solo reemplaza pesos o capacidades. */
+    private CompactGraph(CompactGraph base, int[] tiempos, int[] capacidades) {
+        this.estaciones = base.estaciones;
+        this.ordinales = base.ordinales;
+        this.offsets = base.offsets;
+        this.destinos = base.destinos;
+        this.offsetsEntrantes = base.offsetsEntrantes;
+        this.aristasEntrantes = base.aristasEntrantes;
+        this.origenesEntrantes = base.origenesEntrantes;
+        this.latitudes = base.latitudes;
+        this.longitudes = base.longitudes;
+        this.tiempos = tiempos;
+        this.capacidades = capacidades;
+        this.tiempoMinimo = minimo(tiempos);
+        this.tiempoMaximo = maximo(tiempos);
+    }
+
+    private static int minimo(int[] valores) {
+        int min = 0;
+        for (int i = 0; i < valores.length; i++) {
+            if (i == 0 || valores[i] < min) min = valores[i];
+        }
+        return min;
+    }
+
+    private static int maximo(int[] valores) {
+        int max = 0;
+        for (int v : valores) {
+            if (v > max) max = v;
+        }
+        return max;
+    }
+
+    /**
+     * Construye el grafo CSR con todas las estaciones y rutas del sistema.
+     * Los ordinales siguen el orden de los IDs, por lo que son estables entre cargas.
+     */
+    public static CompactGraph desde(SistemaTransporte sistema) {
+        List<Estacion> nodos = new ArrayList<>(sistema.getAllEstaciones());
+        nodos.sort(Comparator.comparing(Estacion::getId));
+
+        Builder builder = new Builder(nodos);
+        for (Ruta ruta : sistema.getAllRutas()) {
+            builder.addArista(ruta.getOrigen(), ruta.getDestino(), ruta.getTiempoViaje(), ruta.getCapacidad());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adaptador desde el grafo basado en mapas. Conserva las aristas paralelas.
+     */
+    public static CompactGraph desde(Graph grafo) {
+        List<Estacion> nodos = new ArrayList<>(grafo.getNodos());
+        nodos.sort(Comparator.comparing(Estacion::getId));
+
+        Builder builder = new Builder(nodos);
+        for (Estacion u : nodos) {
+            for (GraphEdge arista : grafo.getVecinos(u)) {
+                builder.addArista(arista.getOrigen(), arista.getDestino(), arista.getTiempo(), arista.getCapacidad());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Mismo grafo con otros tiempos por arista (p. ej. penalizados por congestión).
+     * No copia la estructura: el arreglo debe tener una entrada por arista.
+     */
+    public CompactGraph conTiempos(int[] nuevosTiempos) {
+        if (nuevosTiempos.length != destinos.length) {
+            throw new IllegalArgumentException("Se esperaban " + destinos.length + " tiempos");
+        }
+        return new CompactGraph(this, nuevosTiempos, capacidades);
+    }
+
+    /**
+     * Mismo grafo con otras capacidades por arista (p. ej. reducidas en hora pico).
+     */
+    public CompactGraph conCapacidades(int[] nuevasCapacidades) {
+        if (nuevasCapacidades.length != destinos.length) {
+            throw new IllegalArgumentException("Se esperaban " + destinos.length + " capacidades");
+        }
+        return new CompactGraph(this, tiempos, nuevasCapacidades);
+    }
+
+    /**
+     * true si ambos grafos comparten la misma estructura CSR (uno deriva del otro
+     * con conTiempos/conCapacidades), aunque sus pesos o capacidades difieran.
+     */
+    public boolean mismaEstructura(CompactGraph otro) {
+        return otro != null && otro.destinos == destinos;
+    }
+
+    // ================== Consultas ==================
+
+    public int getNumNodos() { return estaciones.length; }
+
+    public int getNumAristas() { return destinos.length; }
+
+    /**
+     * Ordinal de la estación, o -1 si no pertenece al grafo.
+     */
+    public int indice(Estacion e) {
+        Integer idx = e == null ? null : ordinales.get(e);
+        return idx != null ? idx : -1;
+    }
+
+    public Estacion getEstacion(int nodo) { return estaciones[nodo]; }
+
+    /** Primera arista saliente de u (inclusive). */
+    public int inicioAristas(int u) { return offsets[u]; }
+
+    /** Fin del rango de aristas salientes de u (exclusivo). */
+    public int finAristas(int u) { return offsets[u + 1]; }
+
+    public int grado(int u) { return offsets[u + 1] - offsets[u]; }
+
+    /** Nodo de origen de la arista e (búsqueda binaria sobre offsets). */
+    public int origen(int e) {
+        int lo = 0, hi = estaciones.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= e) lo = mid; else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /** Primera posición del índice inverso para v (inclusive). */
+    public int inicioEntrantes(int v) { return offsetsEntrantes[v]; }
+
+    /** Fin del rango del índice inverso para v (exclusivo). */
+    public int finEntrantes(int v) { return offsetsEntrantes[v + 1]; }
+
+    /** Arista correspondiente a la posición k del índice inverso. */
+    public int aristaEntrante(int k) { return aristasEntrantes[k]; }
+
+    /** Nodo de origen de la arista en la posición k del índice inverso. */
+    public int origenEntrante(int k) { return origenesEntrantes[k]; }
+
+    public int destino(int e) { return destinos[e]; }
+    public int tiempo(int e) { return tiempos[e]; }
+    public int capacidad(int e) { return capacidades[e]; }
+
+    public double latitud(int nodo) { return latitudes[nodo]; }
+    public double longitud(int nodo) { return longitudes[nodo]; }
+
+    /** Menor tiempo de arista (0 si no hay aristas). */
+    public int getTiempoMinimo() { return tiempoMinimo; }
+
+    /** Mayor tiempo de arista (0 si no hay aristas). */
+    public int getTiempoMaximo() { return tiempoMaximo; }
+
+    /**
+     * Máxima velocidad en línea recta (km/min) que permite alguna arista: distancia
+     * haversine entre sus extremos dividida por su tiempo. Es infinita si existe una
+     * arista de tiempo no positivo entre puntos distintos.
+     */
+    public double velocidadMaximaKmMin() {
+        double maxima = 0;
+        for (int u = 0; u < estaciones.length; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = destinos[e];
+                double km = GeoUtils.distanciaKm(latitudes[u], longitudes[u], latitudes[v], longitudes[v]);
+                if (km == 0) continue;
+                if (tiempos[e] <= 0) return Double.POSITIVE_INFINITY;
+                maxima = Math.max(maxima, km / tiempos[e]);
+            }
+        }
+        return maxima;
+    }
+
+    /**
+     * Materializa la arista e como GraphEdge, solo para resultados que salen del algoritmo.
+     */
+    public GraphEdge arista(int e) {
+        return new GraphEdge(estaciones[origen(e)], estaciones[destinos[e]], tiempos[e], capacidades[e]);
+    }
+
+    /**
+     * Reconstruye la lista de estaciones a partir de un arreglo de predecesores (-1 = sin predecesor).
+     */
+    public List<Estacion> reconstruirCamino(int[] predecesores, int origen, int destino) {
+        List<Estacion> camino = new ArrayList<>();
+        int actual = destino;
+        while (actual != -1) {
+            camino.add(estaciones[actual]);
+            if (actual == origen) {
+                Collections.reverse(camino);
+                return camino;
+            }
+            actual = predecesores[actual];
+        }
+        return Collections.emptyList();
+    }
+
+    // ================== Construcción ==================
+
+    /**
+     * Acumula aristas en arreglos planos y las ordena por origen con counting sort.
+     */
+    static final class Builder {
+        private final Estacion[] nodos;
+        private final Map<Estacion, Integer> indices;
+        private int[] origenes = new int[16];
+        private int[] destinos = new int[16];
+        private int[] tiempos = new int[16];
+        private int[] capacidades = new int[16];
+        private int numAristas = 0;
+
+        Builder(List<Estacion> nodos) {
+            this.nodos = nodos.toArray(new Estacion[0]);
+            this.indices = new HashMap<>(nodos.size() * 2);
+            for (int i = 0; i < this.nodos.length; i++) {
+                indices.put(this.nodos[i], i);
+            }
+        }
+
+        void addArista(Estacion origen, Estacion destino, int tiempo, int capacidad) {
+            Integer u = indices.get(origen);
+            Integer v = indices.get(destino);
+            if (u == null || v == null) return;
+
+            if (numAristas == origenes.length) {
+                int nuevo = origenes.length * 2;
+                origenes = Arrays.copyOf(origenes, nuevo);
+                destinos = Arrays.copyOf(destinos, nuevo);
+                tiempos = Arrays.copyOf(tiempos, nuevo);
+                capacidades = Arrays.copyOf(capacidades, nuevo);
+            }
+            origenes[numAristas] = u;
+            destinos[numAristas] = v;
+            tiempos[numAristas] = tiempo;
+            capacidades[numAristas] = capacidad;
+            numAristas++;
+        }
+
+        CompactGraph build() {
+            int n = nodos.length;
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < numAristas; i++) {
+                offsets[origenes[i] + 1]++;
+            }
+            for (int u = 0; u < n; u++) {
+                offsets[u + 1] += offsets[u];
+            }
+
+            int[] cursor = Arrays.copyOf(offsets, n);
+            int[] dst = new int[numAristas];
+            int[] tie = new int[numAristas];
+            int[] cap = new int[numAristas];
+            for (int i = 0; i < numAristas; i++) {
+                int pos = cursor[origenes[i]]++;
+                dst[pos] = destinos[i];
+                tie[pos] = tiempos[i];
+                cap[pos] = capacidades[i];
+            }
+
+            return new CompactGraph(nodos, offsets, dst, tie, cap);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompactGraph{nodos=" + getNumNodos() + ", aristas=" + getNumAristas() + "}";
+    }
+}
@@ -0,0 +1,34 @@
+package com.transporte.bogota.util;
+
+/**
+ * Utilidades geográficas compartidas (distancias en kilómetros).
+ */
+public final class GeoUtils {
+
+    public static final double RADIO_TIERRA_KM = 6371.0;
+    public static final double KM_POR_GRADO_LAT = 111.32;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * Distancia haversine entre dos puntos.
+     */
+    public static double distanciaKm(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        double dlon = Math.toRadians(lon2 - lon1);
+        double dlat = Math.toRadians(lat2 - lat1);
+
+        double a = Math.sin(dlat / 2) * Math.sin(dlat / 2) +
+                   Math.cos(lat1Rad) * Math.cos(lat2Rad) *
+                   Math.sin(dlon / 2) * Math.sin(dlon / 2);
+
+        return RADIO_TIERRA_KM * 2 * Math.asin(Math.sqrt(a));
+    }
+
+    /** Kilómetros por grado de longitud a la latitud dada. */
+    public static double kmPorGradoLongitud(double lat) {
+        return KM_POR_GRADO_LAT * Math.cos(Math.toRadians(lat));
+    }
+}
@@ -10,15 +10,22 @@ import java.util.*;
 public class Graph {
 
     private final Map<Estacion, List<GraphEdge>> adj = new HashMap<>();
+    private CompactGraph compacto; // Vista CSR en caché, se invalida al modificar el grafo
+    private boolean congelado = false;
 
     public void addNodo(Estacion e) {
-        adj.putIfAbsent(e, new ArrayList<>());
+        verificarModificable();
+        if (adj.putIfAbsent(e, new ArrayList<>()) == null) {
+            compacto = null;
+        }
     }
 
     public void addArista(Estacion origen, Estacion destino, int tiempo, int capacidad) {
+        verificarModificable();
         addNodo(origen);
         addNodo(destino);
         adj.get(origen).add(new GraphEdge(origen, destino, tiempo, capacidad));
+        compacto = null;
     }
 
     public List<GraphEdge> getVecinos(Estacion e) {
@@ -33,6 +40,42 @@ public class Graph {
         return adj.containsKey(e);
     }
 
+    /**
+     * Adaptador a la representación CSR usada por los algoritmos.
+     * Se construye una sola vez y se reutiliza mientras el grafo no cambie.
+     */
+    public CompactGraph compactar() {
+        CompactGraph c = compacto;
+        if (c == null) {
+            c = CompactGraph.desde(this);
+            compacto = c;
+        }
+        return c;
+    }
+
+    /**
+     * Vuelve el grafo de solo lectura para poder compartirlo entre hilos:
+     * las listas de vecinos pasan a ser inmutables y la vista CSR queda precalculada.
+     */
+    public Graph congelar() {
+        if (!congelado) {
+            adj.replaceAll((e, vecinos) -> List.copyOf(vecinos));
+            compactar();
+            congelado = true;
+        }
+        return this;
+    }
+
+    public boolean isCongelado() {
+        return congelado;
+    }
+
+    private void verificarModificable() {
+        if (congelado) {
+            throw new UnsupportedOperationException("El grafo está congelado (snapshot de solo lectura)");
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("Graph:\n");
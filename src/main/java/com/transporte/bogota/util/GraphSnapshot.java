@@ -0,0 +1,76 @@
+package com.transporte.bogota.util;
+
+import com.transporte.bogota.algorithm.AltLandmarks;
+import com.transporte.bogota.algorithm.ContractionHierarchy;
+
+import java.nio.file.Path;
+
+/**
+ * Instantánea inmutable y versionada de la red completa.
+ *
+ * Se construye una sola vez por carga de datos y se comparte entre todos los
+ * hilos de petición; cada búsqueda solo asigna su propio estado (distancias,
+ * colas, residuales). Expone la vista CSR para los algoritmos, el grafo
+ * congelado para las APIs que aún reciben un Graph, el índice espacial de
+ * las estaciones para las consultas por caja geográfica, y los preprocesos de
+ * rutas punto a punto (jerarquía de contracción y landmarks de ALT).
+ */
+public final class GraphSnapshot {
+
+    private final long version;
+    private final long creadoEn;
+    private final Graph grafo;
+    private final CompactGraph compacto;
+    private final SpatialGridIndex indiceEspacial;
+    private final double velocidadMaxima;
+    private final ContractionHierarchy jerarquia;
+    private final AltLandmarks landmarks;
+
+    /**
+     * @param velocidadMaximaRutas Máximo de distanciaM / tiempoViaje de las rutas (km/min);
+     *                             se combina con la velocidad en línea recta del grafo para
+     *                             que la cota de A* sea admisible en todas las aristas.
+     */
+    public GraphSnapshot(long version, Graph grafo, double velocidadMaximaRutas) {
+        this(version, grafo, velocidadMaximaRutas, null);
+    }
+
+    /**
+     * @param archivoLandmarks Archivo donde se persisten los landmarks de ALT
+     *                         (null para calcularlos solo en memoria)
+     */
+    public GraphSnapshot(long version, Graph grafo, double velocidadMaximaRutas, Path archivoLandmarks) {
+        this.version = version;
+        this.creadoEn = System.currentTimeMillis();
+        this.grafo = grafo.congelar();
+        this.compacto = this.grafo.compactar();
+        this.indiceEspacial = new SpatialGridIndex(this.grafo.getNodos());
+        this.velocidadMaxima = Math.max(velocidadMaximaRutas, compacto.velocidadMaximaKmMin());
+        this.jerarquia = ContractionHierarchy.construir(compacto);
+        this.landmarks = AltLandmarks.cargarOConstruir(compacto, archivoLandmarks, AltLandmarks.NUM_LANDMARKS_DEFECTO);
+    }
+
+    public long getVersion() { return version; }
+    public long getCreadoEn() { return creadoEn; }
+
+    /** Grafo de solo lectura (lanza UnsupportedOperationException si se intenta modificar). */
+    public Graph getGrafo() { return grafo; }
+
+    public CompactGraph getCompacto() { return compacto; }
+
+    public SpatialGridIndex getIndiceEspacial() { return indiceEspacial; }
+
+    /** Velocidad máxima observada en la red (km/min), base de la heurística de A*. */
+    public double getVelocidadMaxima() { return velocidadMaxima; }
+
+    /** Contraction Hierarchies sobre la vista CSR, construida al publicar la instantánea. */
+    public ContractionHierarchy getJerarquia() { return jerarquia; }
+
+    /** Landmarks de ALT (cargados del archivo persistido o recalculados). */
+    public AltLandmarks getLandmarks() { return landmarks; }
+
+    @Override
+    public String toString() {
+        return "GraphSnapshot{version=" + version + ", " + compacto + "}";
+    }
+}
@@ -0,0 +1,27 @@
+package com.transporte.bogota.util;
+
+/**
+ * Cola de nodos enteros ordenada por prioridad entera ascendente.
+ *
+ * Las implementaciones admiten duplicados: el llamador descarta entradas
+ * obsoletas comparando con su propio arreglo de distancias o de visitados.
+ */
+public interface IntMinQueue {
+
+    void offer(int nodo, int prioridad);
+
+    /** Extrae el nodo con menor prioridad. La cola no debe estar vacía. */
+    int poll();
+
+    /** Prioridad del mínimo actual. La cola no debe estar vacía. */
+    int peekPrioridad();
+
+    /** Nodo con menor prioridad, sin extraerlo. La cola no debe estar vacía. */
+    int peekNodo();
+
+    boolean isEmpty();
+
+    int size();
+
+    void clear();
+}
@@ -0,0 +1,79 @@
+package com.transporte.bogota.util;
+
+import java.util.Arrays;
+
+/**
+ * Cola de prioridad binaria (min-heap) de nodos enteros con prioridad entera.
+ *
+ * Cada entrada se empaqueta en un long (prioridad en los 32 bits altos, nodo en
+ * los bajos), así que no hay boxing ni comparadores. Admite duplicados: el
+ * llamador descarta entradas obsoletas comparando con su arreglo de distancias.
+ */
+public final class IntPriorityQueue implements IntMinQueue {
+
+    private long[] heap;
+    private int size;
+
+    public IntPriorityQueue() {
+        this(64);
+    }
+
+    public IntPriorityQueue(int capacidadInicial) {
+        this.heap = new long[Math.max(capacidadInicial, 2)];
+    }
+
+    @Override
+    public void offer(int nodo, int prioridad) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        long entrada = ((long) prioridad << 32) | (nodo & 0xFFFFFFFFL);
+        int i = size++;
+        while (i > 0) {
+            int padre = (i - 1) >>> 1;
+            if (heap[padre] <= entrada) break;
+            heap[i] = heap[padre];
+            i = padre;
+        }
+        heap[i] = entrada;
+    }
+
+    /** Prioridad del mínimo actual. La cola no debe estar vacía. */
+    @Override
+    public int peekPrioridad() {
+        return (int) (heap[0] >> 32);
+    }
+
+    /** Nodo con menor prioridad, sin extraerlo. La cola no debe estar vacía. */
+    @Override
+    public int peekNodo() {
+        return (int) heap[0];
+    }
+
+    /** Extrae el nodo con menor prioridad. La cola no debe estar vacía. */
+    @Override
+    public int poll() {
+        long min = heap[0];
+        long ultimo = heap[--size];
+        int i = 0;
+        int mitad = size >>> 1;
+        while (i < mitad) {
+            int hijo = 2 * i + 1;
+            if (hijo + 1 < size && heap[hijo + 1] < heap[hijo]) hijo++;
+            if (ultimo <= heap[hijo]) break;
+            heap[i] = heap[hijo];
+            i = hijo;
+        }
+        heap[i] = ultimo;
+        return (int) min;
+    }
+
+    @Override
+    public boolean isEmpty() { return size == 0; }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public void clear() { size = 0; }
+}
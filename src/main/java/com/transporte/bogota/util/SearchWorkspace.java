@@ -0,0 +1,175 @@
+package com.transporte.bogota.util;
+
+import com.transporte.bogota.model.Estacion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Espacio de trabajo reutilizable por hilo para las búsquedas sobre el grafo CSR.
+ *
+ * Guarda arreglos int de distancia, predecesor y marcas indexados por ordinal, con
+ * tamaño igual al número de estaciones. En lugar de limpiarlos en cada consulta se
+ * incrementa un contador de época: una entrada solo es válida si su marca coincide
+ * con la época actual, así que reiniciar cuesta O(1). Las colas de prioridad también
+ * se reutilizan, de modo que una consulta en régimen estable solo asigna su resultado.
+ *
+ * No es reentrante: un algoritmo no debe invocar a otro que use el espacio de trabajo
+ * mientras conserva datos de la época en curso.
+ */
+public final class SearchWorkspace {
+
+    public static final int INFINITO = Integer.MAX_VALUE;
+
+    private static final ThreadLocal<SearchWorkspace> POR_HILO = ThreadLocal.withInitial(SearchWorkspace::new);
+
+    private int capacidad;
+    private int epoca;
+
+    private final Lado adelante = new Lado();
+    private final Lado atras = new Lado();
+
+    private SearchWorkspace() {
+    }
+
+    /**
+     * Espacio de trabajo del hilo actual, dimensionado para numNodos y con una época nueva.
+     */
+    public static SearchWorkspace actual(int numNodos) {
+        SearchWorkspace ws = POR_HILO.get();
+        ws.asegurarCapacidad(numNodos);
+        ws.nuevaEpoca();
+        return ws;
+    }
+
+    /**
+     * Invalida en O(1) todas las distancias, predecesores y marcas.
+     * Solo cuando el contador da la vuelta se limpian los arreglos.
+     */
+    public void nuevaEpoca() {
+        if (++epoca == Integer.MAX_VALUE) {
+            adelante.limpiar();
+            atras.limpiar();
+            epoca = 1;
+        }
+    }
+
+    private void asegurarCapacidad(int numNodos) {
+        if (numNodos <= capacidad) return;
+        capacidad = Math.max(numNodos, capacidad + (capacidad >> 1));
+        adelante.redimensionar(capacidad);
+        atras.redimensionar(capacidad);
+        epoca = 0; // Arreglos nuevos: todas las marcas están en 0
+    }
+
+    /** Estado de la búsqueda hacia adelante (o de la única búsqueda). */
+    public Lado adelante() { return adelante; }
+
+    /** Estado de la búsqueda hacia atrás en algoritmos bidireccionales. */
+    public Lado atras() { return atras; }
+
+    /**
+     * Distancias, predecesores y marcas de una dirección de búsqueda.
+     */
+    public final class Lado {
+        private int[] distancia = new int[0];
+        private int[] predecesor = new int[0];
+        private int[] tocado = new int[0];    // época en que se fijó distancia/predecesor
+        private int[] asentado = new int[0];  // época en que el nodo quedó asentado/visitado
+        private int[] cola = new int[0];
+        private final IntPriorityQueue heap = new IntPriorityQueue();
+        private BucketQueue buckets;
+
+        private Lado() {
+        }
+
+        /** Distancia tentativa de v en la época actual (INFINITO si no se ha tocado). */
+        public int distancia(int v) {
+            return tocado[v] == epoca ? distancia[v] : INFINITO;
+        }
+
+        /** Predecesor de v en la época actual (-1 si no tiene). */
+        public int predecesor(int v) {
+            return tocado[v] == epoca ? predecesor[v] : -1;
+        }
+
+        public boolean tocado(int v) {
+            return tocado[v] == epoca;
+        }
+
+        /** Fija distancia y predecesor de v para la época actual. */
+        public void actualizar(int v, int d, int pred) {
+            distancia[v] = d;
+            predecesor[v] = pred;
+            tocado[v] = epoca;
+        }
+
+        public boolean asentado(int v) {
+            return asentado[v] == epoca;
+        }
+
+        public void asentar(int v) {
+            asentado[v] = epoca;
+        }
+
+        /** Quita la marca de asentado de v (la época 0 nunca es la actual). */
+        public void desasentar(int v) {
+            asentado[v] = 0;
+        }
+
+        /** Arreglo auxiliar de al menos numNodos enteros (cola FIFO de BFS, listas de nodos). */
+        public int[] cola() {
+            return cola;
+        }
+
+        /** Heap binario vacío (pesos arbitrarios). */
+        public IntPriorityQueue heap() {
+            heap.clear();
+            return heap;
+        }
+
+        /**
+         * Cola de buckets vacía para prioridades monótonas con la ventana indicada.
+         */
+        public BucketQueue buckets(int rango) {
+            if (buckets == null) {
+                buckets = new BucketQueue(rango);
+            } else {
+                buckets.reiniciar(rango);
+            }
+            return buckets;
+        }
+
+        /**
+         * Camino origen→destino siguiendo predecesores (vacío si destino no se alcanzó).
+         */
+        public List<Estacion> reconstruirCamino(CompactGraph grafo, int origen, int destino) {
+            List<Estacion> camino = new ArrayList<>();
+            int actual = destino;
+            while (actual != -1) {
+                camino.add(grafo.getEstacion(actual));
+                if (actual == origen) {
+                    Collections.reverse(camino);
+                    return camino;
+                }
+                actual = predecesor(actual);
+            }
+            return Collections.emptyList();
+        }
+
+        private void redimensionar(int n) {
+            distancia = new int[n];
+            predecesor = new int[n];
+            tocado = new int[n];
+            asentado = new int[n];
+            cola = new int[n];
+        }
+
+        private void limpiar() {
+            Arrays.fill(tocado, 0);
+            Arrays.fill(asentado, 0);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.transporte.bogota.util;
+
+import com.transporte.bogota.model.Estacion;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Índice espacial de malla uniforme sobre latitud/longitud de las estaciones.
+ *
+ * Las estaciones se agrupan por celda en un arreglo CSR (inicio de cada celda +
+ * estaciones contiguas), así que una consulta por caja (los conjuntos de origen y
+ * destino de la capacidad de corredor) solo revisa las celdas que la intersecan en
+ * lugar de recorrer toda la red.
+ */
+public final class SpatialGridIndex {
+
+    private static final double TAMANO_CELDA_KM = 0.5;
+
+    private final Estacion[] estaciones;   // agrupadas por celda
+    private final int[] inicioCelda;        // offsets por celda (celdas + 1)
+    private final double minLat;
+    private final double minLon;
+    private final double tamanoCeldaKm;
+    private final double gradosCeldaLat;
+    private final double gradosCeldaLon;
+    private final int filas;
+    private final int columnas;
+
+    public SpatialGridIndex(Collection<Estacion> estaciones) {
+        this(estaciones, TAMANO_CELDA_KM);
+    }
+
+    public SpatialGridIndex(Collection<Estacion> todas, double tamanoCeldaKm) {
+        double latMin = Double.POSITIVE_INFINITY, latMax = Double.NEGATIVE_INFINITY;
+        double lonMin = Double.POSITIVE_INFINITY, lonMax = Double.NEGATIVE_INFINITY;
+        for (Estacion e : todas) {
+            latMin = Math.min(latMin, e.getLatitud());
+            latMax = Math.max(latMax, e.getLatitud());
+            lonMin = Math.min(lonMin, e.getLongitud());
+            lonMax = Math.max(lonMax, e.getLongitud());
+        }
+        if (todas.isEmpty()) {
+            latMin = latMax = lonMin = lonMax = 0;
+        }
+
+        this.minLat = latMin;
+        this.minLon = lonMin;
+        this.tamanoCeldaKm = tamanoCeldaKm;
+        this.gradosCeldaLat = tamanoCeldaKm / GeoUtils.KM_POR_GRADO_LAT;
+        this.gradosCeldaLon = tamanoCeldaKm / GeoUtils.kmPorGradoLongitud((latMin + latMax) / 2);
+        this.filas = (int) ((latMax - latMin) / gradosCeldaLat) + 1;
+        this.columnas = (int) ((lonMax - lonMin) / gradosCeldaLon) + 1;
+
+        // Counting sort de las estaciones por celda
+        int[] celdas = new int[todas.size()];
+        this.inicioCelda = new int[filas * columnas + 1];
+        int i = 0;
+        for (Estacion e : todas) {
+            celdas[i] = celda(fila(e.getLatitud()), columna(e.getLongitud()));
+            inicioCelda[celdas[i] + 1]++;
+            i++;
+        }
+        for (int c = 0; c < filas * columnas; c++) {
+            inicioCelda[c + 1] += inicioCelda[c];
+        }
+
+        this.estaciones = new Estacion[todas.size()];
+        int[] cursor = Arrays.copyOf(inicioCelda, filas * columnas);
+        i = 0;
+        for (Estacion e : todas) {
+            estaciones[cursor[celdas[i++]]++] = e;
+        }
+    }
+
+    /**
+     * Estaciones dentro de la caja [minLat, maxLat] x [minLon, maxLon].
+     */
+    public List<Estacion> buscarEnCaja(double latMin, double lonMin, double latMax, double lonMax) {
+        List<Estacion> resultado = new ArrayList<>();
+        recorrerCaja(latMin, lonMin, latMax, lonMax, e -> {
+            if (e.getLatitud() >= latMin && e.getLatitud() <= latMax &&
+                e.getLongitud() >= lonMin && e.getLongitud() <= lonMax) {
+                resultado.add(e);
+            }
+        });
+        return resultado;
+    }
+
+    public int getNumEstaciones() {
+        return estaciones.length;
+    }
+
+    public String getStats() {
+        return String.format("Malla %dx%d (%.1f km) - Estaciones: %d", filas, columnas,
+                tamanoCeldaKm, estaciones.length);
+    }
+
+    // ================== Métodos Auxiliares ==================
+
+    /** Visita las estaciones de todas las celdas que intersecan la caja dada. */
+    private void recorrerCaja(double latMin, double lonMin, double latMax, double lonMax,
+                              Consumer<Estacion> visitante) {
+        int f0 = fila(latMin), f1 = fila(latMax);
+        int c0 = columna(lonMin), c1 = columna(lonMax);
+        for (int f = f0; f <= f1; f++) {
+            for (int c = c0; c <= c1; c++) {
+                int celda = celda(f, c);
+                for (int k = inicioCelda[celda], fin = inicioCelda[celda + 1]; k < fin; k++) {
+                    visitante.accept(estaciones[k]);
+                }
+            }
+        }
+    }
+
+    private int fila(double lat) {
+        return Math.max(0, Math.min(filas - 1, (int) Math.floor((lat - minLat) / gradosCeldaLat)));
+    }
+
+    private int columna(double lon) {
+        return Math.max(0, Math.min(columnas - 1, (int) Math.floor((lon - minLon) / gradosCeldaLon)));
+    }
+
+    private int celda(int fila, int columna) {
+        return fila * columnas + columna;
+    }
+}
@@ -0,0 +1,223 @@
+package com.transporte.bogota.util;
+
+import java.util.*;
+
+/**
+ * Índice de búsqueda aproximada por palabras con borrados simétricos (SymSpell).
+ *
+ * Cada documento se parte en palabras normalizadas (TextNormalizer). Para cada
+ * palabra distinta del diccionario se precalculan todas las variantes con hasta
+ * MAX_DISTANCIA caracteres borrados y se guardan en un mapa borrado → palabras. Dos
+ * palabras a distancia d comparten algún borrado de a lo más d caracteres de cada
+ * una, así que una consulta solo genera los borrados de sus propias palabras (unas
+ * decenas de búsquedas en el mapa) y verifica los candidatos con la distancia de
+ * Damerau-Levenshtein (transposición de adyacentes = 1 edición: "ricuarte" está a 1
+ * de "ricaurte"). No se recorre el diccionario en ninguna consulta.
+ *
+ * La distancia permitida depende del largo de la palabra consultada (ver
+ * distanciaPermitida): las palabras cortas y los números deben coincidir exactos.
+ * Un documento coincide si cada palabra de la consulta se parece a alguna de las
+ * suyas; los resultados se ordenan por la suma de distancias y luego por documento.
+ *
+ * Es inmutable tras build(), así que se puede consultar desde varios hilos.
+ */
+public final class SymSpellIndex {
+
+    /** Máximo de ediciones que se toleran en una palabra. */
+    public static final int MAX_DISTANCIA = 2;
+
+    private final int numDocumentos;
+    private final String[] terminos;             // palabras distintas del diccionario
+    private final int[][] documentosTermino;     // documentos (ordenados) de cada palabra
+    private final Map<String, int[]> borrados;   // borrado → palabras que lo generan
+
+    private SymSpellIndex(int numDocumentos, String[] terminos, int[][] documentosTermino,
+                          Map<String, int[]> borrados) {
+        this.numDocumentos = numDocumentos;
+        this.terminos = terminos;
+        this.documentosTermino = documentosTermino;
+        this.borrados = borrados;
+    }
+
+    public int size() {
+        return numDocumentos;
+    }
+
+    /** Ediciones toleradas para una palabra de la consulta según su largo. */
+    public static int distanciaPermitida(int longitud) {
+        if (longitud <= 3) return 0;
+        if (longitud <= 6) return 1;
+        return MAX_DISTANCIA;
+    }
+
+    /**
+     * Documentos que coinciden aproximadamente con el texto, de menor a mayor
+     * distancia total, como mucho limit.
+     */
+    public int[] buscar(String texto, int limit) {
+        String[] palabras = TextNormalizer.palabras(TextNormalizer.normalizar(texto));
+        if (palabras.length == 0 || limit <= 0) return new int[0];
+
+        // Documentos de cada palabra con su menor distancia; se intersecta desde la
+        // palabra con menos documentos
+        List<Map<Integer, Integer>> porPalabra = new ArrayList<>(palabras.length);
+        for (String palabra : palabras) {
+            Map<Integer, Integer> documentos = documentosCercanos(palabra);
+            if (documentos.isEmpty()) return new int[0];
+            porPalabra.add(documentos);
+        }
+        porPalabra.sort(Comparator.comparingInt(Map::size));
+
+        Map<Integer, Integer> acumulado = new HashMap<>(porPalabra.get(0));
+        for (int i = 1; i < porPalabra.size() && !acumulado.isEmpty(); i++) {
+            Map<Integer, Integer> siguiente = porPalabra.get(i);
+            acumulado.entrySet().removeIf(e -> {
+                Integer distancia = siguiente.get(e.getKey());
+                if (distancia == null) return true;
+                e.setValue(e.getValue() + distancia);
+                return false;
+            });
+        }
+
+        return acumulado.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+    }
+
+    /** Documentos con alguna palabra a distancia permitida de la dada → menor distancia. */
+    private Map<Integer, Integer> documentosCercanos(String palabra) {
+        int maximo = distanciaPermitida(palabra.length());
+        Map<Integer, Integer> documentos = new HashMap<>();
+        Set<Integer> vistos = new HashSet<>();
+        for (String borrado : generarBorrados(palabra, maximo)) {
+            int[] candidatos = borrados.get(borrado);
+            if (candidatos == null) continue;
+            for (int termino : candidatos) {
+                if (!vistos.add(termino)) continue;
+                int distancia = distancia(palabra, terminos[termino], maximo);
+                if (distancia > maximo) continue;
+                for (int documento : documentosTermino[termino]) {
+                    documentos.merge(documento, distancia, Math::min);
+                }
+            }
+        }
+        return documentos;
+    }
+
+    /** La palabra y sus variantes con 1..maximo caracteres borrados (sin la vacía). */
+    private static Set<String> generarBorrados(String palabra, int maximo) {
+        Set<String> resultado = new HashSet<>();
+        resultado.add(palabra);
+        List<String> nivel = List.of(palabra);
+        for (int d = 1; d <= maximo; d++) {
+            List<String> siguiente = new ArrayList<>();
+            for (String p : nivel) {
+                if (p.length() <= 1) continue;
+                for (int i = 0; i < p.length(); i++) {
+                    String borrado = p.substring(0, i) + p.substring(i + 1);
+                    if (resultado.add(borrado)) siguiente.add(borrado);
+                }
+            }
+            nivel = siguiente;
+        }
+        return resultado;
+    }
+
+    /**
+     * Distancia de Damerau-Levenshtein restringida (inserción, borrado, sustitución
+     * y transposición de adyacentes). Devuelve maximo + 1 en cuanto se sabe que la
+     * supera.
+     */
+    static int distancia(String a, String b, int maximo) {
+        int n = a.length(), m = b.length();
+        if (Math.abs(n - m) > maximo) return maximo + 1;
+
+        int[] anterior2 = new int[m + 1];
+        int[] anterior = new int[m + 1];
+        int[] actual = new int[m + 1];
+        for (int j = 0; j <= m; j++) anterior[j] = j;
+
+        for (int i = 1; i <= n; i++) {
+            actual[0] = i;
+            int minimoFila = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char cb = b.charAt(j - 1);
+                int costo = ca == cb ? 0 : 1;
+                int valor = Math.min(Math.min(anterior[j] + 1, actual[j - 1] + 1), anterior[j - 1] + costo);
+                if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+                    valor = Math.min(valor, anterior2[j - 2] + 1);
+                }
+                actual[j] = valor;
+                minimoFila = Math.min(minimoFila, valor);
+            }
+            if (minimoFila > maximo) return maximo + 1;
+            int[] tmp = anterior2;
+            anterior2 = anterior;
+            anterior = actual;
+            actual = tmp;
+        }
+        return Math.min(anterior[m], maximo + 1);
+    }
+
+    // =========================================================================
+    // CONSTRUCCIÓN
+    // =========================================================================
+
+    public static final class Builder {
+        private int numDocumentos;
+        private final Map<String, int[]> documentosTermino = new LinkedHashMap<>(); // [tamaño, docs...]
+
+        /**
+         * Agrega un documento con sus textos (los null se ignoran).
+         *
+         * @return Número del documento (consecutivo desde 0)
+         */
+        public int add(String... textos) {
+            int documento = numDocumentos++;
+            for (String texto : textos) {
+                if (texto == null) continue;
+                for (String palabra : TextNormalizer.palabras(TextNormalizer.normalizar(texto))) {
+                    int[] lista = documentosTermino.computeIfAbsent(palabra, k -> new int[4]);
+                    if (lista[0] > 0 && lista[lista[0]] == documento) continue; // palabra repetida
+                    if (lista[0] + 1 == lista.length) {
+                        lista = Arrays.copyOf(lista, lista.length * 2);
+                        documentosTermino.put(palabra, lista);
+                    }
+                    lista[++lista[0]] = documento;
+                }
+            }
+            return documento;
+        }
+
+        public SymSpellIndex build() {
+            String[] terminos = documentosTermino.keySet().toArray(new String[0]);
+            int[][] documentos = new int[terminos.length][];
+            Map<String, int[]> borrados = new HashMap<>();
+            for (int t = 0; t < terminos.length; t++) {
+                int[] lista = documentosTermino.get(terminos[t]);
+                documentos[t] = Arrays.copyOfRange(lista, 1, lista[0] + 1);
+                for (String borrado : generarBorrados(terminos[t], MAX_DISTANCIA)) {
+                    int[] delBorrado = borrados.computeIfAbsent(borrado, k -> new int[2]);
+                    if (delBorrado[0] + 1 == delBorrado.length) {
+                        delBorrado = Arrays.copyOf(delBorrado, delBorrado.length * 2);
+                        borrados.put(borrado, delBorrado);
+                    }
+                    delBorrado[++delBorrado[0]] = t;
+                }
+            }
+            borrados.replaceAll((k, lista) -> Arrays.copyOfRange(lista, 1, lista[0] + 1));
+            return new SymSpellIndex(numDocumentos, terminos, documentos, borrados);
+        }
+    }
+
+    /**
+     * Estadísticas del índice para debugging.
+     */
+    public String getStats() {
+        return String.format("Índice aproximado - Documentos: %d, Palabras: %d, Borrados: %d",
+                numDocumentos, terminos.length, borrados.size());
+    }
+}
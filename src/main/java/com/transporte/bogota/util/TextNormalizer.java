@@ -0,0 +1,43 @@
+package com.transporte.bogota.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de textos para los índices de búsqueda de estaciones.
+ *
+ * Descompone los caracteres (NFD) y elimina las marcas diacríticas, así que "Á",
+ * "ñ" o "ü" quedan como "a", "n" y "u"; luego pasa a minúsculas y recorta espacios.
+ * Índices y consultas usan la misma función, de modo que "21 Ángeles" se encuentra
+ * escribiendo "21 angeles".
+ */
+public final class TextNormalizer {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextNormalizer() {
+    }
+
+    /** Texto sin tildes, en minúsculas y sin espacios en los extremos ("" si es null). */
+    public static String normalizar(String texto) {
+        if (texto == null) return "";
+        String sinMarcas = texto;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) >= 0x80) {
+                sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        return sinMarcas.toLowerCase(Locale.ROOT).trim();
+    }
+
+    /** Palabras (letras y dígitos) de un texto ya normalizado. */
+    public static String[] palabras(String normalizado) {
+        return Arrays.stream(SEPARADORES.split(normalizado))
+                .filter(p -> !p.isEmpty())
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,245 @@
+package com.transporte.bogota.util;
+
+import java.util.*;
+
+/**
+ * Índice invertido de n-gramas (1 a 3 caracteres) para búsquedas "contiene" sobre
+ * textos cortos, como nombres e IDs de estaciones.
+ *
+ * Cada documento es un entero consecutivo (el orden en que se agregó) con uno o
+ * más campos de texto, normalizados con TextNormalizer (sin tildes, minúsculas).
+ * Por cada n-grama de cada campo se guarda la lista ordenada de documentos que lo
+ * contienen, comprimida como diferencias en varint dentro de un único arreglo de
+ * bytes.
+ *
+ * Consultas:
+ * - Hasta 3 caracteres: la lista del n-grama es exactamente la respuesta.
+ * - Más largas: se intersectan las listas de sus trigramas empezando por la más
+ *   corta y los candidatos se verifican con contains (tener todos los trigramas es
+ *   necesario pero no suficiente).
+ *
+ * Los resultados salen en orden de documento. Es inmutable tras build(), así que
+ * se puede consultar desde varios hilos.
+ */
+public final class TrigramIndex {
+
+    private final String[][] campos;   // textos normalizados por documento
+    private final long[] gramas;       // claves de n-grama ordenadas
+    private final int[] inicioLista;   // offset en bytes de la lista de cada n-grama (+1 al final)
+    private final int[] tamanoLista;   // número de documentos de cada lista
+    private final byte[] listas;
+
+    private TrigramIndex(String[][] campos, long[] gramas, int[] inicioLista, int[] tamanoLista, byte[] listas) {
+        this.campos = campos;
+        this.gramas = gramas;
+        this.inicioLista = inicioLista;
+        this.tamanoLista = tamanoLista;
+        this.listas = listas;
+    }
+
+    public int size() {
+        return campos.length;
+    }
+
+    /**
+     * Documentos con algún campo que contiene el texto, en orden, como mucho limit.
+     */
+    public int[] buscar(String texto, int limit) {
+        String consulta = TextNormalizer.normalizar(texto);
+        if (consulta.isEmpty() || limit <= 0) return new int[0];
+
+        if (consulta.length() <= 3) {
+            int g = posicion(clave(consulta, 0, consulta.length()));
+            if (g < 0) return new int[0];
+            return decodificar(g, Math.min(limit, tamanoLista[g]));
+        }
+
+        // Trigramas distintos de la consulta, de la lista más corta a la más larga
+        int numTrigramas = consulta.length() - 2;
+        int[] listasConsulta = new int[numTrigramas];
+        int distintas = 0;
+        for (int i = 0; i < numTrigramas; i++) {
+            int g = posicion(clave(consulta, i, i + 3));
+            if (g < 0) return new int[0];
+            boolean repetida = false;
+            for (int j = 0; j < distintas && !repetida; j++) {
+                repetida = listasConsulta[j] == g;
+            }
+            if (!repetida) listasConsulta[distintas++] = g;
+        }
+        Integer[] orden = new Integer[distintas];
+        for (int i = 0; i < distintas; i++) orden[i] = listasConsulta[i];
+        Arrays.sort(orden, Comparator.comparingInt(g -> tamanoLista[g]));
+
+        int[] candidatos = decodificar(orden[0], tamanoLista[orden[0]]);
+        int numCandidatos = candidatos.length;
+        for (int i = 1; i < distintas && numCandidatos > 0; i++) {
+            numCandidatos = intersectar(candidatos, numCandidatos, orden[i]);
+        }
+
+        int[] resultado = new int[Math.min(limit, numCandidatos)];
+        int encontrados = 0;
+        for (int i = 0; i < numCandidatos && encontrados < resultado.length; i++) {
+            if (contiene(candidatos[i], consulta)) {
+                resultado[encontrados++] = candidatos[i];
+            }
+        }
+        return encontrados == resultado.length ? resultado : Arrays.copyOf(resultado, encontrados);
+    }
+
+    /** Campos normalizados del documento (sin copiar: no modificar). */
+    String[] campos(int documento) {
+        return campos[documento];
+    }
+
+    private boolean contiene(int documento, String consulta) {
+        for (String campo : campos[documento]) {
+            if (campo.contains(consulta)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Deja en candidatos[0..) los que también están en la lista g; la lista se
+     * decodifica en el mismo recorrido del merge.
+     */
+    private int intersectar(int[] candidatos, int numCandidatos, int g) {
+        int quedan = 0;
+        int pos = inicioLista[g];
+        int fin = inicioLista[g + 1];
+        int documento = -1;
+        for (int i = 0; i < numCandidatos; ) {
+            if (documento < candidatos[i]) {
+                if (pos == fin) break;
+                // Siguiente documento de la lista (varint de la diferencia)
+                int delta = 0, desplazamiento = 0, b;
+                do {
+                    b = listas[pos++];
+                    delta |= (b & 0x7F) << desplazamiento;
+                    desplazamiento += 7;
+                } while ((b & 0x80) != 0);
+                documento += delta;
+            }
+            if (documento == candidatos[i]) {
+                candidatos[quedan++] = candidatos[i++];
+            } else if (documento > candidatos[i]) {
+                i++;
+            }
+        }
+        return quedan;
+    }
+
+    private int[] decodificar(int g, int cuantos) {
+        int[] documentos = new int[cuantos];
+        int pos = inicioLista[g];
+        int documento = -1;
+        for (int k = 0; k < cuantos; k++) {
+            int delta = 0, desplazamiento = 0, b;
+            do {
+                b = listas[pos++];
+                delta |= (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while ((b & 0x80) != 0);
+            documento += delta;
+            documentos[k] = documento;
+        }
+        return documentos;
+    }
+
+    private int posicion(long clave) {
+        int g = Arrays.binarySearch(gramas, clave);
+        return g >= 0 ? g : -1;
+    }
+
+    /** Clave única del n-grama texto[desde, hasta) (1 a 3 caracteres). */
+    private static long clave(String texto, int desde, int hasta) {
+        long clave = hasta - desde;
+        for (int i = desde; i < hasta; i++) {
+            clave = (clave << 16) | texto.charAt(i);
+        }
+        return clave;
+    }
+
+    // =========================================================================
+    // CONSTRUCCIÓN
+    // =========================================================================
+
+    public static final class Builder {
+        private final List<String[]> campos = new ArrayList<>();
+        private final Map<Long, int[]> listas = new HashMap<>(); // [tamaño, docs...] crece por duplicación
+
+        /**
+         * Agrega un documento con sus campos de texto (los null se ignoran).
+         *
+         * @return Número del documento (consecutivo desde 0)
+         */
+        public int add(String... textos) {
+            int documento = campos.size();
+            String[] normalizados = Arrays.stream(textos)
+                    .filter(Objects::nonNull)
+                    .map(TextNormalizer::normalizar)
+                    .toArray(String[]::new);
+            campos.add(normalizados);
+
+            Set<Long> claves = new HashSet<>();
+            for (String campo : normalizados) {
+                for (int n = 1; n <= 3; n++) {
+                    for (int i = 0; i + n <= campo.length(); i++) {
+                        claves.add(clave(campo, i, i + n));
+                    }
+                }
+            }
+            for (long c : claves) {
+                int[] lista = listas.computeIfAbsent(c, k -> new int[4]);
+                if (lista[0] + 1 == lista.length) {
+                    lista = Arrays.copyOf(lista, lista.length * 2);
+                    listas.put(c, lista);
+                }
+                lista[++lista[0]] = documento;
+            }
+            return documento;
+        }
+
+        public TrigramIndex build() {
+            long[] gramas = new long[listas.size()];
+            int k = 0;
+            for (long c : listas.keySet()) gramas[k++] = c;
+            Arrays.sort(gramas);
+
+            int[] inicioLista = new int[gramas.length + 1];
+            int[] tamanoLista = new int[gramas.length];
+            byte[] bytes = new byte[64];
+            int pos = 0;
+            for (int g = 0; g < gramas.length; g++) {
+                int[] lista = listas.get(gramas[g]);
+                inicioLista[g] = pos;
+                tamanoLista[g] = lista[0];
+                int anterior = -1;
+                for (int i = 1; i <= lista[0]; i++) {
+                    if (pos + 5 > bytes.length) bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                    int delta = lista[i] - anterior;
+                    anterior = lista[i];
+                    while ((delta & ~0x7F) != 0) {
+                        bytes[pos++] = (byte) ((delta & 0x7F) | 0x80);
+                        delta >>>= 7;
+                    }
+                    bytes[pos++] = (byte) delta;
+                }
+            }
+            inicioLista[gramas.length] = pos;
+
+            return new TrigramIndex(campos.toArray(new String[0][]), gramas, inicioLista, tamanoLista,
+                    Arrays.copyOf(bytes, pos));
+        }
+    }
+
+    /**
+     * Estadísticas del índice para debugging.
+     */
+    public String getStats() {
+        long entradas = 0;
+        for (int t : tamanoLista) entradas += t;
+        return String.format("Índice de n-gramas - Documentos: %d, N-gramas: %d, Entradas: %d, Bytes: %d",
+                campos.length, gramas.length, entradas, listas.length);
+    }
+}
@@ -515,7 +515,7 @@ function dibujarCuellosBotella(cuellos) {
             <div class="text-sm">
                 <div class="font-semibold text-red-600">🔴 Cuello de Botella</div>
                 <div class="mt-1">${cuello.origen.nombre} → ${cuello.destino.nombre}</div>
-                <div class="text-xs mt-1">Uso: ${cuello.porcentajeUso?.toFixed(0)}%</div>
+                <div class="text-xs mt-1">${cuello.porcentajeDelCorte?.toFixed(0)}% del flujo máximo</div>
             </div>
         `).addTo(cuellosLayer);
     });
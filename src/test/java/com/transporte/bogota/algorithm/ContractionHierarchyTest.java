@@ -0,0 +1,79 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.CompactGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara Contraction Hierarchies y Dijkstra bidireccional con Dijkstra simple en
+ * redes aleatorias con semilla fija, con aristas de tiempo cero y pares inalcanzables.
+ * Con empates el camino puede ser otro, así que se valida que recorra aristas del
+ * grafo y sume la distancia mínima.
+ */
+class ContractionHierarchyTest {
+
+    @Test
+    void coincideConDijkstra() {
+        Random random = new Random(42);
+        for (int caso = 0; caso < 40; caso++) {
+            int n = 2 + random.nextInt(60);
+            CompactGraph grafo = GrafosAleatorios.grafo(random, n, random.nextInt(3 * n), 0, 6, 1);
+            ContractionHierarchy ch = ContractionHierarchy.construir(grafo);
+
+            for (int s = 0; s < n; s++) {
+                int[] distancias = Dijkstra.calcularDistancias(grafo, s, false);
+                for (int t = 0; t < n; t++) {
+                    Estacion origen = grafo.getEstacion(s), destino = grafo.getEstacion(t);
+                    String par = "caso " + caso + ", par " + s + "-" + t;
+                    Dijkstra.ResultadoDijkstra simple = Dijkstra.calcularCaminoMinimo(grafo, origen, destino);
+                    verificar(grafo, s, t, distancias[t], simple, "Dijkstra, " + par);
+                    verificar(grafo, s, t, distancias[t],
+                            BidirectionalDijkstra.calcularCaminoMinimo(grafo, origen, destino), "bidireccional, " + par);
+                    verificar(grafo, s, t, distancias[t], ch.calcularCaminoMinimo(origen, destino), "CH, " + par);
+                }
+            }
+        }
+    }
+
+    @Test
+    void rechazaTiemposNegativos() {
+        CompactGraph grafo = GrafosAleatorios.grafo(new Random(1), 5, 10, -3, -1, 1);
+        assertThrows(IllegalArgumentException.class, () -> ContractionHierarchy.construir(grafo));
+    }
+
+    /** La distancia es la de referencia y el camino va de s a t por aristas que la suman. */
+    private static void verificar(CompactGraph grafo, int s, int t, int esperada,
+                                  Dijkstra.ResultadoDijkstra resultado, String mensaje) {
+        if (esperada == Integer.MAX_VALUE) {
+            assertFalse(resultado.esAlcanzable(), mensaje);
+            assertTrue(resultado.camino.isEmpty(), mensaje);
+            return;
+        }
+        assertEquals(esperada, resultado.distancia, 0.0, mensaje);
+        List<Estacion> camino = resultado.camino;
+        assertEquals(grafo.getEstacion(s), camino.get(0), mensaje);
+        assertEquals(grafo.getEstacion(t), camino.get(camino.size() - 1), mensaje);
+        long suma = 0;
+        for (int i = 0; i + 1 < camino.size(); i++) {
+            suma += tiempoMinimo(grafo, grafo.indice(camino.get(i)), grafo.indice(camino.get(i + 1)), mensaje);
+        }
+        assertEquals(esperada, suma, mensaje);
+    }
+
+    private static int tiempoMinimo(CompactGraph grafo, int u, int v, String mensaje) {
+        int minimo = Integer.MAX_VALUE;
+        for (int e = grafo.inicioAristas(u); e < grafo.finAristas(u); e++) {
+            if (grafo.destino(e) == v) minimo = Math.min(minimo, grafo.tiempo(e));
+        }
+        assertTrue(minimo != Integer.MAX_VALUE, mensaje + ": no hay arista " + u + "->" + v);
+        return minimo;
+    }
+}
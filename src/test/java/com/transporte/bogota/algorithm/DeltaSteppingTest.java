@@ -0,0 +1,85 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.util.CompactGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara delta-stepping en un ForkJoinPool de varios hilos con Dijkstra en redes
+ * aleatorias con semilla fija (con aristas de tiempo cero y nodos inalcanzables).
+ * Las redes grandes superan el umbral secuencial, así que las rondas se relajan en
+ * paralelo; el árbol de predecesores debe llevar de cada nodo al origen por aristas
+ * que sumen su distancia.
+ */
+class DeltaSteppingTest {
+
+    @Test
+    void coincideConDijkstra() {
+        Random random = new Random(42);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int caso = 0; caso < 30; caso++) {
+                int n = caso % 3 == 0 ? 2 + random.nextInt(50) : 2000 + random.nextInt(8000);
+                CompactGraph grafo = GrafosAleatorios.grafo(random, n, random.nextInt(5 * n), 0, 20, 1);
+                int[] deltas = {1, DeltaStepping.deltaSugerido(grafo), 1 + random.nextInt(100)};
+
+                for (int consulta = 0; consulta < 3; consulta++) {
+                    int origen = random.nextInt(n);
+                    int[] esperadas = Dijkstra.calcularDistancias(grafo, origen, false);
+                    for (int delta : deltas) {
+                        String mensaje = "caso " + caso + ", origen " + origen + ", delta " + delta;
+                        DeltaStepping.ArbolCaminos arbol = DeltaStepping.calcular(grafo, origen, delta, pool);
+                        assertArrayEquals(esperadas, arbol.distancias, mensaje);
+                        verificarPredecesores(grafo, origen, arbol, mensaje);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * El origen y los inalcanzables no tienen predecesor; cada nodo alcanzable llega
+     * desde su predecesor por una arista de tiempo igual a la diferencia de
+     * distancias, y la cadena termina en el origen sin ciclos.
+     */
+    private static void verificarPredecesores(CompactGraph grafo, int origen,
+                                              DeltaStepping.ArbolCaminos arbol, String mensaje) {
+        int n = grafo.getNumNodos();
+        int[] distancias = arbol.distancias;
+        int[] predecesores = arbol.predecesores;
+        assertEquals(-1, predecesores[origen], mensaje);
+        for (int v = 0; v < n; v++) {
+            if (v == origen) continue;
+            if (distancias[v] == DeltaStepping.INFINITO) {
+                assertEquals(-1, predecesores[v], mensaje + ": predecesor de inalcanzable " + v);
+                continue;
+            }
+            int u = predecesores[v];
+            assertTrue(u >= 0, mensaje + ": sin predecesor en " + v);
+            assertTrue(hayArista(grafo, u, v, distancias[v] - distancias[u]),
+                    mensaje + ": no hay arista " + u + "->" + v + " que explique la distancia");
+        }
+        for (int v = 0; v < n; v++) {
+            if (distancias[v] == DeltaStepping.INFINITO) continue;
+            int pasos = 0;
+            for (int x = v; x != origen; x = predecesores[x]) {
+                assertTrue(++pasos < n, mensaje + ": ciclo de predecesores desde " + v);
+            }
+        }
+    }
+
+    private static boolean hayArista(CompactGraph grafo, int u, int v, int tiempo) {
+        for (int e = grafo.inicioAristas(u); e < grafo.finAristas(u); e++) {
+            if (grafo.destino(e) == v && grafo.tiempo(e) == tiempo) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,52 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.util.CompactGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara el árbol de Gomory-Hu con el flujo máximo no dirigido de cada par
+ * (Edmonds-Karp) y la construcción en paralelo con la de un solo hilo, en redes
+ * aleatorias con semilla fija.
+ */
+class GomoryHuTreeTest {
+
+    @Test
+    void coincideConFlujoPorPares() {
+        Random random = new Random(42);
+        for (int caso = 0; caso < 60; caso++) {
+            int n = 2 + random.nextInt(14);
+            CompactGraph grafo = GrafosAleatorios.grafo(random, n, random.nextInt(3 * n), 1, 10, 20);
+            int[][] capacidades = GrafosAleatorios.capacidades(grafo, true);
+            GomoryHuTree arbol = GomoryHuTree.construir(grafo, 1 + random.nextInt(4));
+
+            for (int u = 0; u < n; u++) {
+                assertEquals(Integer.MAX_VALUE, arbol.corteMinimo(u, u));
+                for (int v = u + 1; v < n; v++) {
+                    int esperado = GrafosAleatorios.edmondsKarp(capacidades, u, v);
+                    assertEquals(esperado, arbol.corteMinimo(u, v), "caso " + caso + ", par " + u + "-" + v);
+                    assertEquals(esperado, arbol.corteMinimo(v, u), "caso " + caso + ", par " + v + "-" + u);
+                }
+            }
+        }
+    }
+
+    @Test
+    void paraleloIgualASecuencial() {
+        Random random = new Random(7);
+        for (int caso = 0; caso < 20; caso++) {
+            int n = 20 + random.nextInt(60);
+            CompactGraph grafo = GrafosAleatorios.grafo(random, n, n + random.nextInt(3 * n), 1, 10, 20);
+            GomoryHuTree secuencial = GomoryHuTree.construir(grafo, 1);
+            GomoryHuTree paralelo = GomoryHuTree.construir(grafo, 4);
+
+            for (int v = 0; v < n; v++) {
+                assertEquals(secuencial.padre(v), paralelo.padre(v), "caso " + caso + ", padre de " + v);
+                assertEquals(secuencial.pesoPadre(v), paralelo.pesoPadre(v), "caso " + caso + ", peso de " + v);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.util.CompactGraph;
+import com.transporte.bogota.util.Graph;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generador de redes aleatorias (con semilla del test) para comparar los algoritmos
+ * con sus versiones de referencia. Los IDs se rellenan con ceros para que el ordinal
+ * de cada estación en el grafo CSR sea su número.
+ */
+final class GrafosAleatorios {
+
+    private GrafosAleatorios() {
+    }
+
+    /**
+     * Grafo dirigido de n estaciones y m aristas sin lazos (puede tener aristas
+     * paralelas), con tiempos en [tiempoMinimo, tiempoMaximo] y capacidades en
+     * [1, capacidadMaxima].
+     */
+    static CompactGraph grafo(Random random, int n, int m, int tiempoMinimo, int tiempoMaximo,
+                              int capacidadMaxima) {
+        Graph grafo = new Graph();
+        Estacion[] estaciones = new Estacion[n];
+        for (int i = 0; i < n; i++) {
+            estaciones[i] = new Estacion(String.format("E%04d", i), "Estación " + i, "TRONCAL",
+                    4.6 + random.nextDouble() * 0.1, -74.1 + random.nextDouble() * 0.1, 100);
+            grafo.addNodo(estaciones[i]);
+        }
+        if (n > 1) {
+            for (int k = 0; k < m; k++) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n - 1);
+                if (v >= u) v++;
+                grafo.addArista(estaciones[u], estaciones[v],
+                        tiempoMinimo + random.nextInt(tiempoMaximo - tiempoMinimo + 1),
+                        1 + random.nextInt(capacidadMaxima));
+            }
+        }
+        return grafo.compactar();
+    }
+
+    /**
+     * Matriz de capacidades [u][v] sumando las aristas paralelas; si noDirigida es
+     * true cada arista también suma su capacidad en el sentido contrario.
+     */
+    static int[][] capacidades(CompactGraph grafo, boolean noDirigida) {
+        int n = grafo.getNumNodos();
+        int[][] capacidad = new int[n][n];
+        for (int u = 0; u < n; u++) {
+            for (int e = grafo.inicioAristas(u); e < grafo.finAristas(u); e++) {
+                capacidad[u][grafo.destino(e)] += grafo.capacidad(e);
+                if (noDirigida) capacidad[grafo.destino(e)][u] += grafo.capacidad(e);
+            }
+        }
+        return capacidad;
+    }
+
+    /** Flujo máximo de referencia: Edmonds-Karp (BFS) sobre una copia de la matriz. */
+    static int edmondsKarp(int[][] capacidades, int s, int t) {
+        int n = capacidades.length;
+        int[][] residual = new int[n][];
+        for (int u = 0; u < n; u++) residual[u] = capacidades[u].clone();
+        int flujo = 0;
+        int[] previo = new int[n];
+        int[] cola = new int[n];
+        while (true) {
+            Arrays.fill(previo, -1);
+            previo[s] = s;
+            int cabeza = 0, fin = 0;
+            cola[fin++] = s;
+            while (cabeza < fin && previo[t] < 0) {
+                int u = cola[cabeza++];
+                for (int v = 0; v < n; v++) {
+                    if (previo[v] < 0 && residual[u][v] > 0) {
+                        previo[v] = u;
+                        cola[fin++] = v;
+                    }
+                }
+            }
+            if (previo[t] < 0) return flujo;
+            int cuello = Integer.MAX_VALUE;
+            for (int v = t; v != s; v = previo[v]) cuello = Math.min(cuello, residual[previo[v]][v]);
+            for (int v = t; v != s; v = previo[v]) {
+                residual[previo[v]][v] -= cuello;
+                residual[v][previo[v]] += cuello;
+            }
+            flujo += cuello;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.util.CompactGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara Dinic y push-relabel con Edmonds-Karp sobre la matriz de capacidades, de
+ * un origen a un destino y entre conjuntos de estaciones, en redes aleatorias con
+ * semilla fija. El corte mínimo devuelto debe cruzar de lado y sumar el flujo.
+ */
+class MaxFlowTest {
+
+    @Test
+    void unOrigenCoincideConEdmondsKarp() {
+        Random random = new Random(42);
+        for (int caso = 0; caso < 80; caso++) {
+            int n = 2 + random.nextInt(30);
+            CompactGraph grafo = GrafosAleatorios.grafo(random, n, random.nextInt(4 * n), 1, 10, 25);
+            int[][] capacidades = GrafosAleatorios.capacidades(grafo, false);
+
+            for (int consulta = 0; consulta < 10; consulta++) {
+                int s = random.nextInt(n);
+                int t = random.nextInt(n - 1);
+                if (t >= s) t++;
+                int esperado = GrafosAleatorios.edmondsKarp(capacidades, s, t);
+                String par = "caso " + caso + ", par " + s + "-" + t;
+
+                for (MaxFlow.Motor motor : MaxFlow.Motor.values()) {
+                    assertEquals(esperado, MaxFlow.calcularFlujoMaximo(grafo, s, t, motor), motor + ", " + par);
+                }
+                MaxFlow.ResultadoFlujo resultado = MaxFlow.calcularFlujoConCorte(grafo, s, t);
+                assertEquals(esperado, resultado.flujoMaximo, par);
+                assertTrue(resultado.enLadoOrigen(s), par);
+                assertFalse(resultado.enLadoOrigen(t), par);
+                verificarFlujoYCorte(grafo, resultado, new int[]{s}, new int[]{t}, par);
+            }
+        }
+    }
+
+    @Test
+    void variosOrigenesCoincideConEdmondsKarp() {
+        Random random = new Random(7);
+        for (int caso = 0; caso < 80; caso++) {
+            int n = 3 + random.nextInt(30);
+            CompactGraph grafo = GrafosAleatorios.grafo(random, n, random.nextInt(4 * n), 1, 10, 25);
+
+            // Permutación: los primeros son orígenes y los siguientes, destinos
+            int[] orden = permutacion(random, n);
+            int numOrigenes = 1 + random.nextInt(n - 1);
+            int numDestinos = 1 + random.nextInt(n - numOrigenes);
+            int[] origenes = Arrays.copyOfRange(orden, 0, numOrigenes);
+            int[] destinos = Arrays.copyOfRange(orden, numOrigenes, numOrigenes + numDestinos);
+            int esperado = flujoMultipleReferencia(grafo, origenes, destinos);
+
+            for (MaxFlow.Motor motor : MaxFlow.Motor.values()) {
+                String mensaje = motor + ", caso " + caso;
+                MaxFlow.ResultadoFlujo resultado = MaxFlow.calcularFlujoMultiple(grafo, origenes, destinos, motor);
+                assertEquals(esperado, resultado.flujoMaximo, mensaje);
+                for (int v : origenes) assertTrue(resultado.enLadoOrigen(v), mensaje);
+                for (int v : destinos) assertFalse(resultado.enLadoOrigen(v), mensaje);
+                verificarFlujoYCorte(grafo, resultado, origenes, destinos, mensaje);
+            }
+        }
+    }
+
+    /**
+     * El flujo por arista respeta capacidades y se conserva fuera de orígenes y
+     * destinos; las aristas del corte van del lado del origen al otro, están
+     * saturadas y su capacidad suma el flujo máximo.
+     */
+    private static void verificarFlujoYCorte(CompactGraph grafo, MaxFlow.ResultadoFlujo resultado,
+                                             int[] origenes, int[] destinos, String mensaje) {
+        int n = grafo.getNumNodos();
+        long[] balance = new long[n];
+        for (int e = 0; e < grafo.getNumAristas(); e++) {
+            int flujo = resultado.flujo(e);
+            assertTrue(flujo >= 0 && flujo <= grafo.capacidad(e), mensaje + ": flujo fuera de rango en " + e);
+            balance[grafo.origen(e)] -= flujo;
+            balance[grafo.destino(e)] += flujo;
+        }
+        long salida = 0;
+        boolean[] extremo = new boolean[n];
+        for (int v : origenes) {
+            extremo[v] = true;
+            salida -= balance[v];
+        }
+        for (int v : destinos) extremo[v] = true;
+        for (int v = 0; v < n; v++) {
+            if (!extremo[v]) assertEquals(0L, balance[v], mensaje + ": no se conserva en " + v);
+        }
+        assertEquals(resultado.flujoMaximo, salida, mensaje);
+
+        long capacidadCorte = 0;
+        for (int e : resultado.getAristasCorte()) {
+            assertTrue(resultado.enLadoOrigen(grafo.origen(e)), mensaje);
+            assertFalse(resultado.enLadoOrigen(grafo.destino(e)), mensaje);
+            assertEquals(grafo.capacidad(e), resultado.flujo(e), mensaje + ": arista de corte sin saturar");
+            capacidadCorte += grafo.capacidad(e);
+        }
+        assertEquals(resultado.flujoMaximo, capacidadCorte, mensaje);
+    }
+
+    /** Edmonds-Karp con superorigen n y supersumidero n+1 de capacidad ilimitada. */
+    private static int flujoMultipleReferencia(CompactGraph grafo, int[] origenes, int[] destinos) {
+        int n = grafo.getNumNodos();
+        int[][] base = GrafosAleatorios.capacidades(grafo, false);
+        int[][] capacidades = new int[n + 2][n + 2];
+        for (int u = 0; u < n; u++) System.arraycopy(base[u], 0, capacidades[u], 0, n);
+        for (int v : origenes) capacidades[n][v] = Integer.MAX_VALUE / 2;
+        for (int v : destinos) capacidades[v][n + 1] = Integer.MAX_VALUE / 2;
+        return GrafosAleatorios.edmondsKarp(capacidades, n, n + 1);
+    }
+
+    private static int[] permutacion(Random random, int n) {
+        int[] orden = new int[n];
+        for (int i = 0; i < n; i++) orden[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = orden[i]; orden[i] = orden[j]; orden[j] = tmp;
+        }
+        return orden;
+    }
+}
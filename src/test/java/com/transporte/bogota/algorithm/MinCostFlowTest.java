@@ -0,0 +1,146 @@
+package com.transporte.bogota.algorithm;
+
+import com.transporte.bogota.util.CompactGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara la asignación de un solo par con caminos mínimos sucesivos buscados con
+ * Bellman-Ford (sin potenciales) en redes aleatorias con semilla fija, y verifica
+ * que se rechacen las entradas inválidas.
+ */
+class MinCostFlowTest {
+
+    @Test
+    void unParCoincideConBellmanFord() {
+        Random random = new Random(42);
+        for (int caso = 0; caso < 300; caso++) {
+            int n = 2 + random.nextInt(25);
+            CompactGraph grafo = GrafosAleatorios.grafo(random, n, random.nextInt(4 * n), 0, 10, 15);
+            int s = random.nextInt(n);
+            int t = random.nextInt(n - 1);
+            if (t >= s) t++;
+            int volumen = random.nextInt(60);
+            String mensaje = "caso " + caso + ", par " + s + "-" + t + ", volumen " + volumen;
+
+            long[] esperado = caminosSucesivos(grafo, s, t, volumen);
+            MinCostFlow.AsignacionFlujo asignacion =
+                    MinCostFlow.asignar(grafo, new int[]{s}, new int[]{t}, new int[]{volumen});
+            assertEquals(esperado[0], asignacion.asignado(0), mensaje);
+            assertEquals(volumen - esperado[0], asignacion.sinAsignar(0), mensaje);
+            assertEquals(esperado[1], asignacion.costoTotal, mensaje);
+            verificarCargas(grafo, asignacion, s, t, mensaje);
+        }
+    }
+
+    @Test
+    void rechazaArreglosDeDistintoTamano() {
+        CompactGraph grafo = GrafosAleatorios.grafo(new Random(1), 4, 8, 1, 5, 10);
+        assertThrows(IllegalArgumentException.class,
+                () -> MinCostFlow.asignar(grafo, new int[]{0, 1}, new int[]{2}, new int[]{5}));
+        assertThrows(IllegalArgumentException.class,
+                () -> MinCostFlow.asignar(grafo, new int[]{0}, new int[]{2}, new int[]{5, 5}));
+    }
+
+    @Test
+    void rechazaVolumenesNegativos() {
+        CompactGraph grafo = GrafosAleatorios.grafo(new Random(1), 4, 8, 1, 5, 10);
+        assertThrows(IllegalArgumentException.class,
+                () -> MinCostFlow.asignar(grafo, new int[]{0, 1}, new int[]{2, 3}, new int[]{5, -1}));
+    }
+
+    @Test
+    void rechazaTiemposNegativos() {
+        CompactGraph grafo = GrafosAleatorios.grafo(new Random(1), 4, 8, -3, -1, 10);
+        assertThrows(IllegalArgumentException.class,
+                () -> MinCostFlow.asignar(grafo, new int[]{0}, new int[]{2}, new int[]{5}));
+    }
+
+    /**
+     * Referencia: aumenta por el camino más barato de la red residual (Bellman-Ford
+     * sobre arcos de avance y retroceso) hasta cubrir el volumen. Devuelve
+     * {asignado, costo}.
+     */
+    private static long[] caminosSucesivos(CompactGraph grafo, int s, int t, int volumen) {
+        int n = grafo.getNumNodos();
+        int m = grafo.getNumAristas();
+        int[] flujo = new int[m];
+        long asignado = 0, costo = 0;
+        long[] distancia = new long[n];
+        int[] arcoPrevio = new int[n]; // e para avance por la arista e, -e-1 para retroceso
+        while (asignado < volumen) {
+            Arrays.fill(distancia, Long.MAX_VALUE);
+            distancia[s] = 0;
+            for (int ronda = 0; ronda < n; ronda++) {
+                boolean cambio = false;
+                for (int e = 0; e < m; e++) {
+                    int u = grafo.origen(e), v = grafo.destino(e);
+                    if (flujo[e] < grafo.capacidad(e) && distancia[u] != Long.MAX_VALUE
+                            && distancia[u] + grafo.tiempo(e) < distancia[v]) {
+                        distancia[v] = distancia[u] + grafo.tiempo(e);
+                        arcoPrevio[v] = e;
+                        cambio = true;
+                    }
+                    if (flujo[e] > 0 && distancia[v] != Long.MAX_VALUE
+                            && distancia[v] - grafo.tiempo(e) < distancia[u]) {
+                        distancia[u] = distancia[v] - grafo.tiempo(e);
+                        arcoPrevio[u] = -e - 1;
+                        cambio = true;
+                    }
+                }
+                if (!cambio) break;
+            }
+            if (distancia[t] == Long.MAX_VALUE) break;
+
+            long cuello = volumen - asignado;
+            for (int v = t; v != s; ) {
+                int a = arcoPrevio[v];
+                if (a >= 0) {
+                    cuello = Math.min(cuello, grafo.capacidad(a) - flujo[a]);
+                    v = grafo.origen(a);
+                } else {
+                    cuello = Math.min(cuello, flujo[-a - 1]);
+                    v = grafo.destino(-a - 1);
+                }
+            }
+            for (int v = t; v != s; ) {
+                int a = arcoPrevio[v];
+                if (a >= 0) {
+                    flujo[a] += cuello;
+                    v = grafo.origen(a);
+                } else {
+                    flujo[-a - 1] -= cuello;
+                    v = grafo.destino(-a - 1);
+                }
+            }
+            asignado += cuello;
+            costo += cuello * distancia[t];
+        }
+        return new long[]{asignado, costo};
+    }
+
+    /** Las cargas respetan la capacidad, se conservan fuera de s y t y suman el costo. */
+    private static void verificarCargas(CompactGraph grafo, MinCostFlow.AsignacionFlujo asignacion,
+                                        int s, int t, String mensaje) {
+        long[] balance = new long[grafo.getNumNodos()];
+        long costo = 0;
+        for (int e = 0; e < grafo.getNumAristas(); e++) {
+            int carga = asignacion.carga(e);
+            assertTrue(carga >= 0 && carga <= grafo.capacidad(e), mensaje + ": carga fuera de rango en " + e);
+            balance[grafo.origen(e)] -= carga;
+            balance[grafo.destino(e)] += carga;
+            costo += (long) carga * grafo.tiempo(e);
+        }
+        for (int v = 0; v < balance.length; v++) {
+            long esperado = v == s ? -asignacion.asignado(0) : v == t ? asignacion.asignado(0) : 0;
+            assertEquals(esperado, balance[v], mensaje + ": balance en " + v);
+        }
+        assertEquals(asignacion.costoTotal, costo, mensaje);
+    }
+}
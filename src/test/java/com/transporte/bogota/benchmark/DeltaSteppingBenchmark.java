@@ -0,0 +1,81 @@
+package com.transporte.bogota.benchmark;
+
+import com.transporte.bogota.algorithm.DeltaStepping;
+import com.transporte.bogota.algorithm.Dijkstra;
+import com.transporte.bogota.dao.CSVDataLoader;
+import com.transporte.bogota.model.Estacion;
+import com.transporte.bogota.model.SistemaTransporte;
+import com.transporte.bogota.util.CompactGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmark de escalamiento de delta-stepping por número de hilos.
+ *
+ * Carga la red desde data/ (ejecutar desde la raíz del proyecto), calcula las
+ * distancias desde cada portal con 1, 2, 4, ... hilos hasta el número de núcleos
+ * y las compara con Dijkstra secuencial, que sirve además de línea base.
+ *
+ * Uso: java -cp target/classes:target/test-classes:... com.transporte.bogota.benchmark.DeltaSteppingBenchmark [repeticiones]
+ */
+public class DeltaSteppingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int repeticiones = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+
+        SistemaTransporte sistema = new SistemaTransporte();
+        new CSVDataLoader(sistema).cargarDatos();
+        CompactGraph grafo = CompactGraph.desde(sistema);
+
+        List<Integer> origenes = new ArrayList<>();
+        for (int u = 0; u < grafo.getNumNodos(); u++) {
+            Estacion estacion = grafo.getEstacion(u);
+            if ("portal".equalsIgnoreCase(estacion.getTipo())) origenes.add(u);
+        }
+        if (origenes.isEmpty()) origenes.add(0);
+
+        int delta = DeltaStepping.deltaSugerido(grafo);
+        System.out.printf("Red: %d nodos, %d aristas | %d orígenes | delta = %d | %d repeticiones%n",
+                grafo.getNumNodos(), grafo.getNumAristas(), origenes.size(), delta, repeticiones);
+
+        // Línea base y resultados de referencia
+        List<int[]> referencia = new ArrayList<>();
+        for (int s : origenes) referencia.add(Dijkstra.calcularDistancias(grafo, s, false));
+        double base = medir(repeticiones, () -> {
+            for (int s : origenes) Dijkstra.calcularDistancias(grafo, s, false);
+        });
+        System.out.printf("Dijkstra secuencial: %8.2f ms por ronda%n", base);
+
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        for (int hilos = 1; ; hilos = Math.min(hilos * 2, nucleos)) {
+            ForkJoinPool pool = new ForkJoinPool(hilos);
+            try {
+                for (int i = 0; i < origenes.size(); i++) {
+                    int[] distancias = DeltaStepping.calcular(grafo, origenes.get(i), delta, pool).distancias;
+                    if (!Arrays.equals(distancias, referencia.get(i))) {
+                        throw new IllegalStateException("Distancias distintas a Dijkstra desde " + grafo.getEstacion(origenes.get(i)));
+                    }
+                }
+                double ms = medir(repeticiones, () -> {
+                    for (int s : origenes) DeltaStepping.calcular(grafo, s, delta, pool);
+                });
+                System.out.printf("Delta-stepping %2d hilos: %8.2f ms por ronda (%.2fx vs Dijkstra)%n",
+                        hilos, ms, base / ms);
+            } finally {
+                pool.shutdown();
+            }
+            if (hilos == nucleos) break;
+        }
+    }
+
+    /** Promedio en ms de una ronda, tras un calentamiento de la misma duración. */
+    private static double medir(int repeticiones, Runnable ronda) {
+        for (int i = 0; i < repeticiones; i++) ronda.run();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < repeticiones; i++) ronda.run();
+        return (System.nanoTime() - inicio) / 1e6 / repeticiones;
+    }
+}
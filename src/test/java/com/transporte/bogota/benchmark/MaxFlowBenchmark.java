@@ -0,0 +1,175 @@
+package com.transporte.bogota.benchmark;
+
+import com.transporte.bogota.algorithm.MaxFlow;
+import com.transporte.bogota.dao.CSVDataLoader;
+import com.transporte.bogota.model.SistemaTransporte;
+import com.transporte.bogota.util.CompactGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark de los motores de flujo máximo (Dinic y push-relabel) sobre la red real.
+ *
+ * Carga la red desde data/ (ejecutar desde la raíz del proyecto) y mide los pares
+ * portal → portal y una muestra de pares aleatorios con cada motor, verificando que
+ * ambos den el mismo flujo. Las capacidades de hora pico (60%) se miden aparte
+ * porque cambian qué aristas se saturan.
+ *
+ * Los corredores (superorigen y supersumidero, como el endpoint de capacidad) se
+ * miden con todos los portales hacia el centro, el centro hacia los portales y
+ * pares de zonas aleatorias de unos 2 km de lado.
+ *
+ * Uso: java -cp target/classes:target/test-classes:... com.transporte.bogota.benchmark.MaxFlowBenchmark [paresAleatorios]
+ */
+public class MaxFlowBenchmark {
+
+    // Centro: de La Candelaria a la Calle 26, entre la Caracas y los cerros
+    private static final double[] CAJA_CENTRO = {4.59, -74.085, 4.62, -74.065};
+    private static final double LADO_ZONA_GRADOS = 0.018;
+
+    public static void main(String[] args) throws Exception {
+        int numAleatorios = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+
+        SistemaTransporte sistema = new SistemaTransporte();
+        new CSVDataLoader(sistema).cargarDatos();
+        CompactGraph grafo = CompactGraph.desde(sistema);
+
+        int[] capacidadesPico = new int[grafo.getNumAristas()];
+        for (int e = 0; e < capacidadesPico.length; e++) {
+            capacidadesPico[e] = (int) (grafo.capacidad(e) * 0.6);
+        }
+        CompactGraph grafoPico = grafo.conCapacidades(capacidadesPico);
+
+        List<int[]> portales = new ArrayList<>();
+        List<Integer> ordinalesPortal = new ArrayList<>();
+        for (int u = 0; u < grafo.getNumNodos(); u++) {
+            if ("portal".equalsIgnoreCase(grafo.getEstacion(u).getTipo())) ordinalesPortal.add(u);
+        }
+        for (int s : ordinalesPortal) {
+            for (int t : ordinalesPortal) {
+                if (s != t) portales.add(new int[]{s, t});
+            }
+        }
+
+        Random random = new Random(42);
+        List<int[]> aleatorios = new ArrayList<>();
+        for (int i = 0; i < numAleatorios; i++) {
+            aleatorios.add(new int[]{random.nextInt(grafo.getNumNodos()), random.nextInt(grafo.getNumNodos())});
+        }
+
+        int[] origenesPortal = ordinalesPortal.stream().mapToInt(Integer::intValue).toArray();
+        int[] centro = enCaja(grafo, CAJA_CENTRO);
+        List<int[][]> portalesCentro = new ArrayList<>();
+        portalesCentro.add(new int[][]{origenesPortal, centro});
+        List<int[][]> centroPortales = new ArrayList<>();
+        centroPortales.add(new int[][]{centro, origenesPortal});
+        List<int[][]> zonas = new ArrayList<>();
+        while (zonas.size() < numAleatorios / 10) {
+            int[] a = enCaja(grafo, zonaAlrededor(grafo, random.nextInt(grafo.getNumNodos())));
+            int[] b = enCaja(grafo, zonaAlrededor(grafo, random.nextInt(grafo.getNumNodos())));
+            if (disjuntos(a, b)) zonas.add(new int[][]{a, b});
+        }
+
+        System.out.printf("Red: %d nodos, %d aristas | motor por defecto: %s | motor de corredores: %s%n",
+                grafo.getNumNodos(), grafo.getNumAristas(), MaxFlow.MOTOR_POR_DEFECTO, MaxFlow.MOTOR_FLUJO_MULTIPLE);
+
+        comparar("Portal → portal", grafo, portales);
+        comparar("Portal → portal (hora pico)", grafoPico, portales);
+        comparar("Pares aleatorios", grafo, aleatorios);
+
+        System.out.printf("Corredores: %d portales, %d estaciones en el centro%n", origenesPortal.length, centro.length);
+        compararCorredores("Portales → centro", grafo, portalesCentro, 20);
+        compararCorredores("Portales → centro (hora pico)", grafoPico, portalesCentro, 20);
+        compararCorredores("Centro → portales", grafo, centroPortales, 20);
+        compararCorredores("Zonas aleatorias", grafo, zonas, 1);
+    }
+
+    /**
+     * Como comparar, para conjuntos de orígenes y destinos; cada corredor se repite
+     * repeticiones veces para que los casos de una sola consulta sean medibles.
+     */
+    private static void compararCorredores(String nombre, CompactGraph grafo, List<int[][]> corredores,
+                                           int repeticiones) {
+        if (corredores.isEmpty()) return;
+
+        for (int[][] c : corredores) {
+            int dinic = MaxFlow.calcularFlujoMultiple(grafo, c[0], c[1], MaxFlow.Motor.DINIC).flujoMaximo;
+            int pushRelabel = MaxFlow.calcularFlujoMultiple(grafo, c[0], c[1], MaxFlow.Motor.PUSH_RELABEL).flujoMaximo;
+            if (dinic != pushRelabel) {
+                throw new IllegalStateException("Flujos distintos para el corredor " + Arrays.toString(c[0])
+                        + " → " + Arrays.toString(c[1]) + ": " + dinic + " vs " + pushRelabel);
+            }
+        }
+
+        int consultas = corredores.size() * repeticiones;
+        System.out.printf("%s (%d consultas):%n", nombre, consultas);
+        for (MaxFlow.Motor motor : MaxFlow.Motor.values()) {
+            long inicio = System.nanoTime();
+            long total = 0;
+            for (int r = 0; r < repeticiones; r++) {
+                for (int[][] c : corredores) {
+                    total += MaxFlow.calcularFlujoMultiple(grafo, c[0], c[1], motor).flujoMaximo;
+                }
+            }
+            double ms = (System.nanoTime() - inicio) / 1e6;
+            System.out.printf("  %-13s %9.2f ms total | %7.3f ms/consulta | flujo acumulado %d%n",
+                    motor, ms, ms / consultas, total);
+        }
+    }
+
+    /** Ordinales de las estaciones dentro de la caja {latMin, lonMin, latMax, lonMax}. */
+    private static int[] enCaja(CompactGraph grafo, double[] caja) {
+        List<Integer> ordinales = new ArrayList<>();
+        for (int u = 0; u < grafo.getNumNodos(); u++) {
+            double lat = grafo.getEstacion(u).getLatitud();
+            double lon = grafo.getEstacion(u).getLongitud();
+            if (lat >= caja[0] && lat <= caja[2] && lon >= caja[1] && lon <= caja[3]) ordinales.add(u);
+        }
+        return ordinales.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static double[] zonaAlrededor(CompactGraph grafo, int u) {
+        double lat = grafo.getEstacion(u).getLatitud();
+        double lon = grafo.getEstacion(u).getLongitud();
+        double medio = LADO_ZONA_GRADOS / 2;
+        return new double[]{lat - medio, lon - medio, lat + medio, lon + medio};
+    }
+
+    private static boolean disjuntos(int[] a, int[] b) {
+        for (int u : a) {
+            for (int v : b) {
+                if (u == v) return false;
+            }
+        }
+        return true;
+    }
+
+    private static void comparar(String nombre, CompactGraph grafo, List<int[]> pares) {
+        if (pares.isEmpty()) return;
+
+        // Calentamiento y verificación de que ambos motores coinciden
+        for (int[] par : pares) {
+            int dinic = MaxFlow.calcularFlujoMaximo(grafo, par[0], par[1], MaxFlow.Motor.DINIC);
+            int pushRelabel = MaxFlow.calcularFlujoMaximo(grafo, par[0], par[1], MaxFlow.Motor.PUSH_RELABEL);
+            if (dinic != pushRelabel) {
+                throw new IllegalStateException("Flujos distintos para " + grafo.getEstacion(par[0])
+                        + " → " + grafo.getEstacion(par[1]) + ": " + dinic + " vs " + pushRelabel);
+            }
+        }
+
+        System.out.printf("%s (%d pares):%n", nombre, pares.size());
+        for (MaxFlow.Motor motor : MaxFlow.Motor.values()) {
+            long inicio = System.nanoTime();
+            long total = 0;
+            for (int[] par : pares) {
+                total += MaxFlow.calcularFlujoMaximo(grafo, par[0], par[1], motor);
+            }
+            double ms = (System.nanoTime() - inicio) / 1e6;
+            System.out.printf("  %-13s %9.2f ms total | %7.3f ms/par | flujo acumulado %d%n",
+                    motor, ms, ms / pares.size(), total);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.transporte.bogota.service;
+
+import com.transporte.bogota.dao.CSVDataLoader;
+import com.transporte.bogota.model.SistemaTransporte;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Búsquedas de EstacionIndexService sobre los datos reales de data/, con las
+ * estaciones del sistema registradas como lo hace TransporteService al iniciar.
+ */
+class EstacionIndexServiceTest {
+
+    private static EstacionIndexService servicio;
+
+    private static synchronized EstacionIndexService servicio() throws IOException {
+        if (servicio == null) {
+            SistemaTransporte sistema = new SistemaTransporte();
+            new CSVDataLoader(sistema).cargarDatos();
+            EstacionIndexService nuevo = new EstacionIndexService();
+            nuevo.init();
+            nuevo.indexarEstacionesPrincipales(sistema.getAllEstaciones());
+            servicio = nuevo;
+        }
+        return servicio;
+    }
+
+    @Test
+    void aproximadoToleraErroresDeTipeo() throws IOException {
+        List<Map<String, Object>> resultados = servicio().buscarAproximado("Ricuarte", 5);
+
+        assertFalse(resultados.isEmpty());
+        for (Map<String, Object> estacion : resultados) {
+            String nombre = (String) estacion.get("nombre");
+            assertTrue(nombre.contains("Ricaurte"), nombre);
+        }
+    }
+
+    @Test
+    void aproximadoIgnoraTildes() throws IOException {
+        List<Map<String, Object>> resultados = servicio().buscarAproximado("angels", 5);
+
+        assertFalse(resultados.isEmpty());
+        for (Map<String, Object> estacion : resultados) {
+            String nombre = (String) estacion.get("nombre");
+            assertTrue(nombre.contains("Ángeles"), nombre);
+        }
+    }
+
+    @Test
+    void rankeadoNoRepiteEstaciones() throws IOException {
+        for (String consulta : new String[]{"ricaurte", "calle 26", "angeles", "portal", "SITP05"}) {
+            List<Map<String, Object>> resultados = servicio().buscarRankeado(consulta, 10);
+            Set<Object> ids = new HashSet<>();
+            for (Map<String, Object> estacion : resultados) {
+                assertTrue(ids.add(estacion.get("id")), "'" + consulta + "' repite " + estacion.get("id"));
+            }
+            assertEquals(10, resultados.size(), consulta);
+        }
+    }
+
+    @Test
+    void rankeadoOrdenaPorCoincidenciaEImportancia() throws IOException {
+        List<Map<String, Object>> resultados = servicio().buscarRankeado("ricaurte", 10);
+
+        // Nombre idéntico primero; entre los prefijos, las troncales antes que las SITP
+        assertEquals("SITP058A00", resultados.get(0).get("id"));
+        assertEquals("TM07111", resultados.get(1).get("id"));
+        assertEquals("TM12003", resultados.get(2).get("id"));
+        assertEquals("sitp", resultados.get(3).get("tipo"));
+    }
+
+    @Test
+    void aproximadoNoRepiteEstaciones() throws IOException {
+        List<Map<String, Object>> resultados = servicio().buscarAproximado("angels", 10);
+        Set<Object> ids = new HashSet<>();
+        for (Map<String, Object> estacion : resultados) {
+            assertTrue(ids.add(estacion.get("id")), "repite " + estacion.get("id"));
+        }
+        assertEquals("TM03003", resultados.get(0).get("id"), "21 Ángeles es la única principal");
+    }
+}
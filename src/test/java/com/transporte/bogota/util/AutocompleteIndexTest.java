@@ -0,0 +1,103 @@
+package com.transporte.bogota.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Compara AutocompleteIndex con ordenar por fuerza bruta todos los documentos que
+ * contienen la consulta, tanto en las consultas cortas precalculadas como en las
+ * que recorren el índice de n-gramas.
+ */
+class AutocompleteIndexTest {
+
+    private static final String ALFABETO = "abcáéñ 1-";
+
+    private static final class Documento {
+        final int importancia;
+        final String[] campos; // normalizados
+
+        Documento(int importancia, String[] campos) {
+            this.importancia = importancia;
+            this.campos = campos;
+        }
+    }
+
+    @Test
+    void coincideConFuerzaBruta() {
+        Random random = new Random(2024);
+        List<String> nombres = new ArrayList<>();
+        List<Documento> documentos = new ArrayList<>();
+        AutocompleteIndex.Builder builder = new AutocompleteIndex.Builder();
+        for (int d = 0; d < 2000; d++) {
+            // Pocas importancias y largos para forzar empates
+            int importancia = random.nextInt(4) * 100_000 + random.nextInt(3);
+            String[] campos = {TextosAleatorios.texto(random, ALFABETO, 1 + random.nextInt(10)),
+                    TextosAleatorios.texto(random, ALFABETO, 1 + random.nextInt(4))};
+            nombres.add(campos[0]);
+            documentos.add(new Documento(importancia, TextosAleatorios.normalizados(campos)));
+            assertEquals(d, builder.add(importancia, campos));
+        }
+        AutocompleteIndex indice = builder.build();
+
+        for (int q = 0; q < 3000; q++) {
+            String consulta = q % 2 == 0
+                    ? TextosAleatorios.texto(random, ALFABETO, 1 + random.nextInt(5))
+                    : TextosAleatorios.subcadena(random, nombres.get(random.nextInt(nombres.size())));
+            int limit = random.nextBoolean()
+                    ? 1 + random.nextInt(AutocompleteIndex.K_PRECALCULADO)
+                    : AutocompleteIndex.K_PRECALCULADO + 1 + random.nextInt(50);
+            assertArrayEquals(fuerzaBruta(documentos, consulta, limit), indice.buscar(consulta, limit),
+                    "consulta '" + consulta + "', limit " + limit);
+        }
+    }
+
+    @Test
+    void rechazaImportanciaFueraDeRango() {
+        AutocompleteIndex.Builder builder = new AutocompleteIndex.Builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.add(-1, "a"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(AutocompleteIndex.MAX_IMPORTANCIA + 1, "a"));
+    }
+
+    private static int[] fuerzaBruta(List<Documento> documentos, String texto, int limit) {
+        String consulta = TextNormalizer.normalizar(texto);
+        if (consulta.isEmpty()) return new int[0];
+        List<long[]> coincidencias = new ArrayList<>(); // [documento, puntaje]
+        for (int d = 0; d < documentos.size(); d++) {
+            Documento documento = documentos.get(d);
+            int coincidencia = 0;
+            for (String campo : documento.campos) {
+                coincidencia = Math.max(coincidencia, coincidencia(campo, consulta));
+            }
+            if (coincidencia == 0) continue;
+            int largo = documento.campos[0].length();
+            long puntaje = ((long) coincidencia << 40) | ((long) documento.importancia << 16) | (0xFFFF - largo);
+            coincidencias.add(new long[]{d, puntaje});
+        }
+        return coincidencias.stream()
+                .sorted(Comparator.<long[]>comparingLong(c -> -c[1]).thenComparingLong(c -> c[0]))
+                .limit(limit)
+                .mapToInt(c -> (int) c[0])
+                .toArray();
+    }
+
+    /** 4 idéntico, 3 prefijo, 2 prefijo de una palabra, 1 subcadena, 0 ninguna. */
+    private static int coincidencia(String campo, String consulta) {
+        if (campo.equals(consulta)) return 4;
+        if (campo.startsWith(consulta)) return 3;
+        int mejor = 0;
+        for (int i = 1; i + consulta.length() <= campo.length(); i++) {
+            if (campo.startsWith(consulta, i)) {
+                mejor = Math.max(mejor, Character.isLetterOrDigit(campo.charAt(i - 1)) ? 1 : 2);
+            }
+        }
+        return mejor;
+    }
+}
@@ -0,0 +1,132 @@
+package com.transporte.bogota.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara SymSpellIndex con la búsqueda por fuerza bruta: distancia de
+ * Damerau-Levenshtein restringida entre cada palabra de la consulta y cada palabra
+ * de cada documento, sin diccionario de borrados.
+ */
+class SymSpellIndexTest {
+
+    private static final String ALFABETO = "abcdeé";
+
+    @Test
+    void coincideConFuerzaBruta() {
+        Random random = new Random(7);
+        List<String[]> documentos = new ArrayList<>();
+        SymSpellIndex.Builder builder = new SymSpellIndex.Builder();
+        for (int d = 0; d < 1500; d++) {
+            int numPalabras = 1 + random.nextInt(3);
+            StringBuilder nombre = new StringBuilder();
+            for (int p = 0; p < numPalabras; p++) {
+                if (p > 0) nombre.append(' ');
+                nombre.append(TextosAleatorios.texto(random, ALFABETO, 2 + random.nextInt(8)));
+            }
+            documentos.add(TextNormalizer.palabras(TextNormalizer.normalizar(nombre.toString())));
+            assertEquals(d, builder.add(nombre.toString()));
+        }
+        SymSpellIndex indice = builder.build();
+
+        for (int q = 0; q < 1000; q++) {
+            String[] palabras = documentos.get(random.nextInt(documentos.size()));
+            StringBuilder consulta = new StringBuilder();
+            for (String p : palabras) {
+                if (random.nextBoolean()) continue;
+                consulta.append(' ').append(editar(random, p));
+            }
+            if (consulta.length() == 0) consulta.append(editar(random, palabras[0]));
+            int limit = random.nextBoolean() ? Integer.MAX_VALUE : 1 + random.nextInt(10);
+            assertArrayEquals(fuerzaBruta(documentos, consulta.toString(), limit),
+                    indice.buscar(consulta.toString(), limit), "consulta '" + consulta + "'");
+        }
+    }
+
+    @Test
+    void toleraTransposiciones() {
+        SymSpellIndex indice = new SymSpellIndex.Builder().build();
+        assertEquals(0, indice.buscar("ricuarte", 10).length);
+
+        SymSpellIndex.Builder builder = new SymSpellIndex.Builder();
+        builder.add("Ricaurte");
+        builder.add("Calle 26");
+        assertArrayEquals(new int[]{0}, builder.build().buscar("Ricuarte", 10));
+    }
+
+    /** Documentos (como sus palabras normalizadas) ordenados por distancia total. */
+    private static int[] fuerzaBruta(List<String[]> documentos, String texto, int limit) {
+        String[] consulta = TextNormalizer.palabras(TextNormalizer.normalizar(texto));
+        if (consulta.length == 0) return new int[0];
+        List<int[]> coincidencias = new ArrayList<>(); // [documento, distancia total]
+        for (int d = 0; d < documentos.size(); d++) {
+            int total = 0;
+            for (String palabra : consulta) {
+                int mejor = Integer.MAX_VALUE;
+                for (String suya : documentos.get(d)) {
+                    int distancia = osa(palabra, suya);
+                    if (distancia <= SymSpellIndex.distanciaPermitida(palabra.length())) {
+                        mejor = Math.min(mejor, distancia);
+                    }
+                }
+                if (mejor == Integer.MAX_VALUE) {
+                    total = -1;
+                    break;
+                }
+                total += mejor;
+            }
+            if (total >= 0) coincidencias.add(new int[]{d, total});
+        }
+        return coincidencias.stream()
+                .sorted(Comparator.<int[]>comparingInt(c -> c[1]).thenComparingInt(c -> c[0]))
+                .limit(limit)
+                .mapToInt(c -> c[0])
+                .toArray();
+    }
+
+    /** Damerau-Levenshtein restringida con la tabla completa. */
+    private static int osa(String a, String b) {
+        int[][] t = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) t[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) t[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                t[i][j] = Math.min(Math.min(t[i - 1][j] + 1, t[i][j - 1] + 1), t[i - 1][j - 1] + costo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    t[i][j] = Math.min(t[i][j], t[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return t[a.length()][b.length()];
+    }
+
+    /** La palabra con 0 a 3 ediciones aleatorias (a veces más de las permitidas). */
+    private static String editar(Random random, String palabra) {
+        StringBuilder sb = new StringBuilder(palabra);
+        int ediciones = random.nextInt(4);
+        for (int e = 0; e < ediciones && sb.length() > 1; e++) {
+            int i = random.nextInt(sb.length());
+            switch (random.nextInt(4)) {
+                case 0 -> sb.deleteCharAt(i);
+                case 1 -> sb.insert(i, ALFABETO.charAt(random.nextInt(ALFABETO.length())));
+                case 2 -> sb.setCharAt(i, ALFABETO.charAt(random.nextInt(ALFABETO.length())));
+                default -> {
+                    if (i + 1 < sb.length()) {
+                        char c = sb.charAt(i);
+                        sb.setCharAt(i, sb.charAt(i + 1));
+                        sb.setCharAt(i + 1, c);
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package com.transporte.bogota.util;
+
+import java.util.Random;
+
+/**
+ * Generadores de textos aleatorios (con semilla del test) para comparar los índices
+ * de texto con sus búsquedas por fuerza bruta.
+ */
+final class TextosAleatorios {
+
+    private TextosAleatorios() {
+    }
+
+    /** Texto con letras del alfabeto, en mayúscula una de cada cuatro veces en promedio. */
+    static String texto(Random random, String alfabeto, int largo) {
+        StringBuilder sb = new StringBuilder(largo);
+        for (int i = 0; i < largo; i++) {
+            char c = alfabeto.charAt(random.nextInt(alfabeto.length()));
+            sb.append(random.nextInt(4) == 0 ? Character.toUpperCase(c) : c);
+        }
+        return sb.toString();
+    }
+
+    /** Subcadena no vacía del texto. */
+    static String subcadena(Random random, String texto) {
+        int desde = random.nextInt(texto.length());
+        return texto.substring(desde, desde + 1 + random.nextInt(texto.length() - desde));
+    }
+
+    /** Los campos normalizados como los guardan los índices. */
+    static String[] normalizados(String[] campos) {
+        String[] resultado = new String[campos.length];
+        for (int i = 0; i < campos.length; i++) resultado[i] = TextNormalizer.normalizar(campos[i]);
+        return resultado;
+    }
+}
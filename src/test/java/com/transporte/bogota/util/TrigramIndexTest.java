@@ -0,0 +1,67 @@
+package com.transporte.bogota.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara TrigramIndex con la búsqueda por fuerza bruta (contains sobre cada campo
+ * normalizado) en textos aleatorios con semilla fija.
+ */
+class TrigramIndexTest {
+
+    private static final String ALFABETO = "abcáéñ 1-";
+
+    @Test
+    void coincideConFuerzaBruta() {
+        Random random = new Random(42);
+        List<String> nombres = new ArrayList<>();
+        List<String[]> documentos = new ArrayList<>();
+        TrigramIndex.Builder builder = new TrigramIndex.Builder();
+        for (int d = 0; d < 2000; d++) {
+            String[] campos = {TextosAleatorios.texto(random, ALFABETO, 1 + random.nextInt(12)),
+                    TextosAleatorios.texto(random, ALFABETO, 1 + random.nextInt(6))};
+            nombres.add(campos[0]);
+            documentos.add(TextosAleatorios.normalizados(campos));
+            assertEquals(d, builder.add(campos));
+        }
+        TrigramIndex indice = builder.build();
+
+        for (int q = 0; q < 3000; q++) {
+            String consulta = q % 2 == 0
+                    ? TextosAleatorios.texto(random, ALFABETO, 1 + random.nextInt(6))
+                    : TextosAleatorios.subcadena(random, nombres.get(random.nextInt(nombres.size())));
+            int limit = random.nextBoolean() ? Integer.MAX_VALUE : 1 + random.nextInt(20);
+            assertArrayEquals(fuerzaBruta(documentos, consulta, limit), indice.buscar(consulta, limit),
+                    "consulta '" + consulta + "', limit " + limit);
+        }
+    }
+
+    @Test
+    void consultaVaciaNoDevuelveNada() {
+        TrigramIndex indice = new TrigramIndex.Builder().build();
+        assertEquals(0, indice.buscar("", 10).length);
+        assertEquals(0, indice.buscar("abc", 10).length);
+    }
+
+    /** Documentos (campos ya normalizados) que contienen el texto, en orden. */
+    private static int[] fuerzaBruta(List<String[]> documentos, String texto, int limit) {
+        String consulta = TextNormalizer.normalizar(texto);
+        if (consulta.isEmpty()) return new int[0];
+        List<Integer> resultado = new ArrayList<>();
+        for (int d = 0; d < documentos.size() && resultado.size() < limit; d++) {
+            for (String campo : documentos.get(d)) {
+                if (campo.contains(consulta)) {
+                    resultado.add(d);
+                    break;
+                }
+            }
+        }
+        return resultado.stream().mapToInt(Integer::intValue).toArray();
+    }
+}